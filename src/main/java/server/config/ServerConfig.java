@@ -0,0 +1,56 @@
+package server.config;
+
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * config.properties 설정값을 읽어 두는 클래스
+ * - 서버 시작 시 클래스패스에서 한 번만 읽고, 이후에는 메모리의 값을 사용
+ * - 값이 없거나 형식이 잘못되면 호출한 쪽에서 넘긴 기본값을 사용
+ * @author user
+ */
+public class ServerConfig {
+    private static final String CONFIG_FILE = "config.properties";
+    private static final Properties props = load();
+
+    private ServerConfig() {}
+
+    private static Properties load() {
+        Properties prop = new Properties();
+        try (InputStream input = ServerConfig.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
+            if (input != null) {
+                prop.load(input);
+            }
+        } catch (Exception e) {
+            System.out.println("[경고] config.properties를 읽지 못했습니다. 기본값 사용");
+        }
+        return prop;
+    }
+
+    public static String getString(String key, String def) {
+        String value = props.getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? def : value.trim();
+    }
+
+    public static int getInt(String key, int def) {
+        try {
+            return Integer.parseInt(getString(key, String.valueOf(def)));
+        } catch (NumberFormatException e) {
+            System.out.println("[경고] 설정값 형식 오류: " + key + " (기본값 " + def + " 사용)");
+            return def;
+        }
+    }
+
+    public static long getLong(String key, long def) {
+        try {
+            return Long.parseLong(getString(key, String.valueOf(def)));
+        } catch (NumberFormatException e) {
+            System.out.println("[경고] 설정값 형식 오류: " + key + " (기본값 " + def + " 사용)");
+            return def;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean def) {
+        return Boolean.parseBoolean(getString(key, String.valueOf(def)));
+    }
+}
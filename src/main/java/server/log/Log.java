@@ -0,0 +1,204 @@
+package server.log;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import server.config.ServerConfig;
+
+/**
+ * 비동기 로거 (System.out.println 대체)
+ * - 호출한 스레드는 미리 할당된 링 버퍼의 칸 하나에 메시지를 채워 넣기만 하고 바로 돌아감
+ *   (콘솔 출력은 전용 스레드 log-writer 하나가 모아서 처리하므로 요청 처리 스레드가 stdout 락을 기다리지 않음)
+ * - 링 버퍼가 가득 차면 기다리지 않고 버리며, 버린 개수는 주기적으로 한 줄로 알림
+ * - 레벨: log.level 미만의 메시지는 버퍼에 넣지도 않음
+ * - DEBUG/INFO는 초당 log.rateLimit개까지만 기록 (WARN/ERROR는 제한 없음)
+ * - 메시지 문자열 조립(prefix + value)은 출력 스레드에서 하므로 호출 측에서 문자열을 이어 붙이지 않아도 됨
+ * @author user
+ */
+public final class Log {
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final Level LEVEL = parseLevel(ServerConfig.getString("log.level", "INFO"));
+    private static final int RATE_LIMIT = ServerConfig.getInt("log.rateLimit", 10000);
+    private static final Slot[] RING = createRing(ServerConfig.getInt("log.bufferSize", 8192));
+    private static final int MASK = RING.length - 1;
+    private static final PrintStream OUT = System.out;
+
+    /** 다음에 받을 메시지 번호 (생산자들이 CAS로 칸을 확보) */
+    private static final AtomicLong claimed = new AtomicLong();
+    /** 출력 스레드가 처리를 끝낸 메시지 번호 (이 번호 미만의 칸은 재사용 가능) */
+    private static volatile long consumed;
+
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong suppressed = new AtomicLong();
+    private static volatile long rateWindow;
+    private static final AtomicInteger rateCount = new AtomicInteger();
+
+    static {
+        Thread writer = new Thread(Log::drain, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** 링 버퍼의 칸. sequence가 (메시지 번호 + 1)이면 내용이 채워진 상태 */
+    private static final class Slot {
+        volatile long sequence;
+        Level level;
+        long time;
+        String message;
+        Object value;
+        Throwable error;
+    }
+
+    private Log() {}
+
+    public static void debug(String message) { log(Level.DEBUG, message, null, null); }
+    public static void debug(String prefix, Object value) { log(Level.DEBUG, prefix, value, null); }
+    public static void info(String message) { log(Level.INFO, message, null, null); }
+    public static void info(String prefix, Object value) { log(Level.INFO, prefix, value, null); }
+    public static void warn(String message) { log(Level.WARN, message, null, null); }
+    public static void warn(String prefix, Object value) { log(Level.WARN, prefix, value, null); }
+    public static void error(String message) { log(Level.ERROR, message, null, null); }
+    public static void error(String message, Throwable error) { log(Level.ERROR, message, null, error); }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(LEVEL) >= 0;
+    }
+
+    /** 버퍼가 가득 차서 버린 메시지 수 */
+    public static long getDropped() { return dropped.get(); }
+    /** 초당 제한을 넘어 버린 메시지 수 */
+    public static long getSuppressed() { return suppressed.get(); }
+
+    /**
+     * 지금까지 넣은 메시지가 모두 출력될 때까지 최대 timeoutMillis 동안 대기 (서버 종료 시)
+     * @return 모두 출력했으면 true
+     */
+    public static boolean flush(long timeoutMillis) {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (consumed < target) {
+            if (System.nanoTime() > deadline) return false;
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    private static void log(Level level, String message, Object value, Throwable error) {
+        if (!isEnabled(level)) return;
+        if (level.compareTo(Level.WARN) < 0 && !withinRate()) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed >= RING.length) { // 버퍼 가득 참: 기다리지 않고 버림
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+
+        Slot slot = RING[(int) seq & MASK];
+        slot.level = level;
+        slot.time = System.currentTimeMillis();
+        slot.message = message;
+        slot.value = value;
+        slot.error = error;
+        slot.sequence = seq + 1; // 게시 (volatile 쓰기)
+    }
+
+    /** 1초 단위 고정 창 카운터. 창이 바뀌는 순간의 경합으로 조금 더 통과할 수 있으나 상한 역할에는 충분 */
+    private static boolean withinRate() {
+        if (RATE_LIMIT <= 0) return true;
+        long window = System.currentTimeMillis() / 1000;
+        if (window != rateWindow) {
+            rateWindow = window;
+            rateCount.set(0);
+        }
+        return rateCount.incrementAndGet() <= RATE_LIMIT;
+    }
+
+    /** 출력 스레드: 채워진 칸을 순서대로 모아 한 번에 출력 */
+    private static void drain() {
+        StringBuilder sb = new StringBuilder(8 * 1024);
+        long reportedDropped = 0;
+        long reportedSuppressed = 0;
+        long nextReport = System.currentTimeMillis() + 1000;
+        while (true) {
+            long next = consumed;
+            Slot slot = RING[(int) next & MASK];
+            if (slot.sequence == next + 1) {
+                format(sb, slot);
+                slot.message = null;
+                slot.value = null;
+                slot.error = null;
+                consumed = next + 1; // 칸 반납
+                if (sb.length() < 64 * 1024) continue; // 밀린 메시지는 모아서 한 번에 출력
+            }
+            long now = System.currentTimeMillis();
+            if (now >= nextReport) {
+                nextReport = now + 1000;
+                long d = dropped.get();
+                long s = suppressed.get();
+                if (d != reportedDropped || s != reportedSuppressed) {
+                    sb.append(LocalTime.now().format(TIME)).append(" WARN  [log] 버퍼 초과로 버린 메시지 ")
+                      .append(d - reportedDropped).append("개, 초당 제한으로 버린 메시지 ").append(s - reportedSuppressed).append("개")
+                      .append(System.lineSeparator());
+                    reportedDropped = d;
+                    reportedSuppressed = s;
+                }
+            }
+            if (sb.length() > 0) {
+                OUT.print(sb);
+                OUT.flush();
+                sb.setLength(0);
+            } else {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private static void format(StringBuilder sb, Slot slot) {
+        sb.append(LocalTime.ofInstant(Instant.ofEpochMilli(slot.time), ZONE).format(TIME)).append(' ');
+        String name = slot.level.name();
+        sb.append(name);
+        for (int i = name.length(); i < 6; i++) sb.append(' ');
+        sb.append(slot.message);
+        if (slot.value != null) sb.append(slot.value);
+        sb.append(System.lineSeparator());
+        if (slot.error != null) {
+            StringWriter trace = new StringWriter();
+            slot.error.printStackTrace(new PrintWriter(trace));
+            sb.append(trace);
+        }
+    }
+
+    private static Slot[] createRing(int size) {
+        int capacity = Integer.highestOneBit(Math.max(64, size - 1)) << 1; // 2의 거듭제곱으로 올림
+        Slot[] ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) ring[i] = new Slot();
+        return ring;
+    }
+
+    private static Level parseLevel(String value) {
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("[Config] log.level 값이 올바르지 않음: " + value + " (INFO 사용)");
+            return Level.INFO;
+        }
+    }
+}
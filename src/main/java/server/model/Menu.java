@@ -17,6 +17,11 @@ public class Menu {
         this.stock = stock;
     }
 
+    /** 복사 생성자 */
+    public Menu(Menu other) {
+        this(other.menuId, other.name, other.price, other.category, other.isAvailable, other.stock);
+    }
+
     public String getMenuId() {
         return menuId;
     }
@@ -15,8 +15,10 @@ public class Reservation {
     private String reservationStatus;
     private String createdAt;
     private String customerRequest;
+    // 변경 번호: 새 예약은 1, 상태/요청사항이 바뀔 때마다 1씩 증가 (저장소가 csv/로그에 함께 저장하고 읽을 때 그대로 복원)
+    private long version = 1;
 
-    public Reservation(String reservationId, String roomNumber, String guestName, String checkInDate, String checkOutDate, int guestNum, String phoneNumber, String reservationStatus, String createdAt, String customerRequsest) {
+    public Reservation(String reservationId, String roomNumber, String guestName, String checkInDate, String checkOutDate, int guestNum, String phoneNumber, String reservationStatus, String createdAt, String customerRequest) {
         this.reservationId = reservationId;
         this.roomNumber = roomNumber;
         this.guestName = guestName;
@@ -29,6 +31,13 @@ public class Reservation {
         this.customerRequest = (customerRequest == null) ? "" : customerRequest;
     }
 
+    /** 복사 생성자 */
+    public Reservation(Reservation other) {
+        this(other.reservationId, other.roomNumber, other.guestName, other.checkInDate, other.checkOutDate,
+                other.guestNum, other.phoneNumber, other.reservationStatus, other.createdAt, other.customerRequest);
+        this.version = other.version;
+    }
+
     public String getReservationId() { return reservationId; }
     public String getRoomNumber() { return roomNumber; }
     public String getGuestName() { return guestName; }
@@ -39,10 +48,12 @@ public class Reservation {
     public String getReservationStatus() { return reservationStatus; }
     public String getCreatedAt() { return createdAt; }
     public String getCustomerRequest() { return customerRequest;}
+    public long getVersion() { return version; }
 
     //setter
     public void setReservationStatus(String reservationStatus) { this.reservationStatus = reservationStatus; }
     public void setCustomerRequest(String customerRequest){this.customerRequest = customerRequest;}
+    public void setVersion(long version) { this.version = version; }
     
     @Override
     public String toString() {
@@ -27,6 +27,11 @@ public class User {
         this.phone = phone == null ? "" : phone.trim();
     }
 
+    /** 복사 생성자 */
+    public User(User other) {
+        this(other.id, other.name, other.password, other.role, other.phone);
+    }
+
     public String getId(){
         return id;
     }
@@ -0,0 +1,263 @@
+package server.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import server.net.command.Reply;
+import server.net.command.RequestLine;
+
+/**
+ * 바이너리 프로토콜 인코더/디코더 (PROTOCOL:BINARY 로 협상한 연결에서 사용)
+ * 모든 정수는 빅엔디언, 문자열은 UTF-8
+ *
+ * 프레임 : [int32 payload 길이][payload]
+ * 필드   : [u8 타입][값]
+ *          1 STRING  [int32 바이트 수][UTF-8 바이트]
+ *          2 INT32   [int32]
+ *          3 INT64   [int64]
+ *          4 FLOAT64 [float64]
+ *          5 BOOL    [u8 0/1]
+ * 요청 payload
+ *   0 COMMAND [u16 필드 수][필드...]              (0번 필드는 명령어, 예: LOGIN, id, pw)
+ *   1 BATCH   [u16 명령 수]([u16 필드 수][필드...])...
+ * 응답 payload
+ *   0 TEXT    [int32 바이트 수][UTF-8 바이트]      (텍스트 프로토콜의 응답 한 줄과 같은 내용)
+ *   1 TABLE   [머리말 문자열][int32 행 수]([u16 필드 수][필드...])...
+ *   2 BATCH   [u16 응답 수][응답 payload...]
+ *   3 DEFLATED [int32 원래 payload 길이][zlib 압축된 응답 payload] (COMPRESS:DEFLATE 협상 시 threshold 이상)
+ *
+ * 필드 값에 ':' ',' '|' '/'가 있어도 그대로 전달되고, 목록 응답은 String.format 없이 필드를 바로 쓴다.
+ * @author user
+ */
+public final class BinaryCodec {
+    static final byte REQUEST_COMMAND = 0;
+    static final byte REQUEST_BATCH = 1;
+
+    static final byte REPLY_TEXT = 0;
+    static final byte REPLY_TABLE = 1;
+    static final byte REPLY_BATCH = 2;
+    static final byte REPLY_DEFLATED = 3;
+
+    static final byte TYPE_STRING = 1;
+    static final byte TYPE_INT32 = 2;
+    static final byte TYPE_INT64 = 3;
+    static final byte TYPE_FLOAT64 = 4;
+    static final byte TYPE_BOOL = 5;
+
+    private BinaryCodec() {}
+
+    /**
+     * 스트림에서 프레임 하나의 payload를 읽음
+     * @return payload, 프레임 경계에서 스트림이 끝났으면 null
+     * @throws ProtocolException 길이가 음수일 때 (maxFrameBytes를 넘으면 RequestTooLargeException)
+     */
+    public static byte[] readFrame(InputStream in, int maxFrameBytes) throws IOException {
+        int b0 = in.read();
+        if (b0 < 0) return null;
+        int b1 = in.read(), b2 = in.read(), b3 = in.read();
+        if ((b1 | b2 | b3) < 0) throw new EOFException("프레임 길이를 읽는 중 연결 종료");
+        int length = (b0 << 24) | (b1 << 16) | (b2 << 8) | b3;
+        checkLength(length, maxFrameBytes);
+        byte[] payload = in.readNBytes(length);
+        if (payload.length < length) throw new EOFException("프레임을 읽는 중 연결 종료");
+        return payload;
+    }
+
+    static void checkLength(int length, int maxFrameBytes) throws ProtocolException {
+        if (length < 0) throw new ProtocolException("프레임 길이 오류: " + length);
+        if (length > maxFrameBytes) throw new RequestTooLargeException(maxFrameBytes);
+    }
+
+    /**
+     * 요청 payload를 요청 단위로 변환
+     * - 배치 명령 수가 1~maxBatch 범위를 벗어나면 텍스트 프로토콜과 같은 BATCH 형식 오류 응답을 받도록
+     *   "BATCH" 단일 요청으로 바꿈
+     */
+    public static RequestUnit decodeRequest(ByteBuffer payload, int maxBatch) throws ProtocolException {
+        try {
+            byte kind = payload.get();
+            if (kind == REQUEST_COMMAND) {
+                RequestUnit unit = RequestUnit.single(readCommand(payload));
+                checkConsumed(payload);
+                return unit;
+            }
+            if (kind == REQUEST_BATCH) {
+                int count = Short.toUnsignedInt(payload.getShort());
+                if (count < 1 || count > maxBatch) {
+                    return RequestUnit.single(RequestLine.ofFields(RequestFramer.BATCH_COMMAND));
+                }
+                List<RequestLine> commands = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    commands.add(readCommand(payload));
+                }
+                checkConsumed(payload);
+                return RequestUnit.batchOf(commands);
+            }
+            throw new ProtocolException("알 수 없는 요청 종류: " + kind);
+        } catch (BufferUnderflowException ex) {
+            throw new ProtocolException("요청 프레임이 잘림");
+        }
+    }
+
+    private static void checkConsumed(ByteBuffer payload) throws ProtocolException {
+        if (payload.hasRemaining()) throw new ProtocolException("요청 프레임 끝에 남은 바이트: " + payload.remaining());
+    }
+
+    private static RequestLine readCommand(ByteBuffer in) throws ProtocolException {
+        int count = Short.toUnsignedInt(in.getShort());
+        String[] fields = new String[count];
+        for (int i = 0; i < count; i++) {
+            fields[i] = readField(in);
+        }
+        return RequestLine.ofFields(fields);
+    }
+
+    /** 필드 하나를 읽어 명령 처리에 쓰는 문자열로 변환 (숫자는 10진 문자열) */
+    private static String readField(ByteBuffer in) throws ProtocolException {
+        byte type = in.get();
+        switch (type) {
+            case TYPE_STRING: {
+                int length = in.getInt();
+                if (length < 0 || length > in.remaining()) throw new ProtocolException("문자열 길이 오류: " + length);
+                String s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+                return s;
+            }
+            case TYPE_INT32:   return Integer.toString(in.getInt());
+            case TYPE_INT64:   return Long.toString(in.getLong());
+            case TYPE_FLOAT64: return Double.toString(in.getDouble());
+            case TYPE_BOOL:    return in.get() != 0 ? "true" : "false";
+            default: throw new ProtocolException("알 수 없는 필드 타입: " + type);
+        }
+    }
+
+    /** 응답을 길이 접두 프레임으로 인코딩 (반환 버퍼의 position~limit이 보낼 바이트) */
+    public static ByteBuffer encodeFrame(Reply reply) {
+        Output out = new Output(estimateSize(reply));
+        out.putInt(0); // 길이 자리
+        writeReply(out, reply);
+        out.patchInt(0, out.length - 4);
+        return ByteBuffer.wrap(out.buf, 0, out.length);
+    }
+
+    /** 압축된 응답 프레임: [길이][DEFLATED][원래 payload 길이][압축 데이터] */
+    static ByteBuffer deflatedFrame(int rawLength, byte[] data, int length) {
+        Output out = new Output(9 + length);
+        out.putInt(5 + length);
+        out.put(REPLY_DEFLATED);
+        out.putInt(rawLength);
+        System.arraycopy(data, 0, out.buf, out.length, length);
+        out.length += length;
+        return ByteBuffer.wrap(out.buf, 0, out.length);
+    }
+
+    private static int estimateSize(Reply reply) {
+        return 64 + reply.getRows().size() * 96;
+    }
+
+    private static void writeReply(Output out, Reply reply) {
+        switch (reply.getKind()) {
+            case TEXT:
+                out.put(REPLY_TEXT);
+                out.putString(reply.getText());
+                break;
+            case TABLE:
+                out.put(REPLY_TABLE);
+                out.putString(reply.getText());
+                out.putInt(reply.getRows().size());
+                for (Object[] row : reply.getRows()) {
+                    out.putShort(row.length);
+                    for (Object value : row) {
+                        writeField(out, value);
+                    }
+                }
+                break;
+            default:
+                out.put(REPLY_BATCH);
+                out.putShort(reply.getParts().size());
+                for (Reply part : reply.getParts()) {
+                    writeReply(out, part);
+                }
+        }
+    }
+
+    private static void writeField(Output out, Object value) {
+        if (value instanceof Integer i) {
+            out.put(TYPE_INT32);
+            out.putInt(i);
+        } else if (value instanceof Long l) {
+            out.put(TYPE_INT64);
+            out.putLong(l);
+        } else if (value instanceof Double d) {
+            out.put(TYPE_FLOAT64);
+            out.putLong(Double.doubleToLongBits(d));
+        } else if (value instanceof Boolean b) {
+            out.put(TYPE_BOOL);
+            out.put((byte) (b ? 1 : 0));
+        } else {
+            out.put(TYPE_STRING);
+            out.putString(String.valueOf(value));
+        }
+    }
+
+    /** 크기가 늘어나는 빅엔디언 바이트 버퍼 (응답 하나를 만드는 동안만 사용) */
+    private static final class Output {
+        private byte[] buf;
+        private int length;
+
+        Output(int capacity) {
+            buf = new byte[capacity];
+        }
+
+        private void ensure(int n) {
+            if (length + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, length + n));
+            }
+        }
+
+        void put(byte b) {
+            ensure(1);
+            buf[length++] = b;
+        }
+
+        void putShort(int v) {
+            ensure(2);
+            buf[length++] = (byte) (v >>> 8);
+            buf[length++] = (byte) v;
+        }
+
+        void putInt(int v) {
+            ensure(4);
+            patchInt(length, v);
+            length += 4;
+        }
+
+        void patchInt(int at, int v) {
+            buf[at] = (byte) (v >>> 24);
+            buf[at + 1] = (byte) (v >>> 16);
+            buf[at + 2] = (byte) (v >>> 8);
+            buf[at + 3] = (byte) v;
+        }
+
+        void putLong(long v) {
+            putInt((int) (v >>> 32));
+            putInt((int) v);
+        }
+
+        void putString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, length, bytes.length);
+            length += bytes.length;
+        }
+    }
+}
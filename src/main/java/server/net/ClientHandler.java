@@ -1,569 +1,188 @@
 package server.net;
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
-import java.util.List;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.Executor;
 
-import server.model.Menu;
-import server.model.Room;
-import server.model.User;
-import server.service.AuthService;
-import server.service.HotelService;
-import server.service.MenuOrderService;
-import server.service.MenuService;
-import server.service.ReportService;
+import server.log.Log;
+import server.net.command.Reply;
 
 /**
  *  각 클라이언트 연결을 개별 스레드에서 처리하는 클래스 (Runnable 인터페이스 구현)
+ *  - 클라이언트가 응답을 기다리지 않고 여러 요청을 연달아 보내도 RequestPipeline이 처리하고,
+ *    응답은 요청 순서대로 돌려준다
+ *  - 첫 요청 전에 PROTOCOL/COMPRESS 협상 줄을 받을 수 있다 (Session 참고)
+ *  - 유휴 시간 초과, 요청 크기 초과 시 연결을 끊는다 (ConnectionGuard)
+ *    (처리를 기다리는 요청과 모으는 중인 배치의 바이트 수도 guard의 maxQueuedBytes를 넘으면 요청 크기 초과)
+ *    (유휴 시간은 처리 중인 요청이 없을 때만 셈: 느린 요청의 응답을 기다리는 연결은 끊지 않음)
  * @author user
  */
 public class ClientHandler implements Runnable {
     private final Socket clientSocket;
-    private final AuthService authService;
-    private final HotelService hotelService;
-    private final MenuService menuService;
-    private final MenuOrderService menuOrderService;
-    private final ReportService reportService;
-
-    public ClientHandler(Socket socket, AuthService authService,HotelService hotelService, MenuService menuService, MenuOrderService menuOrderService, ReportService reportService){
+    private final RequestHandler requestHandler;
+    private final Executor workers;
+    private final int maxInFlight;
+    private final int maxBatch;
+    private final int maxFrameBytes;
+    private final ConnectionGuard guard;
+    private final Charset charset = Charset.defaultCharset();
+
+    public ClientHandler(Socket socket, RequestHandler requestHandler, Executor workers, int maxInFlight, int maxBatch, int maxFrameBytes, ConnectionGuard guard){
         this.clientSocket = socket;
-        this.authService = authService;
-        this.hotelService = hotelService;
-        this.menuService = menuService;
-        this.menuOrderService = menuOrderService;
-        this.reportService = reportService;
+        this.requestHandler = requestHandler;
+        this.workers = workers;
+        this.maxInFlight = maxInFlight;
+        this.maxBatch = maxBatch;
+        this.maxFrameBytes = maxFrameBytes;
+        this.guard = guard;
     }
     
     @Override
     public void run(){
-        String request;
+        Session session = new Session(charset);
         
         try{
-            BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-            PrintWriter out = new PrintWriter(clientSocket.getOutputStream(),true);
-            
-            while((request = in.readLine()) != null){
-                System.out.println("클라이언트 요청: " + request);
-                
-                //여기에 핵심코드 작성
-                String respone = handleRequest(request); //위임
-                out.println(respone); //응답
+            OutputStream out = new BufferedOutputStream(clientSocket.getOutputStream());
+            RequestPipeline pipeline = new RequestPipeline(requestHandler, workers, maxInFlight, guard.getMaxQueuedBytes(),
+                    reply -> send(out, session.encode(reply))); //응답은 요청 순서대로 출력
+            InputStream raw = clientSocket.getInputStream();
+            long idleMillis = guard.getIdleTimeoutMillis();
+            if (idleMillis > 0) {
+                // 소켓 타임아웃은 점검 주기(유휴 시간의 1/4, 0.1~1초)로만 쓰고, 처리 중인 요청이 없는 채로
+                // 유휴 시간이 지나야 읽기가 SocketTimeoutException으로 끝남
+                clientSocket.setSoTimeout((int) Math.max(100, Math.min(1000, idleMillis / 4)));
+                raw = new IdleInput(raw, idleMillis, pipeline);
+            }
+            InputStream in = new BufferedInputStream(raw);
+
+            try {
+                readRequests(in, out, session, pipeline);
+            }
+            catch(SocketTimeoutException ex){
+                guard.recordIdleEviction();
+                Log.info("유휴 시간 초과로 연결 종료 (", guard.getStats() + ")");
+            }
+            catch(RequestTooLargeException ex){
+                guard.recordOversizeEviction();
+                Log.warn("요청 크기 초과로 연결 종료 (", guard.getStats() + ")");
+                pipeline.awaitCompletion(); // 앞선 요청의 응답을 먼저 보내고 오류 응답
+                send(out, session.encode(Reply.text(ex.toReply())));
             }
+            pipeline.awaitCompletion(); // 남은 응답을 모두 보낸 뒤 종료
         }
-        
-        catch(IOException ex){
-            System.out.println("클라이언트 통신 오류");
-            ex.printStackTrace();
+        catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
         }
 
+        catch(IOException ex){
+            Log.error("클라이언트 통신 오류", ex);
+        }
+        finally{
+            // 연결 슬롯이 반납되도록 소켓을 확실히 닫음
+            try { clientSocket.close(); } catch (IOException ignore) {}
+            session.close();
+            guard.release(clientSocket.getInetAddress());
+            Log.info("클라이언트 종료");
+        }
     }
-    
-    private String handleRequest(String request){
-        try{
-            String[] parts = request.split(":", 3);
-            String command = parts[0].trim();
-            
-            switch(command){
-
-                case "GET_MENU_SALES":
-                    // 형식: GET_MENU_SALES:yyyy-MM-dd:yyyy-MM-dd
-                    if (parts.length == 3) {
-                        String start = parts[1];
-                        String end = parts[2];
-                        // ReportService에서 통합 매출 데이터 조회
-                        java.util.Map<String, Object> result = reportService.getMenuSalesByDateRange(start, end);
-                        double averageSales = (double) result.get("averageSales");
-                        @SuppressWarnings("unchecked")
-                        java.util.List<java.util.Map<String, Object>> salesTable = (java.util.List<java.util.Map<String, Object>>) result.get("salesTable");
-                        // 응답 문자열: MENU_SALES:평균매출|날짜,매출,최다판매메뉴;날짜,매출,최다판매메뉴;...
-                        StringBuilder sb = new StringBuilder("MENU_SALES:");
-                        sb.append(String.format("%.2f", averageSales)).append("|");
-                        boolean first = true;
-                        for (java.util.Map<String, Object> row : salesTable) {
-                            if (!first) sb.append(";");
-                            sb.append(row.get("date")).append(",").append(row.get("totalSales")).append(",").append(row.get("topMenu"));
-                            first = false;
-                        }
-                        return sb.toString();
-                    }
-                    return "ERROR:Format";
-                case "LOGIN":
-                    if(parts.length == 3){
-                        String username = parts[1];
-                        String password = parts[2];
-                        
-                        User user = authService.login(username, password);
-                        if(user != null){
-                            return "LOGIN_SUCCESS:" + user.getRole(); //로그인 성공    
-                        }
-                        else{    
-                            return "LOGIN_FAIL:Invalid credentials"; // 로그인 실패    
-                        }    
-                    }    
-                    else{    
-                        return "ERROR:Invalid LOGIN format"; // 형식 오류
-                    }                
-                case "GET_DASHBOARD":
-                    if(parts.length == 2){
-                        return hotelService.getRoomDashboard(parts[1]);
-                    }
-                    return hotelService.getRoomDashboard(java.time.LocalDate.now().toString());
-                    
-                case "CHECK_IN":
-                    String[] inParts = request.split(":");
-                    if (inParts.length >= 2) {
-                        boolean ok = hotelService.checkIn(inParts[1]);
-                        return ok ? "SUCCESS" : "FAIL";
-                    }
-                    return "ERROR:Format";
-
-                case "CHECK_OUT":
-                    String[] outParts = request.split(":");
-                    if (outParts.length >= 2) {
-                        boolean ok = hotelService.checkOut(outParts[1]);
-                        return ok ? "SUCCESS" : "FAIL";
-                    }
-                    return "ERROR:Format";
-                    
-                case "UPDATE_RESERVATION_STATUS":
-                    String[] Parts = request.split(":");
-                    if(Parts.length == 3){
-                        boolean ok = hotelService.updateReservationStatus(Parts[1], Parts[2]);
-                        return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL";
-                    }
-                    return "ERROR:Format";
-                    
-                case "GET_USERS":
-                    //서비스에서 모든 유저 가져오기
-                    java.util.List<User> users = authService.getAllUsers();
-                    StringBuilder sb = new StringBuilder("USER_LIST:");
-                    for (User u : users) {
-                        sb.append(u.getId()).append(",").append(u.getPassword()).append(",").append(u.getRole()).append(",").append(u.getPhone()).append(",").append(u.getName()).append("/");
-                    }
-                    return sb.toString();
-                case "GET_PAST_OCCUPANCY": {
-                    // GET_PAST_OCCUPANCY:yyyy-MM-dd:yyyy-MM-dd
-                    if (parts.length == 3) {
-                        String start = parts[1];
-                        String end = parts[2];
-                        return reportService.handlePastOccupancyRequest(start, end);
-                    }
-                    return "PAST_OCCUPANCY:";
-                }
-                case "GET_CURRENT_OCCUPANCY": {
-                    return reportService.handleCurrentOccupancyRequest();
-                }
-                case "GET_FUTURE_OCCUPANCY": {
-                    if (parts.length == 3) {
-                        String start = parts[1];
-                        String end = parts[2];
-                        return reportService.handleFutureOccupancyRequest(start, end);
-                    }
-                    return "FUTURE_OCCUPANCY:";
-                }
-                case "ADD_USER":
-                    // 형식(필수): ADD_USER:id:name:pw:role:phone  => 총 6토큰, 모두 공백불가
-                    {
-                        String[] addParts = request.split(":");
-                        if(addParts.length != 6) return "ADD_FAIL:Format"; 
-                        String id = addParts[1];
-                        String name = addParts[2];
-                        String pw = addParts[3];
-                        String role = addParts[4];
-                        String phone = addParts[5];
-                        if(blank(id) || blank(name) || blank(pw) || blank(role) || blank(phone)) return "ADD_FAIL:FieldRequired";
-                        boolean ok = authService.addUser(id, name, pw, role, phone);
-                        return ok ? "ADD_SUCCESS" : "ADD_FAIL:DuplicateOrError";
-                    }
-                
-                case "DELETE_USER":
-                    if(parts.length >= 2) {
-                        boolean ok = authService.deleteUser(parts[1]);
-                        return ok ? "DELETE_SUCCESS" : "DELETE_FAIL";
-                    }
-                    return "DELETE_FAIL:Format";
-                case "MODIFY_USER":
-                    {
-                        String[] mParts = request.split(":");
-                        if(mParts.length != 6) return "MODIFY_FAIL:Format";
-                        if(blank(mParts[1]) || blank(mParts[2]) || blank(mParts[3]) || blank(mParts[4]) || blank(mParts[5])) return "MODIFY_FAIL:FieldRequired";
-                        boolean ok = authService.modifyUser(mParts[1], mParts[2], mParts[3], mParts[4], mParts[5]);
-                        return ok ? "MODIFY_SUCCESS" : "MODIFY_FAIL";
-                    }
-                    
-                case "UPDATE_PAYMENT":
-                    // 프로토콜: UPDATE_PAYMENT:ResID:Method:Card:CVC:Expiry:PW:Amount
-                    String[] p = request.split(":");
-
-                    if (p.length == 8) {
-                        try {
-                            // 마지막 데이터(금액) 파싱
-                            int amount = Integer.parseInt(p[7]);
-
-                            // HotelService 호출
-                            boolean ok = hotelService.processPayment(
-                                    p[1], // ResID
-                                    p[2], // Method
-                                    p[3], // CardNum
-                                    p[4], // CVC
-                                    p[5], // Expiry
-                                    p[6], // PW
-                                    amount // Amount
-                            );
 
-                            return ok ? "PAYMENT_SUCCESS" : "PAYMENT_FAIL";
+    /** 협상 줄과 요청을 연결이 끝날 때까지 읽어서 파이프라인에 넘김 */
+    private void readRequests(InputStream in, OutputStream out, Session session, RequestPipeline pipeline) throws IOException, InterruptedException {
+        LineReader lines = new LineReader(in, charset, guard.getMaxLineLength());
+        RequestFramer framer = new RequestFramer(maxBatch, guard.getMaxQueuedBytes()); // BATCH:<n> 다음 n줄을 한 단위로 묶음
+
+        // 첫 요청 전의 협상 줄 처리 (바이너리로 바뀌면 협상 종료)
+        String request = lines.readLine();
+        String handshake;
+        while (request != null && (handshake = session.negotiate(request)) != null) {
+            Log.info("프로토콜 협상: " + request + " -> ", handshake);
+            send(out, session.encodeLine(handshake));
+            request = session.isBinary() ? null : lines.readLine();
+        }
 
-                        } catch (NumberFormatException e) {
-                            return "ERROR:Invalid Amount Format"; // 금액이 숫자가 아닐 경우 에러 처리
-                        }
-                    } else {
-                        System.out.println("[Server] 결제 요청 포맷 오류. 받은 개수: " + p.length);
-                        return "ERROR:Format Error (Expected 8 parts)";
-                    }
-                    
-                case "GET_MENUS":
-                    java.util.List<Menu> menus = menuService.getAllMenus();
-                    StringBuilder sb2 = new StringBuilder("MENU_LIST:");
-                    for (Menu m : menus) {
-                        String isAvailableStr = String.valueOf(m.getIsAvailable());
-                        sb2.append(m.getMenuId()).append(",")
-                          .append(m.getName()).append(",")
-                          .append(m.getPrice()).append(",")
-                          .append(m.getCategory()).append(",")
-                          .append(isAvailableStr).append(",")
-                          .append(m.getStock()).append("/");
-                    }
-                    return sb2.toString();
-                case "GET_ROOM_SALES":
-                    // 형식: GET_ROOM_SALES:yyyy-MM-dd:yyyy-MM-dd
-                    // 요청 형식 검사 후 HotelService에 집계를 위임합니다.
-                    // 클라이언트는 시작/종료 날짜(yyyy-MM-dd)를 전달하고,
-                    // 서버는 "ROOM_SALES:yyyy-MM-dd=amount,yyyy-MM-dd=amount,..." 형태의 한 줄 응답을 반환합니다.
-                    // LinkedHashMap을 사용해 날짜 순서가 유지되므로 클라이언트가 순서대로 그래프를 그릴 수 있습니다.
-                    if (parts.length == 3) {
-                        String start = parts[1];
-                        String end = parts[2];
+        if (session.isBinary()) {
+            byte[] frame;
+            while((frame = BinaryCodec.readFrame(in, maxFrameBytes)) != null){
+                RequestUnit unit = BinaryCodec.decodeRequest(ByteBuffer.wrap(frame), maxBatch);
+                Log.info("클라이언트 요청: ", unit);
+                pipeline.submit(unit, Integer.BYTES + frame.length); //위임
+            }
+        }
+        else {
+            for(; request != null; request = lines.readLine()){
+                RequestUnit unit = framer.offer(request, lines.lastLineBytes());
+                if (unit == null) continue; // 배치를 모으는 중
+                Log.info("클라이언트 요청: ", unit);
+                pipeline.submit(unit, framer.unitBytes()); //위임
+            }
+        }
+    }
 
-                        // HotelService에서 날짜별 매출을 계산해서 맵으로 돌려받습니다.
-                        java.util.Map<java.time.LocalDate, Integer> sales = hotelService.getRoomSalesByDateRange(start, end);
+    /**
+     * 소켓 입력: 점검 주기마다 타임아웃이 나도 다시 읽고, 처리 중인 요청 없이 idleMillis가 지났을 때만 타임아웃을 넘김
+     * - 타임아웃은 아무 바이트도 읽지 않았을 때만 나므로 다시 읽어도 요청 줄/프레임의 일부를 잃지 않음
+     */
+    private static final class IdleInput extends FilterInputStream {
+        private final long idleMillis;
+        private final RequestPipeline pipeline;
+        private long idleSince = System.currentTimeMillis();
+
+        IdleInput(InputStream in, long idleMillis, RequestPipeline pipeline) {
+            super(in);
+            this.idleMillis = idleMillis;
+            this.pipeline = pipeline;
+        }
 
-                        // 응답 문자열을 구성합니다. 각 항목은 date=value(날짜=매출)로 콤마로 구분됩니다.
-                        //ex ROOM_SALES:2025-10-01=220000,2025-10-02=440000,...
-                        StringBuilder salesSb = new StringBuilder("ROOM_SALES:");
-                        boolean first = true;
-                        for (java.util.Map.Entry<java.time.LocalDate, Integer> en : sales.entrySet()) {
-                            if (!first) salesSb.append(",");
-                            salesSb.append(en.getKey().toString()).append("=").append(en.getValue());
-                            first = false;
-                        }
-                        return salesSb.toString();
-                    }
-                    return "ERROR:Format";
-                    
-                case "ADD_MENU":
-                {
-                    String[] menuParts = request.split(":");
-                    // 형식 검사: 토큰이 7개인지 확인
-                    if (menuParts.length != 7) return "ADD_FAIL:Format";
-                    String menuId = menuParts[1];
-                    String name = menuParts[2];
-                    String priceStr = menuParts[3];
-                    String category = menuParts[4];
-                    String isavailableStr = menuParts[5];
-                    String stockStr = menuParts[6];
-                    if (blank(menuId) || blank(name) || blank(priceStr) || blank(category) || blank(isavailableStr) || blank(stockStr)) {
-                        return "ADD_FAIL:FieldRequired";
-                    }
-                    int price;
-                    int stock;
-                    try {
-                        price = Integer.parseInt(priceStr.trim());
-                        stock = Integer.parseInt(stockStr.trim());
-                    } catch (NumberFormatException e) {
-                        return "ADD_FAIL:InvaildPriceFormat";
-                    }
-                    boolean isAvailable = Boolean.parseBoolean(isavailableStr.trim());
-                    boolean ok = menuService.AddMenu(menuId, name, price, category, isAvailable, stock);
-                    return ok ? "ADD_SUCCESS" : "ADD_FAIL:DuplicateIdOrError";
-                }
-                
-                case "DELETE_MENU":
-                    // 형식: DELETE_MENU:menuId (총 2개 토큰)
-                {
-                    if (parts.length != 2) return "DELETE_FAIL:Format";
-                    String menuId = parts[1];
-                    
-                    if (blank(menuId)) {
-                        return "DELETE_FAIL:FieldRequired";
-                    }
-                    
-                    // Service 호출
-                    boolean ok = menuService.deleteMenu(menuId);
-                    
-                    // 결과 반환
-                    return ok ? "DELETE_SUCCESS" : "DELETE_FAIL:NotFound";
-                }
-                
-                case "UPDATE_MENU":
-                {
-                    String[] menuParts = request.split(":");
-                    // 형식 검사: 토큰이 7개인지 확인
-                    if (menuParts.length != 7) return "UPDATE_FAIL:Format";
-                    String menuId = menuParts[1];
-                    String name = menuParts[2];
-                    String priceStr = menuParts[3];
-                    String category = menuParts[4];
-                    String isavailableStr = menuParts[5];
-                    String stockStr = menuParts[6];
-                    if (blank(menuId) || blank(name) || blank(priceStr) || blank(category) || blank(isavailableStr) || blank(stockStr)) {
-                        return "UPDATE_FAIL:FieldRequired";
-                    }
-                    int price;
-                    int stock;
-                    try {
-                        price = Integer.parseInt(priceStr.trim());
-                        stock = Integer.parseInt(stockStr.trim());
-                    } catch (NumberFormatException e) {
-                        return "UPDATE_FAIL:InvaildPriceFormat";
-                    }
-                    boolean isAvailable = Boolean.parseBoolean(isavailableStr.trim());
-                    boolean ok = menuService.updateMenu(menuId, name, price, category, isAvailable, stock);
-                    return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL:NotFound";
-                }
-                
-                            case "ORDER_MENU": {
-                                String[] orderParts = request.split(":", 5);
-                                if (orderParts.length != 5) return "ORDER_FAIL:Format";
-                                String guestName = orderParts[1];
-                                int totalPrice;
-                                try {
-                                    totalPrice = Integer.parseInt(orderParts[2]);
-                                } catch (NumberFormatException e) {
-                                    return "ORDER_FAIL:PriceFormat";
-                                }
-                                String payment = orderParts[3];
-                                String foodNamesStr = orderParts[4];
-                                String[] foodNamesArr = foodNamesStr.split("\\|");
-                                java.util.List<String> foodNames = java.util.Arrays.asList(foodNamesArr);
-                                // 주문 ID 생성
-                                String saleId = "S-" + (System.currentTimeMillis() % 1000000);
-                                java.time.LocalDateTime now = java.time.LocalDateTime.now();
-                                // 주문 저장
-                                server.model.MenuOrder order = new server.model.MenuOrder(saleId, guestName, now, totalPrice, payment, foodNames);
-                                menuOrderService.saveOrder(order);
-                                // 재고 차감 및 판매중지 처리
-                                boolean allOk = true;
-                                for (String food : foodNames) {
-                                    java.util.Optional<server.model.Menu> menuOpt = menuService.getAllMenus().stream().filter(m -> m.getName().equals(food)).findFirst();
-                                    if (menuOpt.isPresent()) {
-                                        server.model.Menu menu = menuOpt.get();
-                                        int stock = menu.getStock();
-                                        if (stock > 0) {
-                                            menu.setStock(stock - 1);
-                                            if (menu.getStock() == 0) {
-                                                menu.setIsAvailable(false);
-                                            }
-                                            menuService.updateMenu(menu.getMenuId(), menu.getName(), menu.getPrice(), menu.getCategory(), menu.getIsAvailable(), menu.getStock());
-                                        } else {
-                                            allOk = false;
-                                        }
-                                    } else {
-                                        allOk = false;
-                                    }
-                                }
-                                return allOk ? "ORDER_SUCCESS" : "ORDER_PARTIAL_FAIL:재고부족";
-                            }
-                            
-                case "GET_MENU_ORDERS_BY_GUEST": {
-                    // 형식: GET_MENU_ORDERS_BY_GUEST:GuestName
-                    String[] q = request.split(":", 2);
-                    if (q.length != 2) return "MENU_ORDERS:";
-                    String guest = q[1];
-                    java.util.List<server.model.MenuOrder> all = menuOrderService.getAllOrders();
-                    StringBuilder msb = new StringBuilder("MENU_ORDERS:");
-                    boolean first = true;
-                    for (server.model.MenuOrder mo : all) {
-                        if (mo.getGuestName().equals(guest)) {
-                            if (!first) msb.append("|");
-                            msb.append(mo.getSaleId()).append(",").append(mo.getTotalPrice()).append(",").append(mo.getPayment());
-                            first = false;
-                        }
-                    }
-                    return msb.toString();
+        @Override
+        public int read() throws IOException {
+            while (true) {
+                try {
+                    int b = super.read();
+                    idleSince = System.currentTimeMillis();
+                    return b;
+                } catch (SocketTimeoutException ex) {
+                    checkIdle(ex);
                 }
-                
-                case "GET_MENU_ORDERS_BY_DATE_RANGE": {
-                    // 형식: GET_MENU_ORDERS_BY_DATE_RANGE:GuestName:CheckInDate:CheckOutDate
-                    String[] q = request.split(":");
-                    if (q.length != 4) return "MENU_ORDERS_DATE:";
-                    String guest = q[1];
-                    String checkInDate = q[2];
-                    String checkOutDate = q[3];
-                    java.util.List<server.model.MenuOrder> all = menuOrderService.getAllOrders();
-                    StringBuilder msb = new StringBuilder("MENU_ORDERS_DATE:");
-                    boolean first = true;
-                    java.time.LocalDateTime checkIn = java.time.LocalDateTime.parse(checkInDate + " 00:00:00", java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                    java.time.LocalDateTime checkOut = java.time.LocalDateTime.parse(checkOutDate + " 23:59:59", java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                    for (server.model.MenuOrder mo : all) {
-                        if (mo.getGuestName().equals(guest) && mo.getOrderTime().isAfter(checkIn) && mo.getOrderTime().isBefore(checkOut)) {
-                            if (!first) msb.append("|");
-                            String foodNamesStr = String.join("/", mo.getFoodNames());
-                            msb.append(foodNamesStr).append(",").append(mo.getTotalPrice()).append(",").append(mo.getPayment());
-                            first = false;
-                        }
-                    }
-                    return msb.toString();
-                }
-                  
-                case "CHECK_ALL_ROOM_STATUS":
-                    String[] statusParts = request.split(":");
-                    if (statusParts.length == 3) {  
-                        return hotelService.getRoomStatusList(statusParts[1], statusParts[2]);
-                    }   
-                    return "ERROR:Format";
-                        
-                case "GET_RES_BY_NAME":
-                    String[] nameParts = request.split(":");
-                    if (nameParts.length >= 2) {
-                        // 가격과 정원수이 포함된 데이터를 가져옴
-                        List<String> list = hotelService.getReservationsWithRoomInfo(nameParts[1]);
-
-                        StringBuilder resSb = new StringBuilder("RES_LIST:");
-
-                        // 위에서 가져온 'list'를 그대로 사용하여 응답을 만듬
-                        for (String line : list) {
-                            resSb.append(line).append("|");
-                        }
-                        return resSb.toString();
-                    }
-                    return "ERROR:Format";
-                        
-                case "GET_AVAILABLE_ROOMS":
-                    // 전체 방 목록 반환
-                    StringBuilder availSb = new StringBuilder("ROOM_LIST:");
-                    for (Room r : hotelService.getAllRooms()) {
-                        availSb.append(r.toString()).append("/");
-                    }
-                    return availSb.toString();
-                    
-                case "PAY_AND_RESERVE":
-                    String[] payParts = request.split(":");
-        
-                    if (payParts.length == 12) {
-                        String roomNum = payParts[1];
-                        String name = payParts[2];
-                        String inDate = payParts[3];
-                        String outDate = payParts[4];
-                        int guestNum;
-                        
-                        try {
-                            guestNum = Integer.parseInt(payParts[5]);
-                        }
-                        catch (NumberFormatException e) {
-                            return "FAIL:InvalidGuestNum";
-                        }             
-                        String phone = payParts[6];
-                        String reqNote = payParts[7]; // 요청사항
-                        String cardNum = payParts[8];
-                        String cvc = payParts[9];
-                        String expiry = payParts[10];
-                        String cardPw = payParts[11];
-                        String result = hotelService.createReservationWithPayment(
-                                roomNum, name, inDate, outDate, guestNum, phone, reqNote, cardNum, cvc, expiry, cardPw);
-                        return result;
-                    }
-                    return "ERROR:Format (Expected 11 parts for PAY_AND_RESERVE)";
-                    
-                case "CHECK_AVAILABILITY":
-                    String[] checkParts = request.split(":");
-                    if (checkParts.length == 3) {
-                        String types = hotelService.getAvailableRoomTypes(checkParts[1], checkParts[2]);
-                        return "AVAILABLE_TYPES:" + types;
-                    }
-                    return "ERROR:Format";
-                    
-               case "ADD_RESERVATION":
-                    // ADD_RESERVATION:타입:이름:입실:퇴실:인원:폰
-                    String[] resParts = request.split(":", -1);
-                    
-                    if (resParts.length == 8) {
-                        String assignedRoom = hotelService.createReservationByRoomNum(
-                            resParts[1], // Type
-                            resParts[2], // Name
-                            resParts[3], // In
-                            resParts[4], // Out
-                            Integer.parseInt(resParts[5]), // GuestNum
-                            resParts[6],  // Phone
-                            resParts[7]
-                        );
-                        
-                        if (assignedRoom != null) {
-                            return "RESERVE_SUCCESS:" + assignedRoom;
-                        } else {
-                            return "RESERVE_FAIL:No Room Available";
-                        }
-                    }
-                    return "ERROR:Format (Expected 8 parts)";
-                    
-                case "DELETE_RESERVATION":
-                    if (parts.length == 2) {
-                        boolean ok = hotelService.cancelReservation(parts[1]);
-                        return ok ? "DELETE_SUCCESS" : "DELETE_FAIL";
-                    }
-                    return "ERROR:Format";
-                    
-                    case "ADD_ROOM":
-                    // ADD_ROOM:번호:타입:가격:인원:설명 (6개)
-                    String[] ar = request.split(":"); 
-                    if (ar.length == 6) {
-                        boolean ok = hotelService.addRoom(ar[1], ar[2], 
-                                Integer.parseInt(ar[3]), Integer.parseInt(ar[4]), ar[5]);
-                        return ok ? "ADD_SUCCESS" : "ADD_FAIL";
-                    }
-                    return "ERROR:Format";
+            }
+        }
 
-                case "UPDATE_ROOM":
-                    // UPDATE_ROOM:번호:타입:가격:인원:설명 (6개)
-                    String[] ur = request.split(":");
-                    if (ur.length == 6) {
-                        boolean ok = hotelService.updateRoom(ur[1], ur[2], 
-                                Integer.parseInt(ur[3]), Integer.parseInt(ur[4]), ur[5]);
-                        return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL";
-                    }
-                    
-                    case "UPDATE_GUEST_REQ":
-                        String[] reqParts = request.split(":", 3);
-                        
-                        if (reqParts.length == 3) {
-                            boolean ok = hotelService.updateReservationRequest(reqParts[1], reqParts[2]);
-                            return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL";
-                        }
-                        return "ERROR:Format";
-                            
-                    case "MANAGE_CLEANING":
-                        if (parts.length == 2) {
-                            String rNum = parts[1];
-                            String result = hotelService.toggleCleaningStatus(rNum);
-                            return result; // "SUCCESS:SetToCleaning" or "SUCCESS:SetToEmpty" or "FAIL..."
-                        }
-                        return "ERROR:Format";
-                    
-                default:    
-                    System.out.println("❌ [오류] 알 수 없는 명령어: [" + command + "]");
-                    return "ERROR:Unknown command " + command;  
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (true) {
+                try {
+                    int n = super.read(b, off, len);
+                    idleSince = System.currentTimeMillis();
+                    return n;
+                } catch (SocketTimeoutException ex) {
+                    checkIdle(ex);
+                }
             }
         }
 
-        catch(Exception ex){
-                ex.printStackTrace();
-                return "ERROR:Internal server error: " + ex.getMessage();
+        /** 처리 중인 요청이 있으면 유휴 시간을 다시 세고, 없는 채로 idleMillis가 지났으면 타임아웃 */
+        private void checkIdle(SocketTimeoutException ex) throws SocketTimeoutException {
+            long now = System.currentTimeMillis();
+            if (pipeline.hasInFlight()) idleSince = now;
+            else if (now - idleSince >= idleMillis) throw ex;
         }
     }
 
-    // 공백/널 체크 유틸
-    private boolean blank(String s){
-        return s == null || s.trim().isEmpty();
+    /** 인코딩된 응답 전송 (파이프라인 워커와 읽기 스레드가 함께 쓰므로 출력 스트림 단위로 동기화) */
+    private static void send(OutputStream out, ByteBuffer data) {
+        synchronized (out) {
+            try {
+                out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+                out.flush();
+            } catch (IOException ex) {
+                // 연결이 끊긴 경우: 읽기 루프가 종료를 처리함
+            }
+        }
     }
 }
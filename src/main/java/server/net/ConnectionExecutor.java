@@ -0,0 +1,86 @@
+package server.net;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 클라이언트 연결(ClientHandler)을 실행하는 실행기
+ * - virtual 모드: 연결마다 가상 스레드에서 실행 (수천 개 연결도 적은 메모리로 유지)
+ * - platform 모드: 기존처럼 연결마다 플랫폼 스레드 생성
+ * - 동시 연결 수 상한(maxConnections)에 도달하면 빈 슬롯이 생길 때까지 accept를 멈춰 백프레셔를 건다
+ * - 현재/최대(peak)/누적 연결 수를 집계
+ * @author user
+ */
+public class ConnectionExecutor {
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final int maxConnections;
+    private final Semaphore permits;
+
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicLong total = new AtomicLong();
+
+    public ConnectionExecutor(boolean virtual, int maxConnections) {
+        this.virtual = virtual;
+        this.maxConnections = maxConnections;
+        this.permits = new Semaphore(maxConnections);
+        this.executor = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newThreadPerTaskExecutor(Thread.ofPlatform().name("client-", 0).factory());
+    }
+
+    /**
+     * 연결 슬롯 하나를 확보한다. 상한에 도달했으면 다른 연결이 끝날 때까지 대기
+     * (accept 전에 호출해서, 꽉 찼을 때는 새 연결이 OS 대기열에 머물게 함)
+     */
+    public void acquireSlot() throws InterruptedException {
+        permits.acquire();
+    }
+
+    /** acquireSlot으로 확보한 슬롯을 연결을 실행하지 않고 반납 (accept 실패 시) */
+    public void releaseSlot() {
+        permits.release();
+    }
+
+    /**
+     * 확보한 슬롯으로 연결 핸들러를 실행. 핸들러가 끝나면 슬롯이 자동 반납된다.
+     */
+    public void execute(Runnable handler) {
+        int now = live.incrementAndGet();
+        peak.accumulateAndGet(now, Math::max);
+        total.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    handler.run();
+                } finally {
+                    finish();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            finish();
+            throw ex;
+        }
+    }
+
+    private void finish() {
+        live.decrementAndGet();
+        permits.release();
+    }
+
+    public int getLiveConnections() { return live.get(); }
+    public int getPeakConnections() { return peak.get(); }
+    public long getTotalConnections() { return total.get(); }
+    public int getMaxConnections() { return maxConnections; }
+    public boolean isVirtual() { return virtual; }
+
+    /** 로그/통계 출력용 요약 문자열 */
+    public String getStats() {
+        return "live=" + live.get() + ",peak=" + peak.get() + ",total=" + total.get() + ",max=" + maxConnections;
+    }
+}
@@ -0,0 +1,78 @@
+package server.net;
+
+import java.net.InetAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 연결 수명 관리 설정과 집계 (두 전송 방식이 함께 사용)
+ * - IP별 동시 연결 상한: 넘으면 오류 한 줄을 보내고 바로 끊음 (rejected)
+ * - 유휴 시간 초과: 요청 없이 idleTimeoutMillis가 지나면 끊음 (idleEvicted)
+ * - 요청 한 줄 최대 길이: 넘으면 오류 응답 후 끊음 (oversizeEvicted)
+ * - 연결별 대기 바이트 상한 (nio): 처리/전송을 기다리는 요청과 응답이 이만큼 쌓이면 응답이 나갈 때까지 그 연결을 읽지 않음
+ * - IP별 카운트는 연결이 0개가 되면 지워서, 접속했던 주소 수만큼 메모리가 늘지 않음
+ * 전체 동시 연결 상한은 전송 방식별로 accept를 멈추는 방식으로 따로 적용한다.
+ * @author user
+ */
+public class ConnectionGuard {
+    public static final String REJECT_REPLY = "ERROR:Too many connections from your address";
+
+    private final int maxPerIp;
+    private final long idleTimeoutMillis;
+    private final int maxLineLength;
+    private final long maxQueuedBytes;
+
+    private final ConcurrentHashMap<InetAddress, Integer> perIp = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong idleEvicted = new AtomicLong();
+    private final AtomicLong oversizeEvicted = new AtomicLong();
+
+    /**
+     * @param maxPerIp IP별 동시 연결 상한 (0 이하면 제한 없음)
+     * @param idleTimeoutMillis 유휴 연결 종료 시간 (0 이하면 끊지 않음)
+     * @param maxLineLength 텍스트 요청 한 줄 최대 바이트 수
+     * @param maxQueuedBytes 연결별로 처리/전송을 기다리는 요청과 응답의 최대 바이트 수 (0 이하면 제한 없음)
+     */
+    public ConnectionGuard(int maxPerIp, long idleTimeoutMillis, int maxLineLength, long maxQueuedBytes) {
+        this.maxPerIp = maxPerIp;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLineLength = maxLineLength;
+        this.maxQueuedBytes = maxQueuedBytes;
+    }
+
+    /** 새 연결을 받아도 되는지 확인하고 IP별 카운트를 올림. 거절하면 false (rejected 집계) */
+    public boolean tryAdmit(InetAddress address) {
+        if (maxPerIp <= 0) return true;
+        boolean[] admitted = new boolean[1];
+        perIp.compute(address, (addr, count) -> {
+            int now = count == null ? 0 : count;
+            admitted[0] = now < maxPerIp;
+            return admitted[0] ? now + 1 : (count == null ? null : count);
+        });
+        if (!admitted[0]) rejected.incrementAndGet();
+        return admitted[0];
+    }
+
+    /** tryAdmit으로 받은 연결이 끝났을 때 호출 */
+    public void release(InetAddress address) {
+        if (maxPerIp <= 0) return;
+        perIp.computeIfPresent(address, (addr, count) -> count <= 1 ? null : count - 1);
+    }
+
+    public void recordIdleEviction() { idleEvicted.incrementAndGet(); }
+    public void recordOversizeEviction() { oversizeEvicted.incrementAndGet(); }
+
+    public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+    public int getMaxLineLength() { return maxLineLength; }
+    public long getMaxQueuedBytes() { return maxQueuedBytes; }
+    public int getMaxPerIp() { return maxPerIp; }
+    public long getRejected() { return rejected.get(); }
+    public long getIdleEvicted() { return idleEvicted.get(); }
+    public long getOversizeEvicted() { return oversizeEvicted.get(); }
+
+    /** 로그/통계 출력용 요약 문자열 */
+    public String getStats() {
+        return "rejected=" + rejected.get() + ",idleEvicted=" + idleEvicted.get() + ",oversizeEvicted=" + oversizeEvicted.get()
+                + ",addresses=" + perIp.size();
+    }
+}
@@ -0,0 +1,70 @@
+package server.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import server.log.Log;
+import server.service.CompactionService;
+import server.service.HotelService;
+
+/**
+ * 서버 종료 절차 (JVM 종료 훅으로 등록, SHUTDOWN 명령이나 SIGTERM/Ctrl+C로 실행)
+ * 1. 새 연결 받기 중지
+ * 2. 새 요청은 종료 중 오류로 응답하고, 진행 중인 요청은 제한 시간까지 마저 처리 (응답 전송 포함)
+ * 3. 자동취소 스케줄러와 로그 압축 서비스 중지 (실행 중인 점검/압축은 끝날 때까지 대기)
+ * 4. 저장소에 미뤄 둔 변경 기록, 로그 출력
+ * 진행 중인 쓰기가 끝난 뒤 종료되므로 롤링 재시작 중에도 쓰던 파일이 잘리지 않는다.
+ * @author user
+ */
+public class GracefulShutdown implements Runnable {
+    private final RequestHandler requestHandler;
+    private final HotelService hotelService;
+    private final CompactionService compactionService;
+    private final long drainMillis;
+    private final Closeable listener;
+    private final NioServer nioServer; // 블로킹 전송이면 null
+
+    /**
+     * @param listener 닫으면 새 연결 받기가 멈추는 대상 (ServerSocket 또는 NioServer)
+     * @param nioServer NIO 전송이면 남은 응답 전송을 기다릴 서버, 아니면 null
+     */
+    public GracefulShutdown(RequestHandler requestHandler, HotelService hotelService, CompactionService compactionService,
+                            long drainMillis, Closeable listener, NioServer nioServer) {
+        this.requestHandler = requestHandler;
+        this.hotelService = hotelService;
+        this.compactionService = compactionService;
+        this.drainMillis = drainMillis;
+        this.listener = listener;
+        this.nioServer = nioServer;
+    }
+
+    @Override
+    public void run() {
+        long deadline = System.currentTimeMillis() + drainMillis;
+        Log.info("서버 종료 시작: 새 연결 받기 중지");
+        try { listener.close(); } catch (IOException ignore) {}
+
+        RequestTracker tracker = requestHandler.getTracker();
+        tracker.close();
+        try {
+            if (!tracker.awaitIdle(remaining(deadline))) {
+                Log.warn("제한 시간 안에 끝나지 않은 요청 수: ", tracker.getInFlight());
+            }
+            if (nioServer != null && !nioServer.awaitFlushed(remaining(deadline))) {
+                Log.warn("제한 시간 안에 보내지 못한 응답이 있음");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        hotelService.shutdown(Math.max(1000, remaining(deadline)));
+        compactionService.shutdown(Math.max(1000, remaining(deadline)));
+        requestHandler.flushRepositories();
+        Log.info("서버 종료 완료");
+        Log.flush(1000);
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.currentTimeMillis());
+    }
+}
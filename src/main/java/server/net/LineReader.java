@@ -0,0 +1,59 @@
+package server.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * 바이트 스트림에서 '\n' 단위로 요청 줄을 읽는 클래스 (끝의 '\r'은 제거)
+ * - BufferedReader와 달리 줄 끝까지만 소비하므로, 프로토콜 협상 뒤 같은 스트림에서
+ *   바이너리 프레임을 이어서 읽을 수 있다
+ * - 한 줄이 maxLength 바이트를 넘으면 더 모으지 않고 RequestTooLargeException
+ * @author user
+ */
+public class LineReader {
+    private final InputStream in;
+    private final Charset charset;
+    private final int maxLength;
+    private byte[] buf = new byte[256];
+    private int lastBytes; // 마지막으로 읽은 줄의 바이트 수 (줄바꿈 포함)
+
+    /** in은 BufferedInputStream처럼 버퍼가 있는 스트림이어야 함 (한 바이트씩 읽음) */
+    public LineReader(InputStream in, Charset charset, int maxLength) {
+        this.in = in;
+        this.charset = charset;
+        this.maxLength = maxLength;
+    }
+
+    /** 한 줄을 읽음. 더 읽을 것이 없으면 null */
+    public String readLine() throws IOException {
+        int length = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') {
+                lastBytes = length + 1;
+                return decode(length);
+            }
+            if (length == maxLength) {
+                throw new RequestTooLargeException(maxLength);
+            }
+            if (length == buf.length) {
+                buf = Arrays.copyOf(buf, Math.min(buf.length * 2, maxLength));
+            }
+            buf[length++] = (byte) b;
+        }
+        lastBytes = length;
+        return length > 0 ? decode(length) : null;
+    }
+
+    /** 마지막으로 읽은 줄의 바이트 수 (줄바꿈 포함) */
+    public int lastLineBytes() {
+        return lastBytes;
+    }
+
+    private String decode(int length) {
+        if (length > 0 && buf[length - 1] == '\r') length--;
+        return new String(buf, 0, length, charset);
+    }
+}
@@ -0,0 +1,486 @@
+package server.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import server.log.Log;
+import server.net.command.Reply;
+
+/**
+ * Selector 기반 논블로킹 전송 계층 (server.transport=nio)
+ * - 셀렉터 스레드 하나가 모든 연결의 accept/read/write를 처리하고, 요청 처리만 워커 풀에 맡긴다
+ * - 다이렉트 ByteBuffer로 읽은 바이트에서 '\n' 단위로 요청 줄을 잘라냄 (프로토콜은 블로킹 방식과 동일)
+ * - 유휴 연결은 주기적으로 훑어서 끊고, IP별 연결 상한/요청 크기 상한을 적용 (ConnectionGuard)
+ * - PROTOCOL:BINARY를 협상한 연결은 길이 접두 프레임 단위로 잘라냄 (협상은 Session 참고)
+ * - 한 연결의 요청은 도착 순서대로 하나씩 처리되므로 응답 순서도 요청 순서와 같다
+ * - 한 연결에서 처리/전송 대기 중인 요청이 maxInFlight개가 되거나 그 바이트 수가 ConnectionGuard의 상한을 넘으면
+ *   응답이 나갈 때까지 그 연결은 읽지 않음 (백프레셔)
+ * - 대부분 대기 중인 단말이 많아도 연결마다 스레드를 두지 않아 스레드 수가 늘지 않음
+ * @author user
+ */
+public class NioServer implements Closeable {
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    private final int port;
+    private final RequestHandler requestHandler;
+    private final ExecutorService workers;
+    private final int maxConnections;
+    private final int maxInFlight;
+    private final int maxBatch;
+    private final int maxFrameBytes;
+    private final ConnectionGuard guard;
+    private final RequestTracker tracker;
+    private final Charset charset = Charset.defaultCharset();
+
+    private Selector selector;
+    private ServerSocketChannel server;
+    private SelectionKey acceptKey;
+    /** 종료 중: 남은 응답을 다 보내면 셀렉터 루프를 끝냄 */
+    private volatile boolean stopping;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    /** 워커 스레드가 셀렉터 스레드에 맡기는 작업 (interestOps 변경은 셀렉터 스레드에서만) */
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private int live;
+    private int peak;
+
+    public NioServer(int port, RequestHandler requestHandler, int workerCount, int maxConnections, int maxInFlight, int maxBatch, int maxFrameBytes, ConnectionGuard guard) {
+        this.port = port;
+        this.requestHandler = requestHandler;
+        this.workers = Executors.newFixedThreadPool(workerCount, Thread.ofPlatform().name("nio-worker-", 0).factory());
+        this.maxConnections = maxConnections;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxBatch = maxBatch;
+        this.maxFrameBytes = maxFrameBytes;
+        this.guard = guard;
+        this.tracker = requestHandler.getTracker();
+    }
+
+    /** 셀렉터 루프 실행 (호출한 스레드가 셀렉터 스레드가 됨) */
+    public void serve() throws IOException {
+        try {
+            selectLoop();
+        } finally {
+            workers.shutdown();
+            stopped.countDown();
+        }
+    }
+
+    private void selectLoop() throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        acceptKey = server.register(selector, SelectionKey.OP_ACCEPT);
+
+        // 유휴 연결 점검 주기: 유휴 시간의 1/4 (0.1~1초), 유휴 종료를 쓰지 않으면 점검 안 함
+        long idleMillis = guard.getIdleTimeoutMillis();
+        long sweepMillis = idleMillis > 0 ? Math.max(100, Math.min(1000, idleMillis / 4)) : 0;
+        long nextSweep = System.currentTimeMillis() + sweepMillis;
+
+        while (true) {
+            selector.select(stopping ? 50 : sweepMillis);
+            Runnable task;
+            while ((task = selectorTasks.poll()) != null) {
+                task.run();
+            }
+            Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+            while (it.hasNext()) {
+                SelectionKey key = it.next();
+                it.remove();
+                try {
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept(server);
+                    } else {
+                        Connection conn = (Connection) key.attachment();
+                        if (key.isReadable()) conn.onReadable();
+                        if (key.isValid() && key.isWritable()) conn.onWritable();
+                    }
+                } catch (IOException ex) {
+                    Log.warn("클라이언트 통신 오류: ", ex);
+                    if (key.attachment() instanceof Connection conn) conn.close();
+                }
+            }
+            if (sweepMillis > 0 && System.currentTimeMillis() >= nextSweep) {
+                sweepIdle(idleMillis);
+                nextSweep = System.currentTimeMillis() + sweepMillis;
+            }
+            if (stopping && allFlushed()) {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof Connection conn) conn.close();
+                }
+                selector.close();
+                return;
+            }
+        }
+    }
+
+    /** 새 연결 받기를 멈춤 (이미 연결된 클라이언트는 계속 처리) */
+    @Override
+    public void close() {
+        runOnSelector(() -> {
+            if (acceptKey != null) acceptKey.cancel();
+            try { if (server != null) server.close(); } catch (IOException ignore) {}
+        });
+    }
+
+    /**
+     * 모든 연결의 남은 응답을 보낸 뒤 연결을 닫고 셀렉터 루프를 끝냄 (서버 종료 시, close 이후 호출)
+     * @return 제한 시간 안에 끝났으면 true
+     */
+    public boolean awaitFlushed(long timeoutMillis) throws InterruptedException {
+        stopping = true;
+        if (selector != null) selector.wakeup();
+        return stopped.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean allFlushed() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection conn && !conn.isDrained()) return false;
+        }
+        return true;
+    }
+
+    /** 처리 중인 요청도 보낼 응답도 없이 유휴 시간이 지난 연결을 끊음 */
+    private void sweepIdle(long idleMillis) {
+        long now = System.currentTimeMillis();
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection conn && conn.isIdle(now, idleMillis)) {
+                guard.recordIdleEviction();
+                Log.info("유휴 시간 초과로 연결 종료 (", guard.getStats() + ")");
+                conn.close();
+            }
+        }
+    }
+
+    private void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) return;
+        InetAddress address = ((InetSocketAddress) channel.getRemoteAddress()).getAddress();
+        if (!guard.tryAdmit(address)) {
+            // 거절 사유 한 줄은 송신 버퍼에 바로 들어가는 크기이므로 블로킹 모드로 보내고 닫음
+            try (channel) {
+                channel.write(ByteBuffer.wrap((ConnectionGuard.REJECT_REPLY + System.lineSeparator()).getBytes(charset)));
+            } catch (IOException ignore) {
+            }
+            Log.warn("IP별 연결 상한 초과로 거절: " + address + " (", guard.getStats() + ")");
+            return;
+        }
+        channel.configureBlocking(false);
+        Connection conn = new Connection(channel, address);
+        conn.key = channel.register(selector, SelectionKey.OP_READ, conn);
+        live++;
+        peak = Math.max(peak, live);
+        // 동시 연결 상한에 도달하면 연결이 끊길 때까지 accept 중지 (백프레셔)
+        if (live >= maxConnections) acceptKey.interestOps(0);
+        Log.info("클라이언트 접속 (live=" + live + ",peak=" + peak + ",max=" + maxConnections + "," + guard.getStats() + ")");
+    }
+
+    /** 워커 스레드에서 셀렉터 스레드로 작업을 넘기고 셀렉터를 깨움 */
+    private void runOnSelector(Runnable task) {
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
+
+    /** inbox의 요청 단위와 그 요청이 차지한 바이트 수 */
+    private record Inbound(RequestUnit unit, int bytes) {
+    }
+
+    /**
+     * 연결 하나의 상태
+     * - readBuffer: 소켓에서 읽은 바이트 (다이렉트 버퍼)
+     * - lineBytes: 아직 '\n'을 만나지 못한 줄 조각 (바이너리 모드에서는 아직 다 오지 않은 프레임)
+     * - inbox: 처리 대기 중인 요청 줄 / outbox: 전송 대기 중인 응답
+     * - queued/queuedBytes: inbox와 outbox에 있는 항목 수와 바이트 수 (처리 중인 요청 포함)
+     *   maxInFlight나 guard의 maxQueuedBytes에 닿으면 읽기를 멈추고, 읽어 둔 나머지 바이트는 readBuffer에 남겨 두었다가 응답이 나가면 이어서 처리
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final InetAddress address;
+        private SelectionKey key;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private byte[] lineBytes = new byte[256];
+        private int lineLength;
+
+        private final RequestFramer framer = new RequestFramer(maxBatch, guard.getMaxQueuedBytes());
+        private final Session session = new Session(charset);
+        private boolean negotiating = true; // 첫 요청 전 (셀렉터 스레드 전용)
+        private final Queue<Inbound> inbox = new ArrayDeque<>();
+        private boolean processing;   // inbox를 워커가 처리 중인지 (inbox 락으로 보호)
+        private final Queue<ByteBuffer> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong queuedBytes = new AtomicLong();
+        private boolean readPaused;   // 대기 중인 요청/응답이 상한에 닿아 읽기를 멈췄는지 (셀렉터 스레드 전용)
+        private String closingError;  // 마지막 요청의 응답 뒤에 보내고 끊을 오류 응답 (inbox 락으로 보호)
+        private volatile long lastActivity = System.currentTimeMillis();
+        private boolean inputClosed;  // 셀렉터 스레드 전용
+        private boolean closed;       // 셀렉터 스레드 전용
+
+        Connection(SocketChannel channel, InetAddress address) {
+            this.channel = channel;
+            this.address = address;
+        }
+
+        void onReadable() throws IOException {
+            int n = channel.read(readBuffer);
+            if (n < 0) {
+                // 상대가 연결을 닫음: 남은 요청의 응답을 보낸 뒤 닫는다
+                inputClosed = true;
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                closeIfDrained();
+                return;
+            }
+            lastActivity = System.currentTimeMillis();
+            consume();
+        }
+
+        /** readBuffer에 쌓인 바이트를 처리 (읽기를 멈추면 남은 바이트는 다음 consume까지 보관) */
+        private void consume() throws IOException {
+            readBuffer.flip();
+            try {
+                parse();
+            } catch (RequestTooLargeException ex) {
+                guard.recordOversizeEviction();
+                Log.warn("요청 크기 초과로 연결 종료 (", guard.getStats() + ")");
+                stopReading(ex.toReply());
+            }
+            readBuffer.compact();
+        }
+
+        private void parse() throws IOException {
+            while (!readPaused && readBuffer.hasRemaining() && !session.isBinary()) {
+                byte b = readBuffer.get();
+                if (b == '\n') {
+                    int len = lineLength;
+                    if (len > 0 && lineBytes[len - 1] == '\r') len--;
+                    onLine(new String(lineBytes, 0, len, charset), lineLength + 1);
+                    lineLength = 0;
+                } else {
+                    append(b);
+                }
+            }
+            if (session.isBinary()) readFrames();
+        }
+
+        private void append(byte b) throws RequestTooLargeException {
+            if (lineLength == guard.getMaxLineLength()) {
+                throw new RequestTooLargeException(lineLength);
+            }
+            if (lineLength == lineBytes.length) {
+                lineBytes = Arrays.copyOf(lineBytes, lineBytes.length * 2);
+            }
+            lineBytes[lineLength++] = b;
+        }
+
+        /** 텍스트 모드에서 한 줄 처리 (bytes: 줄바꿈 포함 바이트 수) */
+        private void onLine(String line, int bytes) throws RequestTooLargeException {
+            if (negotiating) {
+                String handshake = session.negotiate(line);
+                if (handshake != null) {
+                    // 아직 앞선 요청이 없으므로 바로 outbox에 넣어도 순서가 유지됨
+                    Log.info("프로토콜 협상: " + line + " -> ", handshake);
+                    send(session.encodeLine(handshake));
+                    enableWrite();
+                    return;
+                }
+                negotiating = false;
+            }
+            RequestUnit unit = framer.offer(line, bytes);
+            if (unit != null) enqueue(unit, (int) framer.unitBytes());
+        }
+
+        /** 바이너리 모드: 읽은 바이트를 모아서 완성된 프레임마다 요청 단위로 변환 */
+        private void readFrames() throws IOException {
+            int n = readBuffer.remaining();
+            if (lineLength + n > lineBytes.length) {
+                lineBytes = Arrays.copyOf(lineBytes, Math.max(lineBytes.length * 2, lineLength + n));
+            }
+            readBuffer.get(lineBytes, lineLength, n);
+            lineLength += n;
+
+            int offset = 0;
+            while (!readPaused && lineLength - offset >= 4) {
+                int length = ByteBuffer.wrap(lineBytes, offset, 4).getInt();
+                BinaryCodec.checkLength(length, maxFrameBytes);
+                if (lineLength - offset - 4 < length) break; // 프레임이 아직 다 오지 않음
+                ByteBuffer payload = ByteBuffer.wrap(Arrays.copyOfRange(lineBytes, offset + 4, offset + 4 + length));
+                enqueue(BinaryCodec.decodeRequest(payload, maxBatch), 4 + length);
+                offset += 4 + length;
+            }
+            System.arraycopy(lineBytes, offset, lineBytes, 0, lineLength - offset);
+            lineLength -= offset;
+        }
+
+        /** 더 읽지 않고, 앞선 요청의 응답 뒤에 오류 응답을 보낸 다음 연결을 끊음 */
+        private void stopReading(String error) {
+            inputClosed = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            boolean start;
+            synchronized (inbox) {
+                closingError = error;
+                start = !processing;
+                processing = true;
+            }
+            if (start) workers.execute(this::drainInbox);
+        }
+
+        /** 완성된 요청 단위를 inbox에 넣고, 처리 중인 워커가 없으면 새로 맡김 */
+        private void enqueue(RequestUnit request, int bytes) {
+            queued.incrementAndGet();
+            queuedBytes.addAndGet(bytes);
+            boolean start;
+            synchronized (inbox) {
+                inbox.add(new Inbound(request, bytes));
+                start = !processing;
+                processing = true;
+            }
+            if (start) workers.execute(this::drainInbox);
+            if (isFull()) pauseReading();
+        }
+
+        /** 응답 하나를 전송 대기열에 넣음 */
+        private void send(ByteBuffer reply) {
+            queued.incrementAndGet();
+            queuedBytes.addAndGet(reply.remaining());
+            outbox.add(reply);
+        }
+
+        /** 대기 중인 요청/응답이 maxInFlight개 또는 guard의 바이트 상한에 닿았는지 */
+        private boolean isFull() {
+            long maxBytes = guard.getMaxQueuedBytes();
+            return queued.get() >= maxInFlight || (maxBytes > 0 && queuedBytes.get() >= maxBytes);
+        }
+
+        /** 대기 중인 요청/응답이 상한에 닿음: 응답이 나갈 때까지 읽지 않음 */
+        private void pauseReading() {
+            readPaused = true;
+            if (key.isValid()) key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+
+        /** 응답이 나가서 상한 아래로 내려가면 남은 바이트를 처리하고 다시 읽기 시작 */
+        private void resumeReading() throws IOException {
+            if (!readPaused || closed || isFull()) return;
+            readPaused = false;
+            consume();
+            if (!readPaused && !inputClosed && key.isValid()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+            }
+        }
+
+        /** 워커 스레드: inbox의 요청을 순서대로 처리하고 응답을 outbox에 쌓음 */
+        private void drainInbox() {
+            while (true) {
+                Inbound next;
+                String error = null;
+                synchronized (inbox) {
+                    next = inbox.poll();
+                    if (next == null) {
+                        error = closingError;
+                        closingError = null;
+                        if (error == null) {
+                            processing = false;
+                            break;
+                        }
+                    }
+                }
+                RequestUnit request = null;
+                if (next != null) {
+                    request = next.unit();
+                    queued.decrementAndGet(); // 요청은 응답으로 바뀌어 다시 셈
+                    queuedBytes.addAndGet(-next.bytes());
+                }
+                boolean tracked = false;
+                Reply reply;
+                if (request == null) {
+                    reply = Reply.text(error);
+                } else if (!(tracked = tracker.tryEnter())) {
+                    reply = Reply.text(RequestTracker.SHUTTING_DOWN_REPLY);
+                } else {
+                    Log.info("클라이언트 요청: ", request);
+                    reply = requestHandler.handle(request);
+                }
+                send(session.encode(reply));
+                if (tracked) tracker.exit(); // 응답을 전송 대기열에 넣은 뒤 처리 완료로 셈 (남은 전송은 awaitFlushed)
+                runOnSelector(this::enableWrite);
+            }
+            runOnSelector(this::closeIfDrained);
+        }
+
+        private void enableWrite() {
+            if (!closed && key.isValid()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                if (!readPaused && isFull()) pauseReading(); // 응답이 커서 바이트 상한을 넘은 경우
+            }
+        }
+
+        void onWritable() throws IOException {
+            ByteBuffer buf;
+            while ((buf = outbox.peek()) != null) {
+                int before = buf.remaining();
+                channel.write(buf);
+                queuedBytes.addAndGet(buf.remaining() - before);
+                lastActivity = System.currentTimeMillis();
+                if (buf.hasRemaining()) break; // 소켓 송신 버퍼가 가득 참, 다음 OP_WRITE에서 계속
+                outbox.poll();
+                queued.decrementAndGet();
+            }
+            resumeReading();
+            if (closed || !outbox.isEmpty()) return;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            closeIfDrained();
+        }
+
+        /** 처리할 요청도 보낼 응답도 없는지 */
+        boolean isDrained() {
+            if (closed) return true;
+            if (!outbox.isEmpty()) return false;
+            synchronized (inbox) {
+                return !processing && inbox.isEmpty();
+            }
+        }
+
+        /** 유휴 점검: 처리 중이거나 보낼 응답이 있으면 유휴가 아님 */
+        boolean isIdle(long now, long idleMillis) {
+            return !closed && now - lastActivity >= idleMillis && isDrained();
+        }
+
+        private void closeIfDrained() {
+            if (!inputClosed || closed || !outbox.isEmpty()) return;
+            synchronized (inbox) {
+                if (processing || !inbox.isEmpty()) return;
+            }
+            close();
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            key.cancel();
+            try { channel.close(); } catch (IOException ignore) {}
+            session.close();
+            guard.release(address);
+            live--;
+            if (live < maxConnections && acceptKey.isValid()) acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+            Log.info("클라이언트 종료");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package server.net;
+
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * 연결 하나의 응답 압축기 (COMPRESS:DEFLATE 로 협상한 연결만 생성)
+ * - Deflater 하나를 응답마다 reset()해서 재사용하고, 출력 버퍼도 연결이 끝날 때까지 재사용
+ * - threshold 바이트 미만의 응답은 압축하지 않음 (짧은 응답은 압축 이득보다 비용이 큼)
+ * - Deflater는 스레드 안전하지 않으므로 Session의 락 안에서만 사용
+ * @author user
+ */
+final class ReplyCompressor {
+    private final Deflater deflater;
+    private final int threshold;
+    private byte[] buffer = new byte[8 * 1024];
+
+    ReplyCompressor(int level, int threshold) {
+        this.deflater = new Deflater(level);
+        this.threshold = threshold;
+    }
+
+    int getThreshold() {
+        return threshold;
+    }
+
+    boolean shouldCompress(int length) {
+        return length >= threshold;
+    }
+
+    /** data[off, off+len)를 zlib 형식으로 압축. 결과는 buffer()의 [0, 반환값) */
+    int deflate(byte[] data, int off, int len) {
+        deflater.reset();
+        deflater.setInput(data, off, len);
+        deflater.finish();
+        int n = 0;
+        while (!deflater.finished()) {
+            if (n == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            n += deflater.deflate(buffer, n, buffer.length - n);
+        }
+        return n;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    /** 네이티브 zlib 메모리 해제 (연결 종료 시) */
+    void close() {
+        deflater.end();
+    }
+}
@@ -0,0 +1,73 @@
+package server.net;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 연결에서 읽은 요청 줄을 RequestUnit으로 묶는 클래스 (연결마다 하나, 읽기 스레드 전용)
+ * - "BATCH:<n>" 헤더를 만나면 뒤따르는 n줄을 모아서 하나의 배치 단위로 만든다
+ * - n이 숫자가 아니거나 1~maxBatch 범위를 벗어나면 헤더를 일반 요청으로 넘겨
+ *   BATCH 명령의 형식 오류 응답을 받게 한다 (뒤따르는 줄은 일반 요청으로 처리)
+ * - 모으는 중인 배치의 바이트 수가 maxBytes를 넘으면 RequestTooLargeException (연결은 오류 응답 후 종료)
+ * @author user
+ */
+public class RequestFramer {
+    public static final String BATCH_COMMAND = "BATCH";
+
+    private final int maxBatch;
+    private final long maxBytes;  // 한 요청 단위의 최대 바이트 수 (0 이하면 제한 없음)
+    private List<String> pending; // 모으는 중인 배치 (없으면 null)
+    private int expected;
+    private long bytes;           // 모으는 중인(또는 마지막으로 완성된) 요청 단위의 바이트 수
+
+    /**
+     * @param maxBatch BATCH 한 번에 묶을 수 있는 최대 줄 수
+     * @param maxBytes 배치 헤더와 모든 줄을 합친 최대 바이트 수 (0 이하면 제한 없음)
+     */
+    public RequestFramer(int maxBatch, long maxBytes) {
+        this.maxBatch = maxBatch;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 한 줄을 받아 완성된 요청 단위를 반환. 배치가 아직 다 모이지 않았으면 null
+     * @param lineBytes 줄바꿈을 포함한 그 줄의 바이트 수
+     * @throws RequestTooLargeException 모으는 중인 배치가 maxBytes를 넘을 때
+     */
+    public RequestUnit offer(String line, int lineBytes) throws RequestTooLargeException {
+        if (pending != null) {
+            bytes += lineBytes;
+            if (maxBytes > 0 && bytes > maxBytes) throw new RequestTooLargeException(maxBytes);
+            pending.add(line);
+            if (pending.size() < expected) return null;
+            RequestUnit unit = RequestUnit.batch(pending);
+            pending = null;
+            return unit;
+        }
+        bytes = lineBytes;
+        int count = batchSize(line);
+        if (count > 0) {
+            pending = new ArrayList<>(count);
+            expected = count;
+            return null;
+        }
+        return RequestUnit.single(line);
+    }
+
+    /** offer가 마지막으로 돌려준 요청 단위의 바이트 수 (배치는 헤더 포함) */
+    public long unitBytes() {
+        return bytes;
+    }
+
+    /** "BATCH:<n>" 형식이면 n, 아니면 0 */
+    private int batchSize(String line) {
+        int idx = line.indexOf(':');
+        if (idx < 0 || !line.substring(0, idx).trim().equals(BATCH_COMMAND)) return 0;
+        try {
+            int n = Integer.parseInt(line.substring(idx + 1).trim());
+            return (n >= 1 && n <= maxBatch) ? n : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
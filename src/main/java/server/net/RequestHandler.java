@@ -0,0 +1,114 @@
+package server.net;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import server.log.Log;
+import server.net.command.AdminCommands;
+import server.net.command.AuthCommands;
+import server.net.command.CommandRegistry;
+import server.net.command.HotelCommands;
+import server.net.command.MenuCommands;
+import server.net.command.Reply;
+import server.net.command.ReportCommands;
+import server.net.command.RequestLine;
+import server.repository.BatchWritable;
+import server.service.AuthService;
+import server.service.HotelService;
+import server.service.MenuOrderService;
+import server.service.MenuService;
+import server.service.ReportService;
+
+/**
+ *  클라이언트 요청 한 줄을 해석해서 서비스에 위임하고 응답(Reply)을 만드는 클래스
+ *  - 전송 방식(블로킹 소켓 / NIO)과 프로토콜(텍스트 / 바이너리)에 무관하게 같은 요청 처리 로직을 공유
+ *  - 명령은 서버 시작 시 CommandRegistry에 한 번 등록되고, 이후에는 이름으로 바로 찾아 실행
+ *  - 상태가 없으므로 서버 전체에서 하나의 객체를 여러 스레드가 함께 사용
+ * @author user
+ */
+public class RequestHandler {
+    /** BATCH의 변경을 파일에 기록하지 못했을 때 변경 명령마다 돌려주는 응답 */
+    public static final String BATCH_WRITE_FAILED_REPLY = "ERROR:Batch write failed";
+
+    private final CommandRegistry registry = new CommandRegistry();
+    /** BATCH 실행 중 파일 쓰기를 한 번으로 묶을 저장소들 */
+    private final List<BatchWritable> batchRepositories;
+    private final MenuService menuService;
+    /** 처리 중인 요청 수 (서버 종료 시 진행 중인 요청을 마저 처리하는 데 사용) */
+    private final RequestTracker tracker = new RequestTracker();
+
+    public RequestHandler(AuthService authService, HotelService hotelService, MenuService menuService, MenuOrderService menuOrderService, ReportService reportService){
+        AuthCommands.register(registry, authService);
+        HotelCommands.register(registry, hotelService);
+        MenuCommands.register(registry, menuService, menuOrderService);
+        ReportCommands.register(registry, reportService);
+        AdminCommands.register(registry, authService);
+        // 올바른 BATCH 헤더는 RequestFramer가 가로채므로, 여기까지 오는 BATCH는 형식 오류
+        registry.command(RequestFramer.BATCH_COMMAND)
+                .handle(args -> "ERROR:Invalid BATCH format (BATCH:<count> followed by count lines)");
+        // 프로토콜/압축 협상은 연결의 첫 요청 전에만 가능 (Session에서 처리)
+        registry.command(Session.PROTOCOL_COMMAND)
+                .handle(args -> "ERROR:PROTOCOL must be sent before the first request");
+        registry.command(Session.COMPRESS_COMMAND)
+                .handle(args -> "ERROR:COMPRESS must be sent before the first request");
+        this.batchRepositories = List.of(hotelService.getReservationRepository(), menuService.getMenuRepository());
+        this.menuService = menuService;
+    }
+
+    public String handleRequest(String request){
+        return registry.dispatch(request);
+    }
+
+    /** 조회 전용 명령인지 (파이프라이닝 시 동시 실행 여부 판단) */
+    public boolean isReadOnly(String request){
+        return registry.isReadOnly(request);
+    }
+
+    /**
+     * 요청 단위 처리. 배치는 하위 명령의 응답을 묶은 BATCH 응답으로 한 번에 반환
+     * (텍스트 표현: "BATCH_RESULT:<n>" 줄 다음에 하위 응답 n줄)
+     */
+    public Reply handle(RequestUnit unit){
+        if (!unit.isBatch()) {
+            return registry.dispatch(unit.getLines().get(0));
+        }
+        List<RequestLine> commands = unit.getLines();
+        List<Reply> replies = new ArrayList<>(commands.size());
+        boolean written = true;
+        for (BatchWritable repo : batchRepositories) repo.beginBatch();
+        try {
+            for (RequestLine command : commands) {
+                replies.add(registry.dispatch(command));
+            }
+        }
+        finally {
+            for (BatchWritable repo : batchRepositories) written &= repo.endBatch();
+        }
+        if (!written) {
+            // 모아 둔 변경을 파일에 쓰지 못함: 변경 명령의 성공 응답 대신 오류를 돌려줌 (조회 결과는 그대로)
+            Log.warn("BATCH 변경 기록 실패: ", commands.size() + "개 명령");
+            for (int i = 0; i < replies.size(); i++) {
+                if (!registry.isReadOnly(commands.get(i))) replies.set(i, Reply.text(BATCH_WRITE_FAILED_REPLY));
+            }
+        }
+        return Reply.batch(replies);
+    }
+
+    public RequestTracker getTracker(){
+        return tracker;
+    }
+
+    /** 배치 중 미뤄 둔 저장소 변경과 메뉴 재고 차감을 모두 파일에 기록 (서버 종료 시) */
+    public void flushRepositories(){
+        menuService.flushStock(); // 메뉴 저장소에 반영되므로 저장소 기록보다 먼저
+        for (BatchWritable repo : batchRepositories) repo.flush();
+    }
+
+    /** 단위 안의 모든 명령이 조회 전용인지 */
+    public boolean isReadOnly(RequestUnit unit){
+        for (RequestLine line : unit.getLines()) {
+            if (!registry.isReadOnly(line)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,99 @@
+package server.net;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import server.net.command.Reply;
+
+/**
+ * 한 연결에서 응답을 기다리지 않고 연속으로 보낸(파이프라이닝) 요청들을 처리하는 클래스
+ * - 조회 전용 명령은 공유 워커 풀에서 서로 동시에 실행
+ * - 변경 명령은 앞선 요청이 모두 끝난 뒤 실행되고, 뒤따르는 요청은 변경 명령이 끝난 뒤 실행
+ *   (요청을 하나씩 처리했을 때와 같은 결과가 보이도록 순서 의미를 유지)
+ * - 응답은 처리가 끝난 순서와 관계없이 항상 요청 순서대로 sink에 전달
+ * - 한 연결에서 동시에 진행 중인 요청 수는 maxInFlight로 제한 (초과 시 submit이 대기)
+ * - 진행 중인 요청들의 바이트 수는 maxBytes로 제한 (넘으면 submit이 RequestTooLargeException → 연결은 오류 응답 후 종료)
+ * - 서버 종료 중(RequestTracker.close 이후)에 들어온 요청은 처리하지 않고 종료 중 오류로 응답
+ * submit은 연결의 읽기 스레드 하나에서만 호출한다.
+ * @author user
+ */
+public class RequestPipeline {
+    private final RequestHandler requestHandler;
+    private final Executor workers;
+    private final Consumer<Reply> sink;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final long maxBytes;
+    /** 접수했지만 아직 응답을 내보내지 않은 요청들의 바이트 수 */
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final RequestTracker tracker;
+
+    /** 마지막 변경 명령의 완료 시점 */
+    private CompletableFuture<?> barrier = CompletableFuture.completedFuture(null);
+    /** 마지막 변경 명령 이후 시작된 조회 명령들 */
+    private List<CompletableFuture<?>> sinceBarrier = new ArrayList<>();
+    /** 응답 출력 체인 (요청 순서대로 이어 붙임) */
+    private CompletableFuture<Void> output = CompletableFuture.completedFuture(null);
+
+    /** @param maxBytes 진행 중인 요청들의 최대 바이트 수 (0 이하면 제한 없음) */
+    public RequestPipeline(RequestHandler requestHandler, Executor workers, int maxInFlight, long maxBytes, Consumer<Reply> sink) {
+        this.requestHandler = requestHandler;
+        this.workers = workers;
+        this.sink = sink;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight);
+        this.maxBytes = maxBytes;
+        this.tracker = requestHandler.getTracker();
+    }
+
+    /**
+     * 요청 단위 하나를 접수. 진행 중인 요청이 maxInFlight개면 하나가 끝날 때까지 대기
+     * @param bytes 요청 단위의 바이트 수
+     * @throws RequestTooLargeException 진행 중인 요청들과 합친 바이트 수가 maxBytes를 넘을 때 (접수하지 않음)
+     */
+    public void submit(RequestUnit request, long bytes) throws InterruptedException, RequestTooLargeException {
+        if (maxBytes > 0 && inFlightBytes.get() + bytes > maxBytes) throw new RequestTooLargeException(maxBytes);
+        inFlight.acquire();
+        inFlightBytes.addAndGet(bytes);
+        boolean tracked = tracker.tryEnter();
+        CompletableFuture<Reply> result;
+        if (!tracked) {
+            result = CompletableFuture.completedFuture(Reply.text(RequestTracker.SHUTTING_DOWN_REPLY));
+        } else if (requestHandler.isReadOnly(request)) {
+            result = barrier.thenApplyAsync(v -> requestHandler.handle(request), workers);
+            sinceBarrier.add(result);
+        } else {
+            sinceBarrier.add(barrier);
+            CompletableFuture<Void> prior = CompletableFuture.allOf(sinceBarrier.toArray(new CompletableFuture<?>[0]));
+            result = prior.thenApplyAsync(v -> requestHandler.handle(request), workers);
+            barrier = result;
+            sinceBarrier = new ArrayList<>();
+        }
+        output = output.thenCombine(result, (v, response) -> response)
+                .handle((response, ex) -> {
+                    try {
+                        sink.accept(ex == null ? response : Reply.text("ERROR:Internal server error: " + ex.getMessage()));
+                    } finally {
+                        inFlightBytes.addAndGet(-bytes);
+                        inFlight.release();
+                        if (tracked) tracker.exit(); // 응답을 내보낸 뒤에 처리 완료로 셈
+                    }
+                    return null;
+                });
+    }
+
+    /** 접수했지만 아직 응답을 내보내지 않은 요청이 있는지 */
+    public boolean hasInFlight() {
+        return inFlight.availablePermits() < maxInFlight;
+    }
+
+    /** 접수한 모든 요청의 응답이 전달될 때까지 대기 */
+    public void awaitCompletion() {
+        output.join();
+    }
+}
@@ -0,0 +1,28 @@
+package server.net;
+
+import java.net.ProtocolException;
+
+/**
+ * 요청 한 줄(또는 바이너리 프레임), 모으는 중인 배치, 처리를 기다리는 요청들이 서버가 허용하는 최대 크기를 넘었을 때
+ * - 연결은 오류 응답 후 종료된다 (ConnectionGuard의 oversizeEvicted로 집계)
+ * @author user
+ */
+public class RequestTooLargeException extends ProtocolException {
+    private static final long serialVersionUID = 1L;
+
+    private final long limit;
+
+    public RequestTooLargeException(long limit) {
+        super("요청 크기 초과 (최대 " + limit + " 바이트)");
+        this.limit = limit;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /** 클라이언트에게 보내는 오류 응답 */
+    public String toReply() {
+        return "ERROR:Request too large (max " + limit + " bytes)";
+    }
+}
@@ -0,0 +1,64 @@
+package server.net;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 서버 전체에서 처리 중인 요청 수를 세는 클래스 (종료 시 진행 중인 요청을 마저 처리하기 위해 사용)
+ * - 전송 계층이 요청을 처리하기 전에 tryEnter, 응답을 내보낸 뒤 exit를 호출
+ * - close 이후 들어온 요청은 tryEnter가 false를 돌려주고, 처리하지 않고 SHUTTING_DOWN_REPLY로 응답
+ * - awaitIdle로 처리 중인 요청이 0이 될 때까지(또는 제한 시간까지) 대기
+ * @author user
+ */
+public class RequestTracker {
+    public static final String SHUTTING_DOWN_REPLY = "ERROR:Server is shutting down";
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean closed;
+
+    /** 요청 처리를 시작해도 되면 true (처리 중 개수 증가). 종료 중이면 false */
+    public boolean tryEnter() {
+        inFlight.incrementAndGet();
+        if (closed) {
+            exit();
+            return false;
+        }
+        return true;
+    }
+
+    /** tryEnter가 true였던 요청의 응답을 내보낸 뒤 호출 */
+    public void exit() {
+        if (inFlight.decrementAndGet() == 0 && closed) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /** 새 요청 받기를 멈춤 */
+    public void close() {
+        closed = true;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 처리 중인 요청이 모두 끝날 때까지 최대 timeoutMillis 동안 대기
+     * @return 모두 끝났으면 true
+     */
+    public synchronized boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (inFlight.get() > 0) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) return false;
+            wait(remaining);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package server.net;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import server.net.command.RequestLine;
+
+/**
+ * 한 번에 처리해서 한 번에 응답하는 요청 단위
+ * - 일반 요청: 한 줄
+ * - BATCH:<n> 요청: 헤더 다음에 오는 n줄의 하위 명령 묶음
+ * - 요청은 전송 스레드에서 RequestLine으로 한 번만 토큰화해 둔다
+ *   (바이너리 프로토콜 요청은 이미 필드 단위로 나뉘어 있음)
+ * @author user
+ */
+public final class RequestUnit {
+    private final List<RequestLine> lines;
+    private final boolean batch;
+
+    private RequestUnit(List<RequestLine> lines, boolean batch) {
+        this.lines = lines;
+        this.batch = batch;
+    }
+
+    public static RequestUnit single(String request) {
+        return single(RequestLine.of(request));
+    }
+
+    public static RequestUnit single(RequestLine request) {
+        return new RequestUnit(Collections.singletonList(request), false);
+    }
+
+    public static RequestUnit batch(List<String> commands) {
+        List<RequestLine> lines = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            lines.add(RequestLine.of(command));
+        }
+        return batchOf(lines);
+    }
+
+    public static RequestUnit batchOf(List<RequestLine> commands) {
+        return new RequestUnit(Collections.unmodifiableList(commands), true);
+    }
+
+    public List<RequestLine> getLines() { return lines; }
+    public boolean isBatch() { return batch; }
+
+    /** 로그 출력용 */
+    @Override
+    public String toString() {
+        return batch ? "BATCH:" + lines.size() : lines.get(0).text();
+    }
+}
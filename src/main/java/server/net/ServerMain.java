@@ -1,7 +1,11 @@
 package server.net;
 import java.io.*;
 import java.net.*;
-import java.util.Properties;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import server.config.ServerConfig;
+import server.log.Log;
 import server.service.*;
 /**
  *  HMS서버 메인 클래스
@@ -10,24 +14,27 @@ import server.service.*;
 public class ServerMain {
 
     // private static final int PORT = 5000; // TCP서버 포트번호
-    
+
     public static void main(String[] args) {
-        System.out.println("HMS 서버 시작");
-
-        // config.properties에서 포트 읽기
-        int port = 5000;
-        try (InputStream input = ServerMain.class.getClassLoader().getResourceAsStream("config.properties")) {
-            if (input != null) {
-                Properties prop = new Properties();
-                prop.load(input);
-                String portStr = prop.getProperty("server.port");
-                if (portStr != null) {
-                    port = Integer.parseInt(portStr);
-                }
-            }
-        } catch (Exception e) {
-            System.out.println("[경고] config.properties에서 포트 정보를 읽지 못했습니다. 기본값 5000 사용");
-        }
+        Log.info("HMS 서버 시작");
+
+        // config.properties에서 포트, 전송 방식, 연결 실행 방식 읽기
+        int port = ServerConfig.getInt("server.port", 5000);
+        String transport = ServerConfig.getString("server.transport", "blocking");
+        boolean virtual = !"platform".equalsIgnoreCase(ServerConfig.getString("server.executor", "virtual"));
+        int maxConnections = ServerConfig.getInt("server.maxConnections", 1000);
+        int maxBatch = ServerConfig.getInt("server.batch.maxCommands", 1000);
+        int maxFrameBytes = ServerConfig.getInt("server.binary.maxFrameBytes", 1024 * 1024);
+        // 한 연결에서 처리 대기/전송 대기 중인 요청 수 상한 (두 전송 방식 공통)
+        int maxInFlight = ServerConfig.getInt("server.pipeline.maxInFlight", 32);
+        // 연결 수명 관리: IP별 동시 연결 상한, 유휴 연결 종료 시간, 요청 한 줄 최대 길이, 연결별 대기 바이트 상한
+        ConnectionGuard guard = new ConnectionGuard(
+                ServerConfig.getInt("server.maxConnectionsPerIp", 50),
+                ServerConfig.getLong("server.idleTimeoutSeconds", 300) * 1000L,
+                ServerConfig.getInt("server.maxLineLength", 64 * 1024),
+                ServerConfig.getLong("server.maxQueuedBytes", 4 * 1024 * 1024));
+        // 종료 시 진행 중인 요청을 마저 처리하는 최대 시간
+        long drainMillis = ServerConfig.getLong("server.shutdown.drainSeconds", 10) * 1000L;
 
         // 서비스 객체들을 서버 시작 시점에 '단 한 번'만 생성
         AuthService authService = new AuthService();
@@ -35,29 +42,82 @@ public class ServerMain {
         MenuService menuService = new MenuService();
         MenuOrderService menuOrderService = new MenuOrderService();
         ReportService reportService = new ReportService(hotelService.getReservationRepository(), hotelService.getRoomRepository(), menuOrderService);
+        RequestHandler requestHandler = new RequestHandler(authService, hotelService, menuService, menuOrderService, reportService);
+        // 예약 변경 로그를 요청이 적을 때 백그라운드에서 압축
+        CompactionService compactionService = new CompactionService(
+                List.of(hotelService.getReservationRepository()), requestHandler.getTracker()::getInFlight);
+        compactionService.start();
+
+        if ("nio".equalsIgnoreCase(transport)) {
+            int workers = ServerConfig.getInt("server.nio.workers", Runtime.getRuntime().availableProcessors());
+            Log.info("전송 방식: nio (워커 " + workers + "개, 최대 동시 연결 " + maxConnections + ")");
+            NioServer nioServer = new NioServer(port, requestHandler, workers, maxConnections, maxInFlight, maxBatch, maxFrameBytes, guard);
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                    new GracefulShutdown(requestHandler, hotelService, compactionService, drainMillis, nioServer, nioServer), "shutdown"));
+            try {
+                nioServer.serve();
+            } catch (IOException ex) {
+                Log.error("nio 서버 오류", ex);
+            }
+            return;
+        }
+
+        // 파이프라이닝된 요청을 처리하는 공유 워커 풀
+        int pipelineWorkers = ServerConfig.getInt("server.pipeline.workers", Runtime.getRuntime().availableProcessors());
+        ExecutorService requestWorkers = Executors.newFixedThreadPool(pipelineWorkers, Thread.ofPlatform().name("request-worker-", 0).daemon(true).factory());
+
+        ConnectionExecutor connections = new ConnectionExecutor(virtual, maxConnections);
+        Log.info("연결 실행 방식: " + (virtual ? "virtual" : "platform") + " (최대 동시 연결 " + maxConnections + ")");
 
+        ServerSocket serverSocket = null;
         try{
-            ServerSocket serverSocket = new ServerSocket(port);
+            serverSocket = new ServerSocket(port);
+            // SHUTDOWN 명령, SIGTERM, Ctrl+C 모두 이 훅에서 정리 (서버 소켓을 닫아 accept 중지)
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                    new GracefulShutdown(requestHandler, hotelService, compactionService, drainMillis, serverSocket, null), "shutdown"));
             while(true){
-                Socket clientSocket = serverSocket.accept();
-                System.out.println("클라이언트 접속");
-
-                ClientHandler handler = new ClientHandler(
-                    clientSocket,
-                    authService,
-                    hotelService,
-                    menuService,
-                    menuOrderService,
-                    reportService
-                );
-
-                Thread t = new Thread(handler);
-                t.start();
+                // 동시 연결 상한에 도달하면 여기서 대기 (백프레셔)
+                connections.acquireSlot();
+                Socket clientSocket;
+                try {
+                    clientSocket = serverSocket.accept();
+                } catch (IOException ex) {
+                    connections.releaseSlot();
+                    throw ex;
+                }
+
+                if (!guard.tryAdmit(clientSocket.getInetAddress())) {
+                    reject(clientSocket);
+                    connections.releaseSlot();
+                    Log.warn("IP별 연결 상한 초과로 거절: " + clientSocket.getInetAddress() + " (", guard.getStats() + ")");
+                    continue;
+                }
+
+                ClientHandler handler = new ClientHandler(clientSocket, requestHandler, requestWorkers, maxInFlight, maxBatch, maxFrameBytes, guard);
+
+                connections.execute(handler);
+                Log.info("클라이언트 접속 (", connections.getStats() + "," + guard.getStats() + ")");
             }
         }
 
         catch(IOException ex){
-            ex.printStackTrace();
+            if (serverSocket != null && serverSocket.isClosed()) {
+                Log.info("서버 종료 중: accept 루프 종료");
+            } else {
+                Log.error("서버 소켓 오류", ex);
+            }
+        }
+        catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            Log.info("서버 accept 루프 중단");
+        }
+    }
+
+    /** 거절 사유 한 줄을 보내고 연결을 닫음 */
+    private static void reject(Socket socket) {
+        try (socket) {
+            socket.getOutputStream().write((ConnectionGuard.REJECT_REPLY + System.lineSeparator()).getBytes());
+        } catch (IOException ignore) {
         }
     }
 }
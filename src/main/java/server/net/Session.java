@@ -0,0 +1,148 @@
+package server.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.Deflater;
+
+import server.config.ServerConfig;
+import server.net.command.Reply;
+
+/**
+ * 연결 하나의 프로토콜/압축 상태
+ * - 연결 직후 첫 요청 전에 보내는 협상 줄만 처리하고, 각 협상 줄에는 텍스트 한 줄로 응답
+ *   PROTOCOL:BINARY          -> PROTOCOL_OK:BINARY, 이후 요청/응답은 BinaryCodec 프레임
+ *                               (바이너리로 바뀌므로 다른 협상 줄보다 뒤에 보내야 함)
+ *   PROTOCOL:TEXT            -> PROTOCOL_OK:TEXT (기본값)
+ *   COMPRESS:DEFLATE[:bytes] -> COMPRESS_OK:DEFLATE:<bytes>, bytes 이상인 응답을 압축
+ *   COMPRESS:NONE            -> COMPRESS_OK:NONE
+ * - 압축된 텍스트 응답: "Z:<원래 바이트 수>:<zlib 압축 데이터의 Base64>" 한 줄
+ *   압축된 바이너리 응답: DEFLATED 응답 (BinaryCodec 참고)
+ * - 첫 줄이 일반 요청이면 협상 없이 기존 텍스트 프로토콜 그대로
+ * @author user
+ */
+public final class Session {
+    public static final String PROTOCOL_COMMAND = "PROTOCOL";
+    public static final String COMPRESS_COMMAND = "COMPRESS";
+
+    private static final int COMPRESSION_LEVEL = ServerConfig.getInt("server.compression.level", Deflater.DEFAULT_COMPRESSION);
+    private static final int DEFAULT_THRESHOLD = ServerConfig.getInt("server.compression.threshold", 1024);
+    private static final byte[] COMPRESSED_PREFIX = "Z:".getBytes(StandardCharsets.US_ASCII);
+
+    public enum Protocol { TEXT, BINARY }
+
+    private final Charset charset;
+    private final byte[] lineSeparator;
+    private Protocol protocol = Protocol.TEXT;
+    private ReplyCompressor compressor; // 압축을 협상하지 않았으면 null
+
+    public Session(Charset charset) {
+        this.charset = charset;
+        this.lineSeparator = System.lineSeparator().getBytes(charset);
+    }
+
+    /**
+     * 협상 줄이면 처리하고 응답(텍스트 한 줄)을 반환, 아니면 null (일반 요청으로 처리)
+     * 연결의 첫 요청 전에만 호출한다.
+     */
+    public synchronized String negotiate(String line) {
+        int idx = line.indexOf(':');
+        if (idx < 0) return null;
+        String command = line.substring(0, idx).trim();
+        String[] args = line.substring(idx + 1).trim().split(":", -1);
+        if (command.equals(PROTOCOL_COMMAND)) {
+            return negotiateProtocol(args[0]);
+        }
+        if (command.equals(COMPRESS_COMMAND)) {
+            return negotiateCompression(args);
+        }
+        return null;
+    }
+
+    private String negotiateProtocol(String requested) {
+        if (requested.equalsIgnoreCase(Protocol.BINARY.name())) {
+            protocol = Protocol.BINARY;
+            return "PROTOCOL_OK:BINARY";
+        }
+        if (requested.equalsIgnoreCase(Protocol.TEXT.name())) {
+            return "PROTOCOL_OK:TEXT";
+        }
+        return "PROTOCOL_FAIL:Unsupported " + requested;
+    }
+
+    private String negotiateCompression(String[] args) {
+        if (args[0].equalsIgnoreCase("NONE")) {
+            closeCompressor();
+            return "COMPRESS_OK:NONE";
+        }
+        if (!args[0].equalsIgnoreCase("DEFLATE")) {
+            return "COMPRESS_FAIL:Unsupported " + args[0];
+        }
+        int threshold = DEFAULT_THRESHOLD;
+        if (args.length > 1) {
+            try {
+                threshold = Integer.parseInt(args[1].trim());
+            } catch (NumberFormatException e) {
+                return "COMPRESS_FAIL:Format";
+            }
+            if (threshold < 0) return "COMPRESS_FAIL:Format";
+        }
+        closeCompressor();
+        compressor = new ReplyCompressor(COMPRESSION_LEVEL, threshold);
+        return "COMPRESS_OK:DEFLATE:" + threshold;
+    }
+
+    public synchronized boolean isBinary() {
+        return protocol == Protocol.BINARY;
+    }
+
+    public synchronized Protocol getProtocol() {
+        return protocol;
+    }
+
+    /** 응답을 현재 프로토콜로 인코딩 (텍스트는 줄바꿈 포함). 압축을 협상했으면 threshold 이상일 때 압축 */
+    public synchronized ByteBuffer encode(Reply reply) {
+        if (protocol == Protocol.BINARY) {
+            ByteBuffer frame = BinaryCodec.encodeFrame(reply);
+            int payloadLength = frame.remaining() - 4;
+            if (compressor == null || !compressor.shouldCompress(payloadLength)) return frame;
+            int n = compressor.deflate(frame.array(), frame.arrayOffset() + frame.position() + 4, payloadLength);
+            return BinaryCodec.deflatedFrame(payloadLength, compressor.buffer(), n);
+        }
+        byte[] text = reply.toText().getBytes(charset);
+        if (compressor == null || !compressor.shouldCompress(text.length)) {
+            return withLineSeparator(text, text.length);
+        }
+        int n = compressor.deflate(text, 0, text.length);
+        byte[] encoded = Base64.getEncoder().encode(ByteBuffer.wrap(compressor.buffer(), 0, n)).array();
+        byte[] rawLength = (Integer.toString(text.length) + ":").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer out = ByteBuffer.allocate(COMPRESSED_PREFIX.length + rawLength.length + encoded.length + lineSeparator.length);
+        out.put(COMPRESSED_PREFIX).put(rawLength).put(encoded).put(lineSeparator);
+        return out.flip();
+    }
+
+    /** 텍스트 한 줄 인코딩 (협상 응답처럼 프로토콜/압축과 관계없이 텍스트로 보내는 경우) */
+    public ByteBuffer encodeLine(String line) {
+        byte[] text = line.getBytes(charset);
+        return withLineSeparator(text, text.length);
+    }
+
+    private ByteBuffer withLineSeparator(byte[] text, int length) {
+        ByteBuffer out = ByteBuffer.allocate(length + lineSeparator.length);
+        out.put(text, 0, length).put(lineSeparator);
+        return out.flip();
+    }
+
+    /** 연결 종료 시 호출 (압축기의 네이티브 메모리 해제) */
+    public synchronized void close() {
+        closeCompressor();
+    }
+
+    private void closeCompressor() {
+        if (compressor != null) {
+            compressor.close();
+            compressor = null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package server.net.command;
+
+import server.log.Log;
+import server.model.User;
+import server.service.AuthService;
+
+/**
+ * 서버 관리 명령 등록 (관리자 계정만 사용 가능)
+ * @author user
+ */
+public final class AdminCommands {
+    private static final String ADMIN_ROLE = "Manager";
+
+    private AdminCommands() {}
+
+    public static void register(CommandRegistry registry, AuthService authService) {
+        // 형식: SHUTDOWN:id:pw
+        // JVM 종료를 요청하면 종료 훅(GracefulShutdown)이 accept 중지, 진행 중인 요청 처리(이 요청의 응답 포함),
+        // 스케줄러 중지, 저장소 기록을 차례로 수행한다
+        registry.command("SHUTDOWN").limit(3).arity(3).onFormatError("SHUTDOWN_FAIL:Format")
+                .handle(args -> {
+                    User user = authService.login(args.get(1), args.get(2));
+                    if (user == null || !ADMIN_ROLE.equals(user.getRole())) {
+                        Log.warn("[Admin] 권한 없는 종료 요청: ", args.get(1));
+                        return "SHUTDOWN_FAIL:Unauthorized";
+                    }
+                    Log.info("[Admin] 관리자 종료 요청: ", user.getId());
+                    Thread.ofPlatform().name("shutdown-request").start(() -> System.exit(0));
+                    return "SHUTDOWN_OK";
+                });
+    }
+}
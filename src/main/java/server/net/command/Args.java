@@ -0,0 +1,46 @@
+package server.net.command;
+
+/**
+ * 명령 하나가 보는 요청 필드 목록 (0번은 명령어 자신)
+ * - RequestLine.args(limit)로 만들어지며, 필드 문자열은 꺼낼 때만 잘라냄
+ * @author user
+ */
+public final class Args {
+    private final RequestLine line;
+    private final int size;
+    private final int tailIndex; // 이 인덱스의 필드는 줄 끝까지 포함 (없으면 -1)
+
+    Args(RequestLine line, int size, int tailIndex) {
+        this.line = line;
+        this.size = size;
+        this.tailIndex = tailIndex;
+    }
+
+    /** 명령어를 포함한 필드 개수 (기존 parts.length와 같은 의미) */
+    public int size() {
+        return size;
+    }
+
+    public String get(int i) {
+        if (i < 0 || i >= size) throw new ArrayIndexOutOfBoundsException(i);
+        return i == tailIndex ? line.tail(i) : line.token(i);
+    }
+
+    /** 정수 필드 (형식 오류 시 NumberFormatException) */
+    public int getInt(int i) {
+        return Integer.parseInt(get(i));
+    }
+
+    /** 필드가 비었거나 공백뿐인지 */
+    public boolean isBlank(int i) {
+        return get(i).trim().isEmpty();
+    }
+
+    /** 1번부터 to번 필드 중 하나라도 비어 있는지 */
+    public boolean anyBlank(int to) {
+        for (int i = 1; i <= to; i++) {
+            if (isBlank(i)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+package server.net.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import server.model.User;
+import server.service.AuthService;
+
+/**
+ * 로그인/사용자 관리 명령 등록
+ * @author user
+ */
+public final class AuthCommands {
+    private AuthCommands() {}
+
+    public static void register(CommandRegistry registry, AuthService authService) {
+        registry.command("LOGIN").readOnly().limit(3).arity(3).onFormatError("ERROR:Invalid LOGIN format") // 형식 오류
+                .handle(args -> {
+                    User user = authService.login(args.get(1), args.get(2));
+                    if(user != null){
+                        return "LOGIN_SUCCESS:" + user.getRole(); //로그인 성공
+                    }
+                    return "LOGIN_FAIL:Invalid credentials"; // 로그인 실패
+                });
+
+        registry.command("GET_USERS").readOnly()
+                .handleReply(args -> {
+                    //서비스에서 모든 유저 가져오기
+                    List<User> users = authService.getAllUsers();
+                    List<Object[]> rows = new ArrayList<>(users.size());
+                    for (User u : users) {
+                        rows.add(new Object[] { u.getId(), u.getPassword(), u.getRole(), u.getPhone(), u.getName() });
+                    }
+                    return Reply.table("USER_LIST", ",", "/", rows);
+                });
+
+        // 형식(필수): ADD_USER:id:name:pw:role:phone  => 총 6토큰, 모두 공백불가
+        registry.command("ADD_USER").arity(6).onFormatError("ADD_FAIL:Format")
+                .handle(args -> {
+                    if(args.anyBlank(5)) return "ADD_FAIL:FieldRequired";
+                    boolean ok = authService.addUser(args.get(1), args.get(2), args.get(3), args.get(4), args.get(5));
+                    return ok ? "ADD_SUCCESS" : "ADD_FAIL:DuplicateOrError";
+                });
+
+        registry.command("DELETE_USER").limit(3).minArity(2).onFormatError("DELETE_FAIL:Format")
+                .handle(args -> {
+                    boolean ok = authService.deleteUser(args.get(1));
+                    return ok ? "DELETE_SUCCESS" : "DELETE_FAIL";
+                });
+
+        // 형식: MODIFY_USER:id:name:pw:role:phone
+        registry.command("MODIFY_USER").arity(6).onFormatError("MODIFY_FAIL:Format")
+                .handle(args -> {
+                    if(args.anyBlank(5)) return "MODIFY_FAIL:FieldRequired";
+                    boolean ok = authService.modifyUser(args.get(1), args.get(2), args.get(3), args.get(4), args.get(5));
+                    return ok ? "MODIFY_SUCCESS" : "MODIFY_FAIL";
+                });
+    }
+}
@@ -0,0 +1,11 @@
+package server.net.command;
+
+/**
+ * 프로토콜 명령 하나의 처리 로직
+ * - 필드 개수 검사는 CommandSpec에서 끝난 뒤 호출되므로 여기서는 처리만 함
+ * @author user
+ */
+@FunctionalInterface
+public interface Command {
+    String execute(Args args) throws Exception;
+}
@@ -0,0 +1,76 @@
+package server.net.command;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import server.log.Log;
+
+/**
+ * 명령어 이름 -> 명령 선언(CommandSpec) 매핑
+ * - 서버 시작 시 한 번 등록하고, 이후에는 조회만 하므로 여러 스레드에서 함께 사용해도 안전
+ * - 요청 한 줄은 RequestLine으로 한 번만 토큰화하고, 명령이 선언한 limit로 필드 뷰를 만든다
+ * @author user
+ */
+public class CommandRegistry {
+    private final Map<String, CommandSpec> commands = new HashMap<>();
+
+    /** 새 명령 선언 시작. handle(...)을 호출해야 등록됨 */
+    public CommandSpec command(String name) {
+        return new CommandSpec(this, name);
+    }
+
+    void add(CommandSpec spec) {
+        if (commands.putIfAbsent(spec.getName(), spec) != null) {
+            throw new IllegalStateException("중복 등록된 명령어: " + spec.getName());
+        }
+    }
+
+    public boolean contains(String name) {
+        return commands.containsKey(name);
+    }
+
+    /** 요청이 조회 전용 명령인지 (알 수 없는 명령은 false) */
+    public boolean isReadOnly(String request) {
+        int idx = request.indexOf(':');
+        String name = (idx < 0 ? request : request.substring(0, idx)).trim();
+        CommandSpec spec = commands.get(name);
+        return spec != null && spec.isReadOnly();
+    }
+
+    public boolean isReadOnly(RequestLine request) {
+        CommandSpec spec = commands.get(request.command());
+        return spec != null && spec.isReadOnly();
+    }
+
+    /**
+     * 요청 한 줄을 해당 명령으로 실행
+     * - 알 수 없는 명령어: ERROR:Unknown command
+     * - 필드 개수가 맞지 않으면 명령이 선언한 형식 오류 응답
+     * - 처리 중 예외: ERROR:Internal server error
+     */
+    public String dispatch(String request) {
+        return dispatch(RequestLine.of(request)).toText();
+    }
+
+    /** 토큰화된 요청을 실행하고 구조화된 응답을 반환 (오류 응답은 TEXT) */
+    public Reply dispatch(RequestLine line) {
+        try {
+            String name = line.command();
+            CommandSpec spec = commands.get(name);
+            if (spec == null) {
+                Log.warn("❌ [오류] 알 수 없는 명령어: ", name);
+                return Reply.text("ERROR:Unknown command " + name);
+            }
+            Args args = line.args(spec.getLimit());
+            if (!spec.accepts(args.size())) {
+                Log.warn("[Server] " + name + " 요청 포맷 오류. 받은 개수: ", args.size());
+                return Reply.text(spec.getFormatError());
+            }
+            return spec.getHandler().execute(args);
+        }
+        catch (Exception ex) {
+            Log.error("명령 처리 중 오류", ex);
+            return Reply.text("ERROR:Internal server error: " + ex.getMessage());
+        }
+    }
+}
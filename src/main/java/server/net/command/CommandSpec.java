@@ -0,0 +1,80 @@
+package server.net.command;
+
+/**
+ * 명령 하나의 선언 정보: 이름, 필드 분할 방식(limit), 허용 필드 개수, 형식 오류 응답, 처리 로직
+ * - CommandRegistry.command(name)으로 시작해서 handle(...) 또는 handleReply(...)를 호출하면 레지스트리에 등록됨
+ *   예) registry.command("LOGIN").limit(3).arity(3).onFormatError("ERROR:Invalid LOGIN format").handle(args -> ...)
+ * @author user
+ */
+public final class CommandSpec {
+    private final CommandRegistry registry;
+    private final String name;
+    private int limit = 0;                  // String.split limit과 같은 의미 (기본: 전체 분할, 끝 빈 필드 제거)
+    private int minArity = 0;               // 명령어 포함 최소 필드 수
+    private int maxArity = Integer.MAX_VALUE;
+    private String formatError = "ERROR:Format";
+    private boolean readOnly;               // 데이터를 바꾸지 않는 조회 명령인지 (파이프라이닝 시 동시 실행 가능)
+    private ReplyCommand handler;
+
+    CommandSpec(CommandRegistry registry, String name) {
+        this.registry = registry;
+        this.name = name;
+    }
+
+    public CommandSpec limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /** 필드 개수가 정확히 n개여야 함 */
+    public CommandSpec arity(int n) {
+        this.minArity = n;
+        this.maxArity = n;
+        return this;
+    }
+
+    /** 필드 개수가 min개 이상 max개 이하여야 함 */
+    public CommandSpec arity(int min, int max) {
+        this.minArity = min;
+        this.maxArity = max;
+        return this;
+    }
+
+    /** 필드 개수가 n개 이상이어야 함 */
+    public CommandSpec minArity(int n) {
+        this.minArity = n;
+        return this;
+    }
+
+    public CommandSpec onFormatError(String response) {
+        this.formatError = response;
+        return this;
+    }
+
+    /** 조회 전용 명령으로 표시 (같은 연결의 다른 조회 명령과 동시에 실행될 수 있음) */
+    public CommandSpec readOnly() {
+        this.readOnly = true;
+        return this;
+    }
+
+    /** 처리 로직을 지정하고 레지스트리에 등록 */
+    public void handle(Command handler) {
+        handleReply(args -> Reply.text(handler.execute(args)));
+    }
+
+    /** 구조화된 응답을 만드는 처리 로직을 지정하고 레지스트리에 등록 */
+    public void handleReply(ReplyCommand handler) {
+        this.handler = handler;
+        registry.add(this);
+    }
+
+    String getName() { return name; }
+    int getLimit() { return limit; }
+    String getFormatError() { return formatError; }
+    ReplyCommand getHandler() { return handler; }
+    boolean isReadOnly() { return readOnly; }
+
+    boolean accepts(int size) {
+        return size >= minArity && size <= maxArity;
+    }
+}
@@ -0,0 +1,191 @@
+package server.net.command;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import server.model.Room;
+import server.repository.ReservationRepository;
+import server.service.HotelService;
+
+/**
+ * 객실/예약/결제 명령 등록
+ * @author user
+ */
+public final class HotelCommands {
+    private HotelCommands() {}
+
+    public static void register(CommandRegistry registry, HotelService hotelService) {
+        // 형식: GET_DASHBOARD[:yyyy-MM-dd] (날짜가 없으면 오늘)
+        registry.command("GET_DASHBOARD").readOnly().limit(3)
+                .handleReply(args -> {
+                    String date = args.size() == 2 ? args.get(1) : LocalDate.now().toString();
+                    return Reply.table("DASHBOARD_LIST", ",", "|", hotelService.getRoomDashboardRows(date));
+                });
+
+        registry.command("CHECK_IN").minArity(2)
+                .handle(args -> hotelService.checkIn(args.get(1)) ? "SUCCESS" : "FAIL");
+
+        registry.command("CHECK_OUT").minArity(2)
+                .handle(args -> hotelService.checkOut(args.get(1)) ? "SUCCESS" : "FAIL");
+
+        // UPDATE_RESERVATION_STATUS:예약번호:상태[:버전]
+        // 버전을 주면 그 버전일 때만 변경: UPDATE_SUCCESS:새버전 / UPDATE_FAIL:Conflict:현재버전 / UPDATE_FAIL
+        registry.command("UPDATE_RESERVATION_STATUS").arity(3, 4)
+                .handle(args -> {
+                    if (args.size() == 3) {
+                        return hotelService.updateReservationStatus(args.get(1), args.get(2)) ? "UPDATE_SUCCESS" : "UPDATE_FAIL";
+                    }
+                    long version;
+                    try {
+                        version = Long.parseLong(args.get(3));
+                    } catch (NumberFormatException e) {
+                        return "UPDATE_FAIL";
+                    }
+                    return updateReply(hotelService.updateReservationStatus(args.get(1), args.get(2), version));
+                });
+
+        // 형식: GET_RES_VERSION:예약번호 → RES_VERSION:예약번호:버전 (버전 지정 변경 전에 조회)
+        registry.command("GET_RES_VERSION").readOnly().arity(2)
+                .handle(args -> {
+                    long version = hotelService.getReservationVersion(args.get(1));
+                    return version < 0 ? "RES_VERSION_FAIL" : "RES_VERSION:" + args.get(1) + ":" + version;
+                });
+
+        // 프로토콜: UPDATE_PAYMENT:ResID:Method:Card:CVC:Expiry:PW:Amount
+        registry.command("UPDATE_PAYMENT").arity(8).onFormatError("ERROR:Format Error (Expected 8 parts)")
+                .handle(args -> {
+                    int amount;
+                    try {
+                        // 마지막 데이터(금액) 파싱
+                        amount = args.getInt(7);
+                    } catch (NumberFormatException e) {
+                        return "ERROR:Invalid Amount Format"; // 금액이 숫자가 아닐 경우 에러 처리
+                    }
+                    boolean ok = hotelService.processPayment(
+                            args.get(1), // ResID
+                            args.get(2), // Method
+                            args.get(3), // CardNum
+                            args.get(4), // CVC
+                            args.get(5), // Expiry
+                            args.get(6), // PW
+                            amount       // Amount
+                    );
+                    return ok ? "PAYMENT_SUCCESS" : "PAYMENT_FAIL";
+                });
+
+        // 형식: GET_ROOM_SALES:yyyy-MM-dd:yyyy-MM-dd
+        // 서버는 "ROOM_SALES:yyyy-MM-dd=amount,yyyy-MM-dd=amount,..." 형태의 한 줄 응답을 반환합니다.
+        // LinkedHashMap을 사용해 날짜 순서가 유지되므로 클라이언트가 순서대로 그래프를 그릴 수 있습니다.
+        registry.command("GET_ROOM_SALES").readOnly().limit(3).arity(3)
+                .handle(args -> {
+                    // HotelService에서 날짜별 매출을 계산해서 맵으로 돌려받습니다.
+                    Map<LocalDate, Integer> sales = hotelService.getRoomSalesByDateRange(args.get(1), args.get(2));
+                    //ex ROOM_SALES:2025-10-01=220000,2025-10-02=440000,...
+                    StringBuilder salesSb = new StringBuilder("ROOM_SALES:");
+                    boolean first = true;
+                    for (Map.Entry<LocalDate, Integer> en : sales.entrySet()) {
+                        if (!first) salesSb.append(",");
+                        salesSb.append(en.getKey().toString()).append("=").append(en.getValue());
+                        first = false;
+                    }
+                    return salesSb.toString();
+                });
+
+        registry.command("CHECK_ALL_ROOM_STATUS").readOnly().arity(3)
+                .handleReply(args -> Reply.table("ROOM_STATUS_LIST", ",", "|",
+                        hotelService.getRoomStatusRows(args.get(1), args.get(2))));
+
+        registry.command("GET_RES_BY_NAME").readOnly().minArity(2)
+                .handle(args -> {
+                    // 가격과 정원수이 포함된 데이터를 가져옴
+                    List<String> list = hotelService.getReservationsWithRoomInfo(args.get(1));
+                    StringBuilder resSb = new StringBuilder("RES_LIST:");
+                    for (String line : list) {
+                        resSb.append(line).append("|");
+                    }
+                    return resSb.toString();
+                });
+
+        registry.command("GET_AVAILABLE_ROOMS").readOnly()
+                .handle(args -> {
+                    // 전체 방 목록 반환
+                    StringBuilder availSb = new StringBuilder("ROOM_LIST:");
+                    for (Room r : hotelService.getAllRooms()) {
+                        availSb.append(r.toString()).append("/");
+                    }
+                    return availSb.toString();
+                });
+
+        // 형식: PAY_AND_RESERVE:방번호:이름:입실:퇴실:인원:폰:요청사항:카드번호:CVC:유효기간:비밀번호
+        registry.command("PAY_AND_RESERVE").arity(12).onFormatError("ERROR:Format (Expected 11 parts for PAY_AND_RESERVE)")
+                .handle(args -> {
+                    int guestNum;
+                    try {
+                        guestNum = args.getInt(5);
+                    }
+                    catch (NumberFormatException e) {
+                        return "FAIL:InvalidGuestNum";
+                    }
+                    return hotelService.createReservationWithPayment(
+                            args.get(1), args.get(2), args.get(3), args.get(4), guestNum,
+                            args.get(6), args.get(7), args.get(8), args.get(9), args.get(10), args.get(11));
+                });
+
+        registry.command("CHECK_AVAILABILITY").readOnly().arity(3)
+                .handle(args -> "AVAILABLE_TYPES:" + hotelService.getAvailableRoomTypes(args.get(1), args.get(2)));
+
+        // ADD_RESERVATION:방번호:이름:입실:퇴실:인원:폰:요청사항 (요청사항은 빈 값 허용)
+        registry.command("ADD_RESERVATION").limit(-1).arity(8).onFormatError("ERROR:Format (Expected 8 parts)")
+                .handle(args -> {
+                    String assignedRoom = hotelService.createReservationByRoomNum(
+                            args.get(1),    // RoomNum
+                            args.get(2),    // Name
+                            args.get(3),    // In
+                            args.get(4),    // Out
+                            args.getInt(5), // GuestNum
+                            args.get(6),    // Phone
+                            args.get(7));   // Request
+                    return assignedRoom != null ? "RESERVE_SUCCESS:" + assignedRoom : "RESERVE_FAIL:No Room Available";
+                });
+
+        registry.command("DELETE_RESERVATION").limit(3).arity(2)
+                .handle(args -> hotelService.cancelReservation(args.get(1)) ? "DELETE_SUCCESS" : "DELETE_FAIL");
+
+        // ADD_ROOM:번호:타입:가격:인원:설명 (6개)
+        registry.command("ADD_ROOM").arity(6)
+                .handle(args -> hotelService.addRoom(args.get(1), args.get(2), args.getInt(3), args.getInt(4), args.get(5)) ? "ADD_SUCCESS" : "ADD_FAIL");
+
+        // UPDATE_ROOM:번호:타입:가격:인원:설명 (6개)
+        registry.command("UPDATE_ROOM").arity(6)
+                .handle(args -> hotelService.updateRoom(args.get(1), args.get(2), args.getInt(3), args.getInt(4), args.get(5)) ? "UPDATE_SUCCESS" : "UPDATE_FAIL");
+
+        // UPDATE_GUEST_REQ:예약번호:요청사항 (요청사항에는 ':'가 들어갈 수 있음)
+        registry.command("UPDATE_GUEST_REQ").limit(3).arity(3)
+                .handle(args -> hotelService.updateReservationRequest(args.get(1), args.get(2)) ? "UPDATE_SUCCESS" : "UPDATE_FAIL");
+
+        // UPDATE_GUEST_REQ_IF:예약번호:버전:요청사항 (응답은 버전을 준 UPDATE_RESERVATION_STATUS와 같음)
+        registry.command("UPDATE_GUEST_REQ_IF").limit(4).arity(4)
+                .handle(args -> {
+                    long version;
+                    try {
+                        version = Long.parseLong(args.get(2));
+                    } catch (NumberFormatException e) {
+                        return "UPDATE_FAIL";
+                    }
+                    return updateReply(hotelService.updateReservationRequest(args.get(1), args.get(3), version));
+                });
+
+        // "SUCCESS:SetToCleaning" or "SUCCESS:SetToEmpty" or "FAIL..."
+        registry.command("MANAGE_CLEANING").limit(3).arity(2)
+                .handle(args -> hotelService.toggleCleaningStatus(args.get(1)));
+    }
+
+    private static String updateReply(ReservationRepository.Update result) {
+        return switch (result.outcome()) {
+            case UPDATED -> "UPDATE_SUCCESS:" + result.version();
+            case CONFLICT -> "UPDATE_FAIL:Conflict:" + result.version();
+            default -> "UPDATE_FAIL";
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package server.net.command;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import server.model.Menu;
+import server.model.MenuOrder;
+import server.service.MenuOrderService;
+import server.service.MenuService;
+
+/**
+ * 식음료 메뉴/주문 명령 등록
+ * @author user
+ */
+public final class MenuCommands {
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private MenuCommands() {}
+
+    public static void register(CommandRegistry registry, MenuService menuService, MenuOrderService menuOrderService) {
+        registry.command("GET_MENUS").readOnly()
+                .handleReply(args -> {
+                    List<Menu> menus = menuService.getAllMenus();
+                    List<Object[]> rows = new ArrayList<>(menus.size());
+                    for (Menu m : menus) {
+                        rows.add(new Object[] { m.getMenuId(), m.getName(), m.getPrice(), m.getCategory(), m.getIsAvailable(), m.getStock() });
+                    }
+                    return Reply.table("MENU_LIST", ",", "/", rows);
+                });
+
+        // 형식: ADD_MENU:menuId:name:price:category:isAvailable:stock (총 7개 토큰)
+        registry.command("ADD_MENU").arity(7).onFormatError("ADD_FAIL:Format")
+                .handle(args -> {
+                    if (args.anyBlank(6)) return "ADD_FAIL:FieldRequired";
+                    int price;
+                    int stock;
+                    try {
+                        price = Integer.parseInt(args.get(3).trim());
+                        stock = Integer.parseInt(args.get(6).trim());
+                    } catch (NumberFormatException e) {
+                        return "ADD_FAIL:InvaildPriceFormat";
+                    }
+                    boolean isAvailable = Boolean.parseBoolean(args.get(5).trim());
+                    boolean ok = menuService.AddMenu(args.get(1), args.get(2), price, args.get(4), isAvailable, stock);
+                    return ok ? "ADD_SUCCESS" : "ADD_FAIL:DuplicateIdOrError";
+                });
+
+        // 형식: DELETE_MENU:menuId (총 2개 토큰)
+        registry.command("DELETE_MENU").limit(3).arity(2).onFormatError("DELETE_FAIL:Format")
+                .handle(args -> {
+                    if (args.isBlank(1)) return "DELETE_FAIL:FieldRequired";
+                    boolean ok = menuService.deleteMenu(args.get(1));
+                    return ok ? "DELETE_SUCCESS" : "DELETE_FAIL:NotFound";
+                });
+
+        // 형식: UPDATE_MENU:menuId:name:price:category:isAvailable:stock (총 7개 토큰)
+        registry.command("UPDATE_MENU").arity(7).onFormatError("UPDATE_FAIL:Format")
+                .handle(args -> {
+                    if (args.anyBlank(6)) return "UPDATE_FAIL:FieldRequired";
+                    int price;
+                    int stock;
+                    try {
+                        price = Integer.parseInt(args.get(3).trim());
+                        stock = Integer.parseInt(args.get(6).trim());
+                    } catch (NumberFormatException e) {
+                        return "UPDATE_FAIL:InvaildPriceFormat";
+                    }
+                    boolean isAvailable = Boolean.parseBoolean(args.get(5).trim());
+                    boolean ok = menuService.updateMenu(args.get(1), args.get(2), price, args.get(4), isAvailable, stock);
+                    return ok ? "UPDATE_SUCCESS" : "UPDATE_FAIL:NotFound";
+                });
+
+        // 형식: ORDER_MENU:guestName:totalPrice:payment:food1|food2|...
+        registry.command("ORDER_MENU").limit(5).arity(5).onFormatError("ORDER_FAIL:Format")
+                .handle(args -> {
+                    String guestName = args.get(1);
+                    int totalPrice;
+                    try {
+                        totalPrice = Integer.parseInt(args.get(2));
+                    } catch (NumberFormatException e) {
+                        return "ORDER_FAIL:PriceFormat";
+                    }
+                    String payment = args.get(3);
+                    List<String> foodNames = Arrays.asList(RequestLine.splitOn(args.get(4), '|'));
+                    // 주문 ID 생성
+                    String saleId = "S-" + (System.currentTimeMillis() % 1000000);
+                    // 주문 저장
+                    MenuOrder order = new MenuOrder(saleId, guestName, LocalDateTime.now(), totalPrice, payment, foodNames);
+                    menuOrderService.saveOrder(order);
+                    // 재고 차감 및 판매중지 처리 (메모리 재고 카운터에서 차감, 파일 기록은 모아서 나중에)
+                    boolean allOk = true;
+                    for (String food : foodNames) {
+                        if (!menuService.takeStock(food)) allOk = false;
+                    }
+                    return allOk ? "ORDER_SUCCESS" : "ORDER_PARTIAL_FAIL:재고부족";
+                });
+
+        // 형식: GET_MENU_ORDERS_BY_GUEST:GuestName
+        registry.command("GET_MENU_ORDERS_BY_GUEST").readOnly().limit(2).arity(2).onFormatError("MENU_ORDERS:")
+                .handle(args -> {
+                    String guest = args.get(1);
+                    StringBuilder msb = new StringBuilder("MENU_ORDERS:");
+                    boolean first = true;
+                    for (MenuOrder mo : menuOrderService.getOrdersByGuest(guest)) {
+                        if (!first) msb.append("|");
+                        msb.append(mo.getSaleId()).append(",").append(mo.getTotalPrice()).append(",").append(mo.getPayment());
+                        first = false;
+                    }
+                    return msb.toString();
+                });
+
+        // 형식: GET_MENU_ORDERS_BY_DATE_RANGE:GuestName:CheckInDate:CheckOutDate
+        registry.command("GET_MENU_ORDERS_BY_DATE_RANGE").readOnly().arity(4).onFormatError("MENU_ORDERS_DATE:")
+                .handle(args -> {
+                    String guest = args.get(1);
+                    LocalDateTime checkIn = LocalDateTime.parse(args.get(2) + " 00:00:00", DATE_TIME);
+                    LocalDateTime checkOut = LocalDateTime.parse(args.get(3) + " 23:59:59", DATE_TIME);
+                    StringBuilder msb = new StringBuilder("MENU_ORDERS_DATE:");
+                    boolean first = true;
+                    for (MenuOrder mo : menuOrderService.getOrdersByGuest(guest)) {
+                        if (mo.getOrderTime().isAfter(checkIn) && mo.getOrderTime().isBefore(checkOut)) {
+                            if (!first) msb.append("|");
+                            String foodNamesStr = String.join("/", mo.getFoodNames());
+                            msb.append(foodNamesStr).append(",").append(mo.getTotalPrice()).append(",").append(mo.getPayment());
+                            first = false;
+                        }
+                    }
+                    return msb.toString();
+                });
+    }
+}
@@ -0,0 +1,88 @@
+package server.net.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 명령 처리 결과
+ * - TEXT : 기존 텍스트 프로토콜 응답 한 줄
+ * - TABLE: 머리말(예: DASHBOARD_LIST) + 행 목록. 각 행의 값은 String/Integer/Long/Double/Boolean
+ *          텍스트 모드에서는 "머리말:" + (필드를 구분자로 잇고 행마다 종결자를 붙인) 문자열로,
+ *          바이너리 모드에서는 타입이 있는 길이 접두 필드로 인코딩된다
+ * - BATCH: BATCH 요청의 하위 응답 목록
+ * @author user
+ */
+public final class Reply {
+    public enum Kind { TEXT, TABLE, BATCH }
+
+    private final Kind kind;
+    private final String text;           // TEXT: 응답 문자열 / TABLE: 머리말
+    private final String fieldSeparator; // TABLE 텍스트 표현: 필드 구분자
+    private final String rowTerminator;  // TABLE 텍스트 표현: 행 끝마다 붙는 문자
+    private final List<Object[]> rows;
+    private final List<Reply> parts;
+
+    private Reply(Kind kind, String text, String fieldSeparator, String rowTerminator, List<Object[]> rows, List<Reply> parts) {
+        this.kind = kind;
+        this.text = text;
+        this.fieldSeparator = fieldSeparator;
+        this.rowTerminator = rowTerminator;
+        this.rows = rows;
+        this.parts = parts;
+    }
+
+    public static Reply text(String text) {
+        return new Reply(Kind.TEXT, text, null, null, Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * 표 응답. 텍스트 표현은 header + ":" + (행1 필드를 fieldSeparator로 연결 + rowTerminator) + ...
+     * 예) table("USER_LIST", ",", "/") -> USER_LIST:id,pw,role,phone,name/id,.../
+     */
+    public static Reply table(String header, String fieldSeparator, String rowTerminator, List<Object[]> rows) {
+        return new Reply(Kind.TABLE, header, fieldSeparator, rowTerminator, rows, Collections.emptyList());
+    }
+
+    public static Reply batch(List<Reply> parts) {
+        return new Reply(Kind.BATCH, null, null, null, Collections.emptyList(), Collections.unmodifiableList(new ArrayList<>(parts)));
+    }
+
+    public Kind getKind() { return kind; }
+    /** TEXT면 응답 문자열, TABLE이면 머리말 */
+    public String getText() { return text; }
+    public List<Object[]> getRows() { return rows; }
+    public List<Reply> getParts() { return parts; }
+
+    /** 텍스트 프로토콜 표현 (BATCH는 "BATCH_RESULT:<n>" 줄 다음에 하위 응답을 한 줄씩) */
+    public String toText() {
+        switch (kind) {
+            case TEXT:
+                return text;
+            case TABLE: {
+                StringBuilder sb = new StringBuilder(text.length() + 1 + rows.size() * 64);
+                sb.append(text).append(':');
+                for (Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        if (i > 0) sb.append(fieldSeparator);
+                        sb.append(row[i]);
+                    }
+                    sb.append(rowTerminator);
+                }
+                return sb.toString();
+            }
+            default: {
+                StringBuilder sb = new StringBuilder("BATCH_RESULT:").append(parts.size());
+                for (Reply part : parts) {
+                    sb.append(System.lineSeparator()).append(part.toText());
+                }
+                return sb.toString();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
@@ -0,0 +1,11 @@
+package server.net.command;
+
+/**
+ * 구조화된 응답(Reply)을 돌려주는 명령
+ * - 목록 응답처럼 필드 단위로 인코딩할 수 있는 명령에 사용 (텍스트/바이너리 프로토콜 공용)
+ * @author user
+ */
+@FunctionalInterface
+public interface ReplyCommand {
+    Reply execute(Args args) throws Exception;
+}
@@ -0,0 +1,47 @@
+package server.net.command;
+
+import java.util.List;
+import java.util.Map;
+
+import server.service.ReportService;
+
+/**
+ * 매출/점유율 보고서 명령 등록
+ * @author user
+ */
+public final class ReportCommands {
+    private ReportCommands() {}
+
+    public static void register(CommandRegistry registry, ReportService reportService) {
+        // 형식: GET_MENU_SALES:yyyy-MM-dd:yyyy-MM-dd
+        registry.command("GET_MENU_SALES").readOnly().limit(3).arity(3)
+                .handle(args -> {
+                    // ReportService에서 통합 매출 데이터 조회
+                    Map<String, Object> result = reportService.getMenuSalesByDateRange(args.get(1), args.get(2));
+                    double averageSales = (double) result.get("averageSales");
+                    @SuppressWarnings("unchecked")
+                    List<Map<String, Object>> salesTable = (List<Map<String, Object>>) result.get("salesTable");
+                    // 응답 문자열: MENU_SALES:평균매출|날짜,매출,최다판매메뉴;날짜,매출,최다판매메뉴;...
+                    StringBuilder sb = new StringBuilder("MENU_SALES:");
+                    sb.append(String.format("%.2f", averageSales)).append("|");
+                    boolean first = true;
+                    for (Map<String, Object> row : salesTable) {
+                        if (!first) sb.append(";");
+                        sb.append(row.get("date")).append(",").append(row.get("totalSales")).append(",").append(row.get("topMenu"));
+                        first = false;
+                    }
+                    return sb.toString();
+                });
+
+        // GET_PAST_OCCUPANCY:yyyy-MM-dd:yyyy-MM-dd
+        registry.command("GET_PAST_OCCUPANCY").readOnly().limit(3).arity(3).onFormatError("PAST_OCCUPANCY:")
+                .handle(args -> reportService.handlePastOccupancyRequest(args.get(1), args.get(2)));
+
+        registry.command("GET_CURRENT_OCCUPANCY").readOnly()
+                .handle(args -> reportService.handleCurrentOccupancyRequest());
+
+        // GET_FUTURE_OCCUPANCY:yyyy-MM-dd:yyyy-MM-dd
+        registry.command("GET_FUTURE_OCCUPANCY").readOnly().limit(3).arity(3).onFormatError("FUTURE_OCCUPANCY:")
+                .handle(args -> reportService.handleFutureOccupancyRequest(args.get(1), args.get(2)));
+    }
+}
@@ -0,0 +1,128 @@
+package server.net.command;
+
+import java.util.Arrays;
+
+/**
+ * 요청 한 줄을 ':' 기준으로 한 번만 훑어서 토큰 위치를 기억해 두는 읽기 전용 뷰
+ * - 정규식(String.split)을 쓰지 않고 indexOf로 구분자 위치만 기록
+ * - 명령마다 필요한 분할 방식(limit)은 args(limit)로 같은 뷰에서 꺼내 씀
+ * - 바이너리 프로토콜로 받은 요청은 이미 필드 단위로 나뉘어 있으므로 ofFields로 만든다
+ *   (필드 안에 ':'가 있어도 그대로 한 필드)
+ * @author user
+ */
+public final class RequestLine {
+    private static final char SEPARATOR = ':';
+
+    private final String text;
+    private final int[] separators; // ':' 위치
+    private final int separatorCount;
+    private final String[] fields;  // 필드 단위로 받은 요청 (텍스트 요청이면 null)
+
+    private RequestLine(String text, int[] separators, int separatorCount, String[] fields) {
+        this.text = text;
+        this.separators = separators;
+        this.separatorCount = separatorCount;
+        this.fields = fields;
+    }
+
+    /** 요청 문자열을 한 번 스캔해서 구분자 위치를 기록 */
+    public static RequestLine of(String text) {
+        int[] positions = new int[8];
+        int count = 0;
+        int idx = text.indexOf(SEPARATOR);
+        while (idx >= 0) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = idx;
+            idx = text.indexOf(SEPARATOR, idx + 1);
+        }
+        return new RequestLine(text, positions, count, null);
+    }
+
+    /** 이미 나뉜 필드로 요청을 만듦 (0번은 명령어) */
+    public static RequestLine ofFields(String... fields) {
+        if (fields.length == 0) fields = new String[] { "" };
+        return new RequestLine(null, null, fields.length - 1, fields);
+    }
+
+    /** 첫 번째 토큰(명령어), 앞뒤 공백 제거 */
+    public String command() {
+        return token(0).trim();
+    }
+
+    /** 원본 요청 문자열 (필드 단위 요청이면 필드를 ':'로 이은 문자열) */
+    public String text() {
+        return fields == null ? text : String.join(String.valueOf(SEPARATOR), fields);
+    }
+
+    int tokenCount() {
+        return separatorCount + 1;
+    }
+
+    int tokenStart(int i) {
+        return i == 0 ? 0 : separators[i - 1] + 1;
+    }
+
+    int tokenEnd(int i) {
+        return i < separatorCount ? separators[i] : text.length();
+    }
+
+    String token(int i) {
+        if (fields != null) return fields[i];
+        return text.substring(tokenStart(i), tokenEnd(i));
+    }
+
+    /** i번째 토큰부터 줄 끝까지 (split limit의 마지막 필드) */
+    String tail(int i) {
+        if (fields != null) {
+            return String.join(String.valueOf(SEPARATOR), Arrays.asList(fields).subList(i, fields.length));
+        }
+        return text.substring(tokenStart(i));
+    }
+
+    private boolean isEmptyToken(int i) {
+        return fields != null ? fields[i].isEmpty() : tokenStart(i) == tokenEnd(i);
+    }
+
+    /**
+     * String.split(":", limit)와 같은 규칙으로 필드를 나눈 뷰를 반환
+     * - limit > 0 : 최대 limit개, 마지막 필드는 나머지 전체
+     * - limit == 0: 전체 분할 후 끝쪽의 빈 필드 제거
+     * - limit < 0 : 전체 분할, 빈 필드 유지
+     */
+    public Args args(int limit) {
+        int total = tokenCount();
+        if (limit > 0) {
+            return new Args(this, Math.min(total, limit), total > limit ? limit - 1 : -1);
+        }
+        if (limit == 0) {
+            while (total > 0 && isEmptyToken(total - 1)) total--;
+        }
+        return new Args(this, total, -1);
+    }
+
+    /**
+     * 문자열을 한 글자 구분자로 나눔 (정규식 없이 String.split(sep)과 같은 결과)
+     * - 구분자가 없으면 원본 하나, 있으면 끝쪽의 빈 필드는 제거
+     */
+    public static String[] splitOn(String s, char sep) {
+        int count = 1;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == sep) count++;
+        }
+        if (count == 1) return new String[] { s };
+        String[] result = new String[count];
+        int start = 0;
+        int n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == sep) {
+                result[n++] = s.substring(start, i);
+                start = i + 1;
+            }
+        }
+        result[n] = s.substring(start);
+        while (count > 0 && result[count - 1].isEmpty()) count--;
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+}
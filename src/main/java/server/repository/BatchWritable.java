@@ -0,0 +1,24 @@
+package server.repository;
+
+/**
+ * 여러 변경을 묶어서 파일 쓰기를 한 번으로 줄일 수 있는 저장소
+ * - beginBatch ~ endBatch 사이에 호출한 스레드의 변경만 메모리에 먼저 반영하고, 그 스레드의 마지막 endBatch에서 파일에 한 번 기록
+ *   (다른 스레드의 변경은 배치와 상관없이 바로 기록되며, 그때 앞서 미뤄 둔 변경도 순서대로 함께 기록됨)
+ * - 배치 중에도 조회는 최신 상태(메모리)를 돌려주므로 다른 요청에서 보이는 결과는 같다
+ * - 같은 스레드에서 중첩 호출 가능 (가장 바깥쪽 endBatch에서 기록)
+ */
+public interface BatchWritable {
+    void beginBatch();
+
+    /**
+     * 호출한 스레드의 배치를 닫음 (가장 바깥쪽이면 미뤄 둔 변경을 기록)
+     * @return 이 배치의 변경이 모두 파일에 기록되었으면 true, 기록에 실패했으면 false
+     */
+    boolean endBatch();
+
+    /**
+     * 배치 중 미뤄 둔 변경을 지금 파일에 기록 (배치 상태는 그대로 유지)
+     * - 서버 종료 시 제한 시간 안에 끝나지 않은 배치가 있어도 메모리의 변경을 잃지 않도록 호출
+     */
+    void flush();
+}
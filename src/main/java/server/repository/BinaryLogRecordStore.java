@@ -0,0 +1,163 @@
+package server.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import server.log.Log;
+
+/**
+ * 레코드를 길이 접두 바이너리 로그(data/*.bin)에 쌓는 백엔드
+ * - 파일 형식: 매직 4바이트("HRL1") 뒤에 [레코드 바이트 수(int, big-endian)][UTF-8 바이트]가 반복
+ * - 덧붙이기는 파일 끝에 레코드만 추가하고, 전체 교체는 새 파일을 임시로 써서 바꿔치기 (이때 로그가 압축됨)
+ * - 줄 구분/헤더 처리가 없어 읽을 때 바이트를 한 번만 훑고, 레코드 안의 문자에 제약이 없음
+ * - 잘라내기/바꿔치기를 하는 파일이므로 메모리 매핑하지 않고 힙 버퍼로 읽음 (매핑된 파일은 Windows에서 잘라낼 수 없음)
+ * - 기록 도중 끊긴 마지막 레코드는 읽을 때 무시하고, 다음 덧붙이기 전에 잘라냄
+ * - 파일이 아직 없고 seed(기존 CSV)가 있으면 처음 사용할 때 그 내용을 옮겨 담음
+ * @author user
+ */
+final class BinaryLogRecordStore implements RecordStore {
+    private static final byte[] MAGIC = {'H', 'R', 'L', '1'};
+
+    private final String name;
+    private final Path path;
+    private final RecordStore seed;
+    /** 온전한 레코드가 끝나는 위치 (-1이면 아직 확인하지 않음) */
+    private long validEnd = -1;
+
+    BinaryLogRecordStore(String name, String path, RecordStore seed) {
+        this.name = name;
+        this.path = Paths.get(path);
+        this.seed = seed;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public synchronized boolean exists() {
+        return Files.exists(path) || (seed != null && seed.exists());
+    }
+
+    @Override
+    public synchronized <T> List<T> read(Function<String, T> mapper) throws IOException {
+        migrate();
+        List<T> result = new ArrayList<>();
+        if (!Files.exists(path)) return result;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAGIC.length) {
+                validEnd = 0;
+                return result;
+            }
+            if (size > Integer.MAX_VALUE) throw new IOException(path + ": 바이너리 로그가 너무 큼 (" + size + " bytes)");
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && channel.read(buf, buf.position()) >= 0) {
+                // 끝까지 읽음
+            }
+            size = buf.flip().limit();
+            byte[] magic = new byte[MAGIC.length];
+            buf.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException(path + ": 바이너리 로그 형식이 아님");
+            byte[] bytes = new byte[256];
+            int pos = MAGIC.length;
+            while (pos + Integer.BYTES <= size) {
+                int len = buf.getInt(pos);
+                if (len < 0 || pos + Integer.BYTES + (long) len > size) break; // 기록 도중 끊긴 레코드
+                if (bytes.length < len) bytes = new byte[Math.max(len, bytes.length * 2)];
+                buf.get(pos + Integer.BYTES, bytes, 0, len);
+                pos += Integer.BYTES + len;
+                String record = new String(bytes, 0, len, StandardCharsets.UTF_8);
+                if (record.isBlank()) continue;
+                T item = mapper.apply(record);
+                if (item != null) result.add(item);
+            }
+            validEnd = pos;
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void append(List<String> records) throws IOException {
+        if (records.isEmpty()) return;
+        migrate();
+        if (!Files.exists(path)) {
+            replaceAll(records);
+            return;
+        }
+        if (validEnd < 0) read(r -> null);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (validEnd < MAGIC.length) {
+                channel.truncate(0);
+                channel.write(ByteBuffer.wrap(MAGIC), 0);
+                validEnd = MAGIC.length;
+            } else if (channel.size() > validEnd) {
+                Log.warn("바이너리 로그 끝의 불완전한 레코드 제거: ", path.toString());
+                channel.truncate(validEnd);
+            }
+            channel.position(validEnd);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            validEnd += write(out, records);
+            out.flush();
+        } catch (IOException ex) {
+            validEnd = -1; // 어디까지 기록됐는지 모르므로 다음 사용 때 다시 확인
+            throw ex;
+        }
+    }
+
+    @Override
+    public synchronized void replaceAll(List<String> records) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path tmp = Paths.get(path + ".tmp");
+        long written;
+        try (OutputStream os = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+            out.write(MAGIC);
+            written = MAGIC.length + write(out, records);
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        validEnd = written;
+    }
+
+    /** 레코드들을 [길이][바이트]로 기록하고 기록한 바이트 수를 반환 */
+    private static long write(DataOutputStream out, List<String> records) throws IOException {
+        long written = 0;
+        for (String record : records) {
+            byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            written += Integer.BYTES + bytes.length;
+        }
+        return written;
+    }
+
+    /** 바이너리 로그가 없고 기존 CSV가 있으면 그 내용으로 새 로그를 만듦 */
+    private void migrate() throws IOException {
+        if (seed == null || Files.exists(path) || !seed.exists()) return;
+        List<String> records = seed.read(Function.identity());
+        replaceAll(records);
+        Log.info("[" + name + "] CSV → 바이너리 로그 변환: " + records.size() + "건");
+    }
+}
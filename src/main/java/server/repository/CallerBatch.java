@@ -0,0 +1,49 @@
+package server.repository;
+
+/**
+ * BATCH를 실행하는 스레드 하나의 배치 상태 (BatchWritable 구현이 스레드별로 하나씩 둠)
+ * - 같은 스레드에서 beginBatch를 중첩하면 가장 바깥쪽 endBatch에서 끝남
+ * - 미뤄 둔 변경을 (다른 요청의 기록과 함께) 파일에 쓰다가 실패하면 failed로 표시되어 endBatch가 실패를 돌려줌
+ * @author user
+ */
+final class CallerBatch {
+    private int depth;
+    private volatile boolean failed;
+
+    /** 스레드별 배치 (저장소마다 하나) */
+    static final class Local {
+        private final ThreadLocal<CallerBatch> current = new ThreadLocal<>();
+
+        /** 호출한 스레드의 배치 시작 (중첩 가능) */
+        void begin() {
+            CallerBatch batch = current.get();
+            if (batch == null) {
+                batch = new CallerBatch();
+                current.set(batch);
+            }
+            batch.depth++;
+        }
+
+        /** 호출한 스레드의 배치를 하나 닫음. 가장 바깥쪽이면 끝난 배치를, 아니면 null을 돌려줌 */
+        CallerBatch end() {
+            CallerBatch batch = current.get();
+            if (batch == null || --batch.depth > 0) return null;
+            current.remove();
+            return batch;
+        }
+
+        /** 호출한 스레드가 배치 중이면 그 배치, 아니면 null */
+        CallerBatch current() {
+            return current.get();
+        }
+    }
+
+    /** 이 배치의 변경을 파일에 쓰지 못함 */
+    void fail() {
+        failed = true;
+    }
+
+    boolean succeeded() {
+        return !failed;
+    }
+}
@@ -0,0 +1,20 @@
+package server.repository;
+
+/**
+ * 변경 로그를 쌓아 두었다가 전체 스냅샷으로 합칠 수 있는 저장소 (CompactionService가 백그라운드에서 호출)
+ * - needsCompaction이 true일 때 compact를 부르면 현재 상태로 스냅샷을 새로 쓰고 로그를 비움
+ * - compact 중에도 요청 처리는 계속되며, 그동안 기록된 변경은 새 로그에 남음
+ */
+public interface Compactable {
+    /** 로그/통계에 쓰는 이름 */
+    String compactionName();
+
+    /** 마지막 압축 이후 로그에 쌓인 항목 수 */
+    int pendingEntries();
+
+    /** 압축할 만큼 로그가 쌓였는지 */
+    boolean needsCompaction();
+
+    /** 스냅샷을 새로 쓰고 로그를 비움. 실제로 압축했으면 true */
+    boolean compact();
+}
@@ -0,0 +1,185 @@
+package server.repository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * data/*.csv 텍스트 파일에 레코드를 한 줄씩 저장하는 기본 백엔드
+ * - 첫 줄은 헤더 (header가 null이면 헤더 없는 파일, 예: reservations.log)
+ * - 읽기는 MappedCsvReader로 처리 (큰 파일은 구간별 병렬, readMatching은 바이트 비교)
+ *   메모리 매핑은 mapped(덧붙이기만 하는 파일)일 때만 하고, 그 밖의 파일은 힙 버퍼로 읽음 (매핑된 파일은 Windows에서 바꿔치기 불가)
+ * - 덧붙이기 전에 마지막 줄이 줄바꿈으로 끝나지 않았으면 줄바꿈을 먼저 넣어 항상 새 줄에 기록
+ * - 전체 교체는 임시 파일에 쓴 뒤 원자적으로 바꿔치기
+ * - 읽기끼리는 동시에, 쓰기는 혼자 (읽기/쓰기 잠금): 결제 조회처럼 파일을 직접 읽는 요청이 서로 기다리지 않음
+ * - watch로 등록하면 DataFileWatcher가 알려 준 파일 변경 중 자신이 마지막으로 기록한 상태와 다른 것만 전달
+ * @author user
+ */
+final class CsvRecordStore implements RecordStore {
+    private final String name;
+    private final Path path;
+    private final String header;
+    private final Charset charset;
+    private final boolean mapped;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** 마지막으로 직접 기록한 뒤의 파일 상태 (감시 이벤트가 자신의 기록 때문인지 구분) */
+    private volatile Stamp written = null;
+
+    /** 파일 크기/수정 시각/파일 식별자 (없는 파일은 null) */
+    private record Stamp(long size, FileTime modified, Object key) {
+    }
+
+    CsvRecordStore(String name, String path, String header, Charset charset, boolean mapped) {
+        this.name = name;
+        this.path = Paths.get(path);
+        this.header = header;
+        this.charset = charset;
+        this.mapped = mapped;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    @Override
+    public <T> List<T> read(Function<String, T> mapper) throws IOException {
+        lock.readLock().lock();
+        try {
+            return MappedCsvReader.readAll(path.toString(), charset, header != null, mapped, mapper);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public <T> List<T> readMatching(int column, String value, Function<String, T> mapper) throws IOException {
+        lock.readLock().lock();
+        try {
+            return MappedCsvReader.readMatching(path.toString(), charset, header != null, mapped, column, value, mapper);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void watch(Runnable onChange) {
+        // 콜백은 잠금 밖에서 호출 (저장소 잠금 → 이 객체 잠금 순서와 엇갈리지 않도록)
+        DataFileWatcher.register(path, () -> {
+            if (changedExternally()) onChange.run();
+        });
+    }
+
+    private boolean changedExternally() {
+        // 기록 중이면 끝난 뒤의 상태와 비교
+        lock.readLock().lock();
+        try {
+            Stamp now = stamp();
+            return now == null || !now.equals(written);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Stamp stamp() {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return new Stamp(attrs.size(), attrs.lastModifiedTime(), attrs.fileKey());
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public void append(List<String> records) throws IOException {
+        if (records.isEmpty()) return;
+        lock.writeLock().lock();
+        try {
+            doAppend(records);
+        } finally {
+            written = stamp();
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void doAppend(List<String> records) throws IOException {
+        createParent();
+        boolean empty = !Files.exists(path) || Files.size(path) == 0;
+        boolean newLine = !empty && !endsWithNewLine();
+        try (BufferedWriter bw = Files.newBufferedWriter(path, charset, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (empty && header != null) {
+                bw.write(header);
+                bw.newLine();
+            } else if (newLine) {
+                bw.newLine(); // 이전 줄이 줄바꿈 없이 끝난 파일 (직접 편집, 기록 중 중단 등)
+            }
+            for (String record : records) {
+                bw.write(record);
+                bw.newLine();
+            }
+        }
+    }
+
+    @Override
+    public void replaceAll(List<String> records) throws IOException {
+        lock.writeLock().lock();
+        try {
+            doReplaceAll(records);
+        } finally {
+            written = stamp();
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void doReplaceAll(List<String> records) throws IOException {
+        createParent();
+        Path tmp = Paths.get(path + ".tmp");
+        try (BufferedWriter bw = Files.newBufferedWriter(tmp, charset)) {
+            if (header != null) {
+                bw.write(header);
+                bw.newLine();
+            }
+            for (String record : records) {
+                bw.write(record);
+                bw.newLine();
+            }
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private boolean endsWithNewLine() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "r")) {
+            if (raf.length() == 0) return true;
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            return last == '\n' || last == '\r';
+        }
+    }
+
+    private void createParent() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+    }
+}
@@ -0,0 +1,108 @@
+package server.repository;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import server.config.ServerConfig;
+import server.log.Log;
+
+/**
+ * 데이터 파일 변경 감시 (WatchService, 백그라운드 스레드 한 개)
+ * - 파일마다 콜백을 등록해 두면, 그 파일이 생성/수정/삭제(이름 바꾸기로 교체 포함)될 때 콜백을 호출
+ * - 운영자가 rooms.csv, menus.csv 등을 직접 고쳤을 때 해당 저장소의 캐시만 비우는 데 사용
+ * - 감시 이벤트가 넘쳐 일부를 잃으면(OVERFLOW) 그 디렉터리의 모든 콜백을 호출
+ * - storage.watch=false이거나 WatchService를 쓸 수 없으면 아무것도 하지 않음
+ * 콜백은 감시 스레드에서 실행되므로 짧게 끝내야 한다 (캐시를 비우는 정도).
+ * @author user
+ */
+final class DataFileWatcher {
+    private static final boolean ENABLED = ServerConfig.getBoolean("storage.watch", true);
+    private static DataFileWatcher instance;
+    private static boolean failed = false;
+
+    private final WatchService service;
+    private final Map<Path, WatchKey> dirs = new ConcurrentHashMap<>();
+    private final Map<Path, List<Runnable>> listeners = new ConcurrentHashMap<>();
+
+    private DataFileWatcher(WatchService service) {
+        this.service = service;
+    }
+
+    /** file이 바뀌면 listener 호출 (감시를 쓸 수 없으면 false) */
+    static boolean register(Path file, Runnable listener) {
+        DataFileWatcher watcher = get();
+        if (watcher == null) return false;
+        Path abs = file.toAbsolutePath().normalize();
+        try {
+            watcher.watchDirectory(abs.getParent());
+        } catch (IOException ex) {
+            Log.warn("데이터 파일 감시 등록 실패: ", abs + " (" + ex.getMessage() + ")");
+            return false;
+        }
+        watcher.listeners.computeIfAbsent(abs, k -> new CopyOnWriteArrayList<>()).add(listener);
+        return true;
+    }
+
+    private static synchronized DataFileWatcher get() {
+        if (instance != null || failed || !ENABLED) return instance;
+        try {
+            instance = new DataFileWatcher(FileSystems.getDefault().newWatchService());
+            Thread.ofPlatform().name("data-watcher").daemon(true).start(instance::loop);
+        } catch (IOException | UnsupportedOperationException ex) {
+            failed = true;
+            Log.warn("데이터 파일 감시를 사용할 수 없음: ", ex.getMessage());
+        }
+        return instance;
+    }
+
+    private synchronized void watchDirectory(Path dir) throws IOException {
+        if (dirs.containsKey(dir)) return;
+        Files.createDirectories(dir);
+        dirs.put(dir, dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE));
+    }
+
+    private void loop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException ex) {
+                return;
+            }
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    for (Map.Entry<Path, List<Runnable>> e : listeners.entrySet()) {
+                        if (dir.equals(e.getKey().getParent())) notify(e.getValue());
+                    }
+                } else {
+                    List<Runnable> found = listeners.get(dir.resolve((Path) event.context()));
+                    if (found != null) notify(found);
+                }
+            }
+            if (!key.reset()) dirs.remove(dir); // 디렉터리가 지워짐
+        }
+    }
+
+    private static void notify(List<Runnable> found) {
+        for (Runnable listener : found) {
+            try {
+                listener.run();
+            } catch (RuntimeException ex) {
+                Log.error("데이터 파일 변경 처리 오류", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package server.repository;
+
+/**
+ * epoch-day를 비트 번호로 쓰는 날짜 비트맵 (하루 1비트, long 한 개에 64일)
+ * - 필요한 날짜 범위만큼만 배열을 늘리며, words[0]의 0번 비트는 base 날짜
+ * - 구간 설정/해제/확인/잘라내기를 64일 단위 워드 연산으로 처리
+ * 구간은 모두 반열린 구간 [from, to) 이다. 동기화하지 않으므로 호출하는 쪽의 잠금 안에서 사용한다.
+ * @author user
+ */
+final class DayBitmap {
+    /** words[0]의 0번 비트가 나타내는 epoch-day (64의 배수) */
+    private long base;
+    private long[] words = new long[0];
+
+    /** 같은 내용의 새 비트맵 (공개한 뒤 바꾸지 않는 조회용 복사본) */
+    DayBitmap copy() {
+        DayBitmap c = new DayBitmap();
+        c.base = base;
+        c.words = words.clone();
+        return c;
+    }
+
+    void set(long from, long to) {
+        if (from >= to) return;
+        ensure(from, to);
+        apply(from, to, true);
+    }
+
+    void clear(long from, long to) {
+        from = Math.max(from, base);
+        to = Math.min(to, end());
+        if (from >= to) return;
+        apply(from, to, false);
+    }
+
+    boolean get(long day) {
+        long i = day - base;
+        if (i < 0 || i >= (long) words.length << 6) return false;
+        return (words[(int) (i >>> 6)] & (1L << (i & 63))) != 0;
+    }
+
+    /** [from, to)에 설정된 날이 하루라도 있는지 (64일마다 워드 한 번 비교) */
+    boolean any(long from, long to) {
+        for (long d = from; d < to; d += 64) {
+            if ((bitsAt(d) & mask(to - d)) != 0) return true;
+        }
+        return false;
+    }
+
+    /** [from, to) 구간을 0번 비트부터 다시 담은 배열 (i번 비트 = from + i 일) */
+    long[] slice(long from, long to) {
+        if (from >= to) return new long[0];
+        long[] out = new long[(int) ((to - from + 63) >>> 6)];
+        for (int k = 0; k < out.length; k++) {
+            long d = from + ((long) k << 6);
+            out[k] = bitsAt(d) & mask(to - d);
+        }
+        return out;
+    }
+
+    private long end() {
+        return base + ((long) words.length << 6);
+    }
+
+    /** day부터 64일 분량의 비트 (범위 밖은 0) */
+    private long bitsAt(long day) {
+        long i = day - base;
+        long idx = Math.floorDiv(i, 64);
+        int off = Math.floorMod(i, 64);
+        long lo = word(idx) >>> off;
+        long hi = off == 0 ? 0 : word(idx + 1) << (64 - off);
+        return lo | hi;
+    }
+
+    private long word(long idx) {
+        return idx < 0 || idx >= words.length ? 0 : words[(int) idx];
+    }
+
+    /** 아래쪽 n비트 마스크 (n이 64 이상이면 전체) */
+    private static long mask(long n) {
+        return n >= 64 ? -1L : (1L << n) - 1;
+    }
+
+    private void apply(long from, long to, boolean value) {
+        for (long d = from; d < to; ) {
+            long i = d - base;
+            int idx = (int) (i >>> 6);
+            int off = (int) (i & 63);
+            int n = (int) Math.min(64 - off, to - d);
+            long m = mask(n) << off;
+            if (value) words[idx] |= m;
+            else words[idx] &= ~m;
+            d += n;
+        }
+    }
+
+    /** [from, to)를 담을 수 있도록 배열을 앞뒤로 늘림 */
+    private void ensure(long from, long to) {
+        long newBase = Math.floorDiv(from, 64) * 64;
+        long newEnd = Math.floorDiv(to + 63, 64) * 64;
+        if (words.length == 0) {
+            base = newBase;
+            words = new long[(int) ((newEnd - newBase) >>> 6)];
+            return;
+        }
+        newBase = Math.min(newBase, base);
+        newEnd = Math.max(newEnd, end());
+        if (newBase == base && newEnd == end()) return;
+        long[] grown = new long[(int) ((newEnd - newBase) >>> 6)];
+        System.arraycopy(words, 0, grown, (int) ((base - newBase) >>> 6), words.length);
+        base = newBase;
+        words = grown;
+    }
+}
@@ -0,0 +1,153 @@
+package server.repository;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 반열린 구간 [lo, hi) 집합을 담는 구간 트리 (트립 기반 균형 이진 탐색 트리)
+ * - 노드는 (lo, id) 순으로 정렬되고, 각 노드는 서브트리 안의 가장 큰 hi(maxHi)를 함께 유지
+ * - 삽입/삭제/겹침 확인 모두 평균 O(log n), 겹치는 구간 나열은 O(log n + 결과 수)
+ * - 겹침 조건은 lo < qHi && hi > qLo (예약 기간 문자열 비교와 같은 의미)
+ * 동기화하지 않으므로 호출하는 쪽의 잠금 안에서 사용한다.
+ * @author user
+ */
+final class IntervalTree {
+
+    private static final class Node {
+        final long lo;
+        final long hi;
+        final String id;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        long maxHi;
+        Node left;
+        Node right;
+
+        Node(long lo, long hi, String id) {
+            this.lo = lo;
+            this.hi = hi;
+            this.id = id;
+            this.maxHi = hi;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void insert(long lo, long hi, String id) {
+        root = insert(root, new Node(lo, hi, id));
+        size++;
+    }
+
+    /** 같은 (lo, hi, id) 구간을 제거. 있었으면 true */
+    boolean remove(long lo, long hi, String id) {
+        int before = size;
+        root = remove(root, lo, id);
+        return size < before;
+    }
+
+    /** [lo, hi)와 겹치는 구간이 하나라도 있는지 */
+    boolean overlaps(long lo, long hi) {
+        Node n = root;
+        while (n != null) {
+            if (n.lo < hi && n.hi > lo) return true;
+            // 왼쪽에 lo 이후에 끝나는 구간이 있는데 겹치지 않았다면 그 구간은 hi 이후에 시작하므로
+            // 시작점이 더 큰 오른쪽도 겹칠 수 없다 → 한쪽만 내려가면 됨
+            if (n.left != null && n.left.maxHi > lo) n = n.left;
+            else n = n.right;
+        }
+        return false;
+    }
+
+    /** 구간을 하나씩 받는 방문자 */
+    interface Visitor {
+        void visit(long lo, long hi, String id);
+    }
+
+    /** [lo, hi)와 겹치는 모든 구간을 시작점 순서로 방문 (O(log n + 겹치는 수)) */
+    void forEachOverlap(long lo, long hi, Visitor visitor) {
+        forEachOverlap(root, lo, hi, visitor);
+    }
+
+    private static void forEachOverlap(Node n, long lo, long hi, Visitor visitor) {
+        if (n == null || n.maxHi <= lo) return;
+        forEachOverlap(n.left, lo, hi, visitor);
+        if (n.lo >= hi) return; // 오른쪽은 시작점이 더 크므로 겹칠 수 없음
+        if (n.hi > lo) visitor.visit(n.lo, n.hi, n.id);
+        forEachOverlap(n.right, lo, hi, visitor);
+    }
+
+    private static int compare(long lo, String id, Node n) {
+        int c = Long.compare(lo, n.lo);
+        return c != 0 ? c : id.compareTo(n.id);
+    }
+
+    private static Node insert(Node n, Node x) {
+        if (n == null) return x;
+        if (compare(x.lo, x.id, n) < 0) {
+            n.left = insert(n.left, x);
+            if (n.left.priority > n.priority) n = rotateRight(n);
+        } else {
+            n.right = insert(n.right, x);
+            if (n.right.priority > n.priority) n = rotateLeft(n);
+        }
+        update(n);
+        return n;
+    }
+
+    private Node remove(Node n, long lo, String id) {
+        if (n == null) return null;
+        int c = compare(lo, id, n);
+        if (c < 0) {
+            n.left = remove(n.left, lo, id);
+        } else if (c > 0) {
+            n.right = remove(n.right, lo, id);
+        } else {
+            size--;
+            return merge(n.left, n.right);
+        }
+        update(n);
+        return n;
+    }
+
+    /** 왼쪽 트리의 모든 키가 오른쪽보다 작은 두 트리를 합침 */
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private static void update(Node n) {
+        long max = n.hi;
+        if (n.left != null && n.left.maxHi > max) max = n.left.maxHi;
+        if (n.right != null && n.right.maxHi > max) max = n.right.maxHi;
+        n.maxHi = max;
+    }
+}
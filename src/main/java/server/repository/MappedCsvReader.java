@@ -0,0 +1,183 @@
+package server.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 큰 CSV 데이터 파일을 메모리 매핑(FileChannel.map)으로 읽는 공용 로더
+ * - 파일을 줄 경계에 맞춘 구간(chunk)으로 나누고, 일정 크기 이상이면 구간들을 병렬로 훑음
+ * - 매핑은 덧붙이기만 하는 파일(menu_orders, payments)에만 사용. 다시 쓰는 파일은 mapped=false로 구간을 힙 버퍼에 읽음
+ *   (매핑은 GC 전까지 남아 있어 Windows에서는 매핑된 파일을 바꿔치기/잘라내기할 수 없음)
+ * - 줄 구분은 바이트 단위('\n', 끝의 '\r' 제거)로 하고 필요한 줄만 문자열로 디코딩
+ * - readMatching은 지정한 열의 값을 바이트로 먼저 비교해 맞지 않는 줄은 디코딩하지 않음
+ * - 결과는 파일에 적힌 순서를 그대로 유지
+ * ',' 와 줄바꿈이 1바이트 ASCII로 표현되는 문자셋(UTF-8, MS949 등)을 전제로 한다.
+ * @author user
+ */
+public final class MappedCsvReader {
+    /** 이 크기 미만의 파일은 나누지 않고 한 스레드에서 읽음 */
+    private static final long PARALLEL_MIN_BYTES = 4L * 1024 * 1024;
+    /** 매핑 한 번에 담을 수 있는 최대 구간 크기 (MappedByteBuffer는 int 범위까지만 지원) */
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private MappedCsvReader() {
+    }
+
+    /**
+     * 파일의 모든 줄을 mapper로 변환해 반환 (첫 줄은 헤더로 보고 건너뜀, 빈 줄은 무시)
+     * - mapper가 null을 돌려주면 그 줄은 결과에서 제외
+     * - 파일이 없으면 빈 리스트
+     */
+    public static <T> List<T> readAll(String path, Charset charset, Function<String, T> mapper) throws IOException {
+        return read(path, charset, true, true, -1, null, mapper);
+    }
+
+    /** readAll과 같지만 헤더 줄 유무(skipHeader가 false면 첫 줄도 데이터)와 매핑 여부를 지정 */
+    public static <T> List<T> readAll(String path, Charset charset, boolean skipHeader, boolean mapped,
+                                      Function<String, T> mapper) throws IOException {
+        return read(path, charset, skipHeader, mapped, -1, null, mapper);
+    }
+
+    /**
+     * column번째 열(0부터)의 값이 value와 정확히 같은 줄만 mapper로 변환해 반환
+     * - 열 비교는 디코딩 전의 바이트로 하므로 맞지 않는 줄은 문자열을 만들지 않음
+     */
+    public static <T> List<T> readMatching(String path, Charset charset, int column, String value,
+                                           Function<String, T> mapper) throws IOException {
+        return read(path, charset, true, true, column, value.getBytes(charset), mapper);
+    }
+
+    /** readMatching과 같지만 헤더 줄 유무와 매핑 여부를 지정 */
+    public static <T> List<T> readMatching(String path, Charset charset, boolean skipHeader, boolean mapped, int column,
+                                           String value, Function<String, T> mapper) throws IOException {
+        return read(path, charset, skipHeader, mapped, column, value.getBytes(charset), mapper);
+    }
+
+    private static <T> List<T> read(String path, Charset charset, boolean skipHeader, boolean mapped, int column, byte[] key,
+                                    Function<String, T> mapper) throws IOException {
+        Path file = Paths.get(path);
+        if (!Files.exists(file)) return new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) return new ArrayList<>();
+            long[] bounds = split(channel, size);
+            int chunks = bounds.length - 1;
+            if (chunks == 1) {
+                return scan(channel, bounds[0], bounds[1], mapped, skipHeader, charset, column, key, mapper);
+            }
+            List<List<T>> parts = IntStream.range(0, chunks).parallel()
+                    .mapToObj(i -> {
+                        try {
+                            return scan(channel, bounds[i], bounds[i + 1], mapped, skipHeader && i == 0, charset, column, key, mapper);
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    })
+                    .collect(Collectors.toList());
+            List<T> result = new ArrayList<>();
+            for (List<T> part : parts) result.addAll(part);
+            return result;
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /** 파일을 줄 경계에 맞춘 구간으로 나눔. 반환 배열의 i번째 구간은 [bounds[i], bounds[i+1]) */
+    private static long[] split(FileChannel channel, long size) throws IOException {
+        int chunks = 1;
+        if (size >= PARALLEL_MIN_BYTES) {
+            chunks = Math.max(Runtime.getRuntime().availableProcessors(), (int) ((size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES));
+        }
+        long[] bounds = new long[chunks + 1];
+        bounds[chunks] = size;
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        for (int i = 1; i < chunks; i++) {
+            long pos = Math.max(bounds[i - 1], size * i / chunks);
+            bounds[i] = nextLineStart(channel, pos, size, probe);
+        }
+        return bounds;
+    }
+
+    /** pos 이후 처음 나오는 줄의 시작 위치 (pos가 줄 중간이면 그 줄의 끝 다음) */
+    private static long nextLineStart(FileChannel channel, long pos, long size, ByteBuffer probe) throws IOException {
+        while (pos < size) {
+            probe.clear();
+            int n = channel.read(probe, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    private static <T> List<T> scan(FileChannel channel, long start, long end, boolean mapped, boolean skipHeader,
+                                    Charset charset, int column, byte[] key, Function<String, T> mapper) throws IOException {
+        List<T> result = new ArrayList<>();
+        if (end <= start) return result;
+        ByteBuffer buf = mapped ? channel.map(FileChannel.MapMode.READ_ONLY, start, end - start) : load(channel, start, end);
+        int limit = buf.limit();
+        byte[] line = new byte[256];
+        int pos = 0;
+        boolean header = skipHeader;
+        while (pos < limit) {
+            int eol = pos;
+            while (eol < limit && buf.get(eol) != '\n') eol++;
+            int next = eol + 1;
+            if (eol > pos && buf.get(eol - 1) == '\r') eol--;
+            int len = eol - pos;
+            if (header) {
+                header = false;
+            } else if (len > 0 && (key == null || columnEquals(buf, pos, eol, column, key))) {
+                if (line.length < len) line = new byte[Math.max(len, line.length * 2)];
+                buf.get(pos, line, 0, len);
+                String text = new String(line, 0, len, charset);
+                if (!text.isBlank()) {
+                    T item = mapper.apply(text);
+                    if (item != null) result.add(item);
+                }
+            }
+            pos = next;
+        }
+        return result;
+    }
+
+    /** [start, end) 구간을 힙 버퍼로 읽음 (매핑하지 않는 파일) */
+    private static ByteBuffer load(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) (end - start));
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, start + buf.position()) < 0) break; // 읽는 중에 잘린 파일
+        }
+        return buf.flip();
+    }
+
+    /** [from, to) 줄의 column번째 열이 key와 바이트 단위로 같은지 */
+    private static boolean columnEquals(ByteBuffer buf, int from, int to, int column, byte[] key) {
+        int pos = from;
+        for (int c = 0; c < column; c++) {
+            while (pos < to && buf.get(pos) != ',') pos++;
+            if (pos >= to) return false;
+            pos++;
+        }
+        int end = pos;
+        while (end < to && buf.get(end) != ',') end++;
+        if (end - pos != key.length) return false;
+        for (int i = 0; i < key.length; i++) {
+            if (buf.get(pos + i) != key[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+package server.repository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 레코드를 메모리에만 두는 백엔드 (벤치마크/시험용, 서버를 내리면 변경은 사라짐)
+ * - seed가 있으면 처음 사용할 때 그 내용을 한 번 읽어 초기 데이터로 씀 (seed에는 쓰지 않음)
+ * - 파일 입출력이 없으므로 저장소 로직만의 처리 시간을 잴 수 있음
+ * @author user
+ */
+final class MemoryRecordStore implements RecordStore {
+    private final String name;
+    private final RecordStore seed;
+    private List<String> records = null;
+
+    MemoryRecordStore(String name, RecordStore seed) {
+        this.name = name;
+        this.seed = seed;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public synchronized boolean exists() {
+        return records != null || (seed != null && seed.exists());
+    }
+
+    @Override
+    public synchronized <T> List<T> read(Function<String, T> mapper) throws IOException {
+        List<T> result = new ArrayList<>();
+        for (String record : records()) {
+            if (record.isBlank()) continue;
+            T item = mapper.apply(record);
+            if (item != null) result.add(item);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void append(List<String> added) throws IOException {
+        records().addAll(added);
+    }
+
+    @Override
+    public synchronized void replaceAll(List<String> replaced) {
+        records = new ArrayList<>(replaced);
+    }
+
+    private List<String> records() throws IOException {
+        if (records == null) {
+            records = seed == null ? new ArrayList<>() : seed.read(Function.identity());
+        }
+        return records;
+    }
+}
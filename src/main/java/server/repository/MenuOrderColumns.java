@@ -0,0 +1,130 @@
+package server.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import server.model.MenuOrder;
+
+/**
+ * 메뉴 주문 내역의 열(column) 단위 스냅샷 (매출 보고서용)
+ * - 주문 i의 주문 시각(epoch-minute, UTC 기준 LocalDateTime)과 총액을 int 배열에 나란히 저장
+ * - 음식 이름은 사전(dictionary) 번호로 바꿔 foodIds에 이어 붙이고, 주문 i의 음식은 [foodStart[i], foodStart[i+1])
+ * - 문자열/LocalDateTime 객체 없이 배열만 훑어 날짜별 매출과 메뉴별 판매량을 집계할 수 있음
+ * 스냅샷은 만든 뒤 바뀌지 않으므로 잠금 없이 읽어도 된다.
+ * 새 주문은 Builder가 배열 뒤쪽(이미 공개한 스냅샷이 보지 않는 칸)에만 쓰고, 배열이 꽉 차면 새 배열로 옮긴다.
+ * @author user
+ */
+public final class MenuOrderColumns {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int size;
+    private final int[] minutes;
+    private final int[] prices;
+    private final int[] foodStart;
+    private final int[] foodIds;
+    private final String[] dictionary;
+    private final int dictionarySize;
+
+    private MenuOrderColumns(int size, int[] minutes, int[] prices, int[] foodStart, int[] foodIds,
+                             String[] dictionary, int dictionarySize) {
+        this.size = size;
+        this.minutes = minutes;
+        this.prices = prices;
+        this.foodStart = foodStart;
+        this.foodIds = foodIds;
+        this.dictionary = dictionary;
+        this.dictionarySize = dictionarySize;
+    }
+
+    /** 주문 수 */
+    public int size() {
+        return size;
+    }
+
+    /** 주문 i의 주문 날짜 (epoch-day) */
+    public long epochDay(int i) {
+        return Math.floorDiv(minutes[i], MINUTES_PER_DAY);
+    }
+
+    /** 주문 i의 총액 */
+    public int price(int i) {
+        return prices[i];
+    }
+
+    /** 주문 i의 음식 번호가 foodId(k)에서 차지하는 구간 [foodStart(i), foodStart(i + 1)) */
+    public int foodStart(int i) {
+        return foodStart[i];
+    }
+
+    public int foodId(int k) {
+        return foodIds[k];
+    }
+
+    /** 사전에 등록된 음식 이름 수 (음식 번호는 0 ~ foodCount()-1) */
+    public int foodCount() {
+        return dictionarySize;
+    }
+
+    public String foodName(int id) {
+        return dictionary[id];
+    }
+
+    /**
+     * 주문을 하나씩 덧붙여 열 배열을 채우는 빌더 (MenuOrderRepository의 잠금 안에서만 사용)
+     */
+    static final class Builder {
+        private int size = 0;
+        private int[] minutes = new int[64];
+        private int[] prices = new int[64];
+        private int[] foodStart = new int[65];
+        private int[] foodIds = new int[128];
+        private String[] dictionary = new String[16];
+        private int dictionarySize = 0;
+        private final Map<String, Integer> ids = new HashMap<>();
+        /** 마지막으로 만든 스냅샷 (그 뒤로 추가가 없으면 그대로 재사용) */
+        private MenuOrderColumns snapshot = null;
+
+        void add(MenuOrder order) {
+            if (size == minutes.length) {
+                minutes = Arrays.copyOf(minutes, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+                foodStart = Arrays.copyOf(foodStart, size * 2 + 1);
+            }
+            List<String> foods = order.getFoodNames();
+            int start = foodStart[size];
+            if (start + foods.size() > foodIds.length) {
+                foodIds = Arrays.copyOf(foodIds, Math.max(foodIds.length * 2, start + foods.size()));
+            }
+            for (int k = 0; k < foods.size(); k++) foodIds[start + k] = idOf(foods.get(k));
+            minutes[size] = epochMinute(order.getOrderTime());
+            prices[size] = order.getTotalPrice();
+            foodStart[size + 1] = start + foods.size();
+            size++;
+            snapshot = null;
+        }
+
+        MenuOrderColumns snapshot() {
+            if (snapshot == null) {
+                snapshot = new MenuOrderColumns(size, minutes, prices, foodStart, foodIds, dictionary, dictionarySize);
+            }
+            return snapshot;
+        }
+
+        private int idOf(String food) {
+            Integer id = ids.get(food);
+            if (id != null) return id;
+            if (dictionarySize == dictionary.length) dictionary = Arrays.copyOf(dictionary, dictionarySize * 2);
+            dictionary[dictionarySize] = food;
+            ids.put(food, dictionarySize);
+            return dictionarySize++;
+        }
+
+        private static int epochMinute(LocalDateTime time) {
+            return Math.toIntExact(Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package server.repository;
 
+import server.log.Log;
 import server.model.MenuOrder;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
@@ -10,59 +11,122 @@ import java.util.*;
 /**
  * 메뉴 주문 내역(menu_orders.csv) 파일을 관리하는 저장소 클래스
  * - 주문 내역 전체 조회 및 단일 주문 저장 기능 제공
+ * - 처음 조회할 때 파일을 한 번 읽어 메모리에 두고, 투숙객 이름별 인덱스로 손님별 조회를 처리
+ * - 매출 보고서용 열 단위 스냅샷(MenuOrderColumns)도 주문이 추가될 때마다 함께 갱신
+ * - 파일 입출력은 RecordStore로 처리 (storage.menu_orders.backend로 저장 방식 선택)
  * - 동기화(synchronized)로 멀티스레드 환경에서 파일 접근 충돌 방지
  */
 public class MenuOrderRepository {
     /**
-     * 주문 내역이 저장되는 CSV 파일 경로
+     * 주문 내역 CSV 헤더
      */
-    private static final String ORDER_FILE_PATH = "data/menu_orders.csv";
+    private static final String HEADER = "SaleId,GuestName,OrderTime,TotalPrice,Payment,FoodName";
 
     /**
      * 주문 시간 포맷 (예: 2025-11-27 14:30:00)
      */
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * 메모리에 올려 둔 주문 내역 (파일 순서) 과 투숙객 이름 → 주문 목록 인덱스
+     * - 처음 조회할 때 읽으며, save에서 파일 기록에 성공한 주문을 함께 추가
+     */
+    private List<MenuOrder> orders = null;
+    private Map<String, List<MenuOrder>> byGuest = null;
+    private MenuOrderColumns.Builder columns = null;
+    // 마지막으로 공개한 열 스냅샷 (주문이 추가될 때마다 교체, 보고서는 잠금 없이 읽음). null이면 아직 읽지 않음
+    private volatile MenuOrderColumns published = null;
+
+    /**
+     * 주문 내역 저장 백엔드 (기본 data/menu_orders.csv)
+     */
+    private final RecordStore records;
+
+    public MenuOrderRepository() {
+        this.records = StorageFactory.openAppendOnly("menu_orders", "menu_orders.csv", HEADER, StandardCharsets.UTF_8);
+    }
+
     /**
      * 모든 주문 내역을 menu_orders.csv에서 읽어와 리스트로 반환
      * - 파일이 없으면 빈 리스트 반환
      * - 각 주문은 MenuOrder 객체로 변환
-     * - 파일 접근 및 파싱 중 예외 발생 시 스택 트레이스 출력
+     * - 파일은 처음 한 번만 읽음 (csv 백엔드는 MappedCsvReader로 메모리 매핑, 큰 파일은 구간별 병렬 처리)
+     * - 파일 접근 중 예외 발생 시 에러 로그
      * - 동기화로 멀티스레드 환경에서 안전하게 동작
-     * @return 주문 내역 리스트
+     * @return 주문 내역 리스트 (새 리스트)
      */
     public synchronized List<MenuOrder> findAll() {
-        List<MenuOrder> orders = new ArrayList<>();
-        File file = new File(ORDER_FILE_PATH);
-        // 주문 내역 파일이 없으면 빈 리스트 반환
-        if (!file.exists()) return orders;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
-            String line = reader.readLine(); // 첫 줄(헤더) 스킵
-            while ((line = reader.readLine()) != null) {
-                // 빈 줄은 무시
-                if (line.trim().isEmpty()) continue;
-                // CSV를 6개 항목으로 분리 (SaleId, GuestName, OrderTime, TotalPrice, Payment, FoodName)
-                String[] parts = line.split(",", 6);
-                if (parts.length == 6) {
-                    // 각 필드를 파싱하여 MenuOrder 객체 생성
-                    String saleId = parts[0].trim();
-                    String guestName = parts[1].trim();
-                    LocalDateTime orderTime = LocalDateTime.parse(parts[2].trim(), FORMATTER);
-                    int totalPrice = Integer.parseInt(parts[3].trim());
-                    String payment = parts[4].trim();
-                    // 여러 음식 이름은 '|'로 구분되어 저장됨
-                    List<String> foodNames = Arrays.asList(parts[5].split("\\|"));
-                    orders.add(new MenuOrder(saleId, guestName, orderTime, totalPrice, payment, foodNames));
-                }
-                // 필드 개수가 맞지 않으면 해당 줄은 무시 (데이터 손상 방지)
+        return new ArrayList<>(store());
+    }
+
+    /**
+     * 투숙객 이름이 정확히 같은 주문 내역을 주문 순서대로 반환 (인덱스 조회)
+     * @param guestName 투숙객 이름
+     * @return 주문 내역 리스트 (새 리스트)
+     */
+    public synchronized List<MenuOrder> findByGuest(String guestName) {
+        store();
+        if (byGuest == null) return List.of(); // 파일 읽기 실패 (다음 조회 때 다시 읽음)
+        return new ArrayList<>(byGuest.getOrDefault(guestName, List.of()));
+    }
+
+    /**
+     * 매출 집계용 열 단위 스냅샷 (주문 시각/총액/음식 번호 배열)
+     * - 반환한 스냅샷은 이후 주문이 추가돼도 바뀌지 않으므로 잠금 없이 읽어도 됨
+     * - 주문을 저장할 때마다 공개해 둔 스냅샷을 돌려주므로 저장 중인 요청을 기다리지 않음 (처음 한 번만 잠금 안에서 읽음)
+     * @return 현재까지의 주문 스냅샷
+     */
+    public MenuOrderColumns findColumns() {
+        MenuOrderColumns snapshot = published;
+        if (snapshot != null) return snapshot;
+        synchronized (this) {
+            store();
+            return columns == null ? new MenuOrderColumns.Builder().snapshot() : columns.snapshot();
+        }
+    }
+
+    private List<MenuOrder> store() {
+        if (orders == null) {
+            List<MenuOrder> loaded;
+            try {
+                loaded = records.read(MenuOrderRepository::parse);
+            } catch (IOException e) {
+                // 파일 읽기 중 예외 발생 시 에러 로그 (다음 조회 때 다시 읽음)
+                Log.error("메뉴 주문 파일 읽기 오류", e);
+                return new ArrayList<>();
             }
-        } catch (IOException e) {
-            // 파일 읽기 중 예외 발생 시 콘솔에 에러 출력
-            e.printStackTrace();
+            byGuest = new HashMap<>();
+            columns = new MenuOrderColumns.Builder();
+            for (MenuOrder order : loaded) index(order);
+            orders = loaded;
+            published = columns.snapshot();
         }
         return orders;
     }
 
+    private void index(MenuOrder order) {
+        byGuest.computeIfAbsent(order.getGuestName(), k -> new ArrayList<>()).add(order);
+        columns.add(order);
+    }
+
+    /**
+     * CSV 한 줄을 MenuOrder로 변환 (필드 개수가 맞지 않으면 null → 해당 줄은 무시)
+     */
+    private static MenuOrder parse(String line) {
+        // CSV를 6개 항목으로 분리 (SaleId, GuestName, OrderTime, TotalPrice, Payment, FoodName)
+        String[] parts = line.split(",", 6);
+        if (parts.length != 6) return null;
+        // 각 필드를 파싱하여 MenuOrder 객체 생성
+        String saleId = parts[0].trim();
+        String guestName = parts[1].trim();
+        LocalDateTime orderTime = LocalDateTime.parse(parts[2].trim(), FORMATTER);
+        int totalPrice = Integer.parseInt(parts[3].trim());
+        String payment = parts[4].trim();
+        // 여러 음식 이름은 '|'로 구분되어 저장됨
+        List<String> foodNames = Arrays.asList(parts[5].split("\\|"));
+        return new MenuOrder(saleId, guestName, orderTime, totalPrice, payment, foodNames);
+    }
+
     /**
      * 단일 주문 내역을 menu_orders.csv에 저장
      * - 파일이 없거나 비어있으면 헤더를 먼저 작성
@@ -72,23 +136,23 @@ public class MenuOrderRepository {
      * @param order 저장할 주문 객체
      */
     public synchronized void save(MenuOrder order) {
-        // 파일이 없거나 비어있으면 헤더 필요
-        boolean needHeader = !(new File(ORDER_FILE_PATH)).exists() || (new File(ORDER_FILE_PATH)).length() == 0;
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(ORDER_FILE_PATH, true), StandardCharsets.UTF_8))) {
-            if (needHeader) {
-                // 첫 저장 시 헤더 작성
-                writer.write("SaleId,GuestName,OrderTime,TotalPrice,Payment,FoodName");
-                writer.newLine();
-            }
+        try {
             // 음식 이름 리스트를 '|'로 연결하여 문자열로 변환
             String foodNamesStr = String.join("|", order.getFoodNames());
             // 주문 정보를 CSV 포맷으로 변환
             String line = String.format("%s,%s,%s,%d,%s,%s", order.getSaleId(), order.getGuestName(), order.getOrderTime().format(FORMATTER), order.getTotalPrice(), order.getPayment(), foodNamesStr);
-            writer.write(line);
-            writer.newLine();
+            // 파일이 없거나 비어있으면 헤더를 먼저 작성 (CsvRecordStore)
+            records.append(List.of(line));
+            if (orders != null) {
+                // 파일에 적힌 내용 그대로 메모리에도 반영 (다시 읽었을 때와 같은 값)
+                MenuOrder stored = parse(line);
+                orders.add(stored);
+                index(stored);
+                published = columns.snapshot();
+            }
         } catch (IOException e) {
-            // 파일 쓰기 중 예외 발생 시 콘솔에 에러 출력
-            e.printStackTrace();
+            // 파일 쓰기 중 예외 발생 시 에러 로그
+            Log.error("메뉴 주문 파일 쓰기 오류", e);
         }
     }
 }
@@ -1,130 +1,217 @@
 package server.repository;
 
+import server.log.Log;
 import server.model.Menu;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-public class MenuRepository {
+/**
+ * 메뉴 저장소 (menus.csv)
+ * - 목록은 처음 읽을 때 메모리에 두고, saveAll은 파일 기록 후 메모리에도 반영
+ * - 운영자가 menus.csv를 직접 고치면 파일 감시(DataFileWatcher)가 알려 주어 캐시를 비우고 다음 조회 때 다시 읽음
+ * - 캐시의 Menu는 호출자가 바꿀 수 있으므로 조회 결과는 항상 복사본
+ */
+public class MenuRepository implements BatchWritable {
     
-    private static final String MENU_FILE_PATH = "data/menus.csv";
+    private static final String HEADER = "menuId,name,price,category,IsAvailable,Stock";
+
+    // menus.csv (storage.menus.backend로 저장 방식 선택)
+    private final RecordStore store;
+    // 파일에서 읽은 메뉴 목록 (null이면 다음 조회 때 다시 읽음)
+    private List<Menu> cache = null;
+    // 파일이 밖에서 바뀌었을 때 캐시를 비운 뒤 알릴 대상 (메뉴 재고 카운터 등)
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    // BATCH를 실행하는 스레드의 변경은 파일을 다시 쓰지 않고 최신 목록을 pending에 모아 둠 (그 배치의 endBatch에서 한 번 기록)
+    // 배치가 아닌 기록은 pending에서 이어진 목록을 쓰므로 미뤄 둔 변경도 함께 기록됨. pendingOwners: pending에 변경을 남긴 배치
+    private final CallerBatch.Local batches = new CallerBatch.Local();
+    private List<Menu> pending = null;
+    private final Set<CallerBatch> pendingOwners = new HashSet<>();
     
     public MenuRepository() {
-        File file = new File(MENU_FILE_PATH);
-        if(!file.exists()) {
+        this.store = StorageFactory.open("menus", "menus.csv", HEADER, StandardCharsets.UTF_8);
+        if (!store.exists()) {
+            saveAll(new ArrayList<>()); // 헤더만 있는 빈 파일 생성
+        }
+        store.watch(this::externalChange);
+    }
+
+    /** menus.csv가 밖에서 바뀌면 listener 호출 (이 저장소의 잠금 밖에서 호출) */
+    public void onExternalChange(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    private void externalChange() {
+        invalidate();
+        for (Runnable listener : changeListeners) listener.run();
+    }
+
+    /** 파일이 밖에서 바뀌었을 때 (다음 조회 때 다시 읽음) */
+    private synchronized void invalidate() {
+        cache = null;
+        Log.info("[MenuRepository] menus.csv 변경 감지: 메뉴 캐시 비움");
+    }
+    
+    @Override
+    public void beginBatch() {
+        batches.begin();
+    }
+
+    @Override
+    public synchronized boolean endBatch() {
+        CallerBatch batch = batches.end();
+        if (batch == null) return true;
+        if (pendingOwners.contains(batch)) write(pending);
+        return batch.succeeded();
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (pending != null) write(pending);
+    }
+
+    public synchronized List<Menu> findAll() {
+        if (pending != null) return copies(pending); // 아직 파일에 쓰지 않은 배치 상태
+        if (cache == null) {
             try {
-                file.getParentFile().mkdirs();
-                if (file.createNewFile()) {
-                    saveAll(new ArrayList<>());
-                }
+                cache = store.read(MenuRepository::parse);
             } catch (IOException e) {
-                System.err.println("파일 생성 중 오류: " + e.getMessage());
+                Log.error("파일 읽기 오류: " + e.getMessage());
+                return new ArrayList<>();
             }
         }
+        return copies(cache);
     }
-    
-    public List<Menu> findAll() {
-        List<Menu> menus = new ArrayList<>();
-        File file = new File(MENU_FILE_PATH);
-        
-        if (!file.exists()) return menus;
-
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"))) {
-            String line;
-            reader.readLine(); // 헤더 스킵
-            
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                
-                String[] parts = line.split(",");
-                if (parts.length >= 6) {
-                    try {
-                        String menuId = parts[0].trim();
-                        String name = parts[1].trim();
-                        int price = Integer.parseInt(parts[2].trim());
-                        String category = parts[3].trim();
-                        String availabilityStr = parts[4].trim();
-                        int stock = Integer.parseInt(parts[5].trim());
-                        
-                        // [수정] String -> boolean 변환
-                        // (CSV에 "true"로 저장되어 있으면 true, 아니면 false 반환)
-                        boolean isAvailable = Boolean.parseBoolean(availabilityStr);
-                        
-                        // 변환된 boolean 값을 생성자에 전달
-                        menus.add(new Menu(menuId, name, price, category, isAvailable, stock));
-                        
-                    } catch (NumberFormatException e) {
-                        System.err.println("데이터 변환 오류: " + e.getMessage());
-                    }
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("파일 읽기 오류: " + e.getMessage());
+
+    private static List<Menu> copies(List<Menu> menus) {
+        List<Menu> list = new ArrayList<>(menus.size());
+        for (Menu m : menus) list.add(new Menu(m));
+        return list;
+    }
+
+    /** CSV 한 줄을 Menu로 변환 (열이 모자라거나 숫자 형식이 틀리면 null → 무시) */
+    private static Menu parse(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 6) return null;
+        try {
+            String menuId = parts[0].trim();
+            String name = parts[1].trim();
+            int price = Integer.parseInt(parts[2].trim());
+            String category = parts[3].trim();
+            String availabilityStr = parts[4].trim();
+            int stock = Integer.parseInt(parts[5].trim());
+
+            // [수정] String -> boolean 변환
+            // (CSV에 "true"로 저장되어 있으면 true, 아니면 false 반환)
+            boolean isAvailable = Boolean.parseBoolean(availabilityStr);
+
+            // 변환된 boolean 값을 생성자에 전달
+            return new Menu(menuId, name, price, category, isAvailable, stock);
+
+        } catch (NumberFormatException e) {
+            Log.warn("데이터 변환 오류: ", e.getMessage());
+            return null;
         }
-        return menus;
     }
     
-    public void saveAll(List<Menu> menus) {
-        File file = new File(MENU_FILE_PATH);
-
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, false), "UTF-8"))) {
-
-            writer.write("menuId,name,price,category,IsAvailable,Stock");
-            writer.newLine();
-
-            for (Menu menu : menus) {
-                // CSV 포맷으로 저장 (%b는 boolean을 "true"/"false"로 저장)
-                String csvLine = String.format("%s,%s,%d,%s,%b,%d",
-                        menu.getMenuId(),
-                        menu.getName(),
-                        menu.getPrice(),
-                        menu.getCategory(),
-                        menu.getIsAvailable(), // boolean 값
-                        menu.getStock());
-                
-                writer.write(csvLine);
-                writer.newLine();
-            }
+    /** 목록 전체를 기록 (배치 중이면 미뤄 두고 true, 아니면 파일에 기록했는가) */
+    public synchronized boolean saveAll(List<Menu> menus) {
+        CallerBatch batch = batches.current();
+        if (batch != null) {
+            pending = copies(menus); // 이 배치가 끝날 때 한 번에 기록
+            pendingOwners.add(batch);
+            return true;
+        }
+        return write(menus);
+    }
 
+    /** 목록을 파일에 기록 (미뤄 둔 배치 변경도 이 목록에 들어 있으므로 실패하면 그 배치들을 실패로 표시) */
+    private boolean write(List<Menu> menus) {
+        pending = null;
+        List<CallerBatch> owners = new ArrayList<>(pendingOwners);
+        pendingOwners.clear();
+        List<String> lines = new ArrayList<>(menus.size());
+        for (Menu menu : menus) {
+            // CSV 포맷으로 저장 (%b는 boolean을 "true"/"false"로 저장)
+            String csvLine = String.format("%s,%s,%d,%s,%b,%d",
+                    menu.getMenuId(),
+                    menu.getName(),
+                    menu.getPrice(),
+                    menu.getCategory(),
+                    menu.getIsAvailable(), // boolean 값
+                    menu.getStock());
+            lines.add(csvLine);
+        }
+        try {
+            store.replaceAll(lines);
+            // 기록한 줄을 다시 읽었을 때와 같은 값으로 캐시 갱신
+            List<Menu> stored = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                Menu m = parse(line);
+                if (m != null) stored.add(m);
+            }
+            cache = stored;
+            return true;
         } catch (IOException e) {
-            System.err.println("파일 쓰기 오류: " + e.getMessage());
+            cache = null;
+            Log.error("파일 쓰기 오류: " + e.getMessage());
+            for (CallerBatch owner : owners) owner.fail();
+            return false;
         }
     }
     
-    public boolean save(Menu newMenu) {
+    public synchronized boolean save(Menu newMenu) {
         List<Menu> menus = findAll();
         if (menus.stream().anyMatch(u -> u.getMenuId().equals(newMenu.getMenuId()))) {
             return false; // ID 중복
         }
         menus.add(newMenu);
-        saveAll(menus);
-        return true;
+        return saveAll(menus);
     }
     
-    public Optional<Menu> findById(String menuId) {
+    public synchronized Optional<Menu> findById(String menuId) {
         return findAll().stream()
                 .filter(menu -> menu.getMenuId().equals(menuId))
                 .findFirst();
     }
     
-    public boolean update(Menu updatedMenu) {
+    public synchronized boolean update(Menu updatedMenu) {
         List<Menu> menus = findAll();
         for (int i=0; i<menus.size(); i++) {
             if (menus.get(i).getMenuId().equals(updatedMenu.getMenuId())) {
                 menus.set(i, updatedMenu);
-                saveAll(menus);
-                return true;
+                return saveAll(menus);
             }
         }
         return false;
     }
     
-    public boolean delete(String menuId) {
+    /**
+     * 메뉴ID → 재고로 재고만 바꿔 한 번에 기록 (재고가 0이면 판매중지, 목록에 없는 메뉴는 무시)
+     * 배치 중에도 미루지 않고 바로 기록하며 (미뤄 둔 배치 변경도 함께), 기록하지 못하면 false
+     */
+    public synchronized boolean updateStock(Map<String, Integer> stockById) {
+        List<Menu> menus = findAll();
+        for (Menu menu : menus) {
+            Integer stock = stockById.get(menu.getMenuId());
+            if (stock == null) continue;
+            menu.setStock(stock);
+            if (stock == 0) menu.setIsAvailable(false);
+        }
+        return write(menus);
+    }
+
+    public synchronized boolean delete(String menuId) {
         List<Menu> menus = findAll();
         if (menus.removeIf(menu -> menu.getMenuId().equals(menuId))) {
-            saveAll(menus);
-            return true;
+            return saveAll(menus);
         }
         return false;
     }
@@ -1,75 +1,61 @@
 package server.repository;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
 
+import server.log.Log;
 import server.model.Payment;
 /**
  *
  * @author skdks
  */
 public class PaymentRepository {
-    private static final String PAY_FILE_PATH = "data/payments.csv";
+    private static final String HEADER = "PaymentID,ResID,Method,CardNum,CVC,Expiry,PW,PaymentTime";
+
+    // payments.csv (storage.payments.backend로 저장 방식 선택)
+    // 저장소 객체가 스레드 안전하므로 여기서는 잠그지 않음 (조회끼리는 동시에, 추가와 조회는 저장소의 읽기/쓰기 잠금으로 구분)
+    private final RecordStore store;
+
+    public PaymentRepository() {
+        this.store = StorageFactory.openAppendOnly("payments", "payments.csv", HEADER, Charset.defaultCharset());
+    }
     
-    public synchronized boolean add(Payment payment){
-        File file = new File(PAY_FILE_PATH);
-        boolean isNewFile = !file.exists();
-        
-        if (!file.getParentFile().exists()) {
-            file.getParentFile().mkdirs();
-        }
-        
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file, true))) {
-            if (isNewFile) {
-                bw.write("PaymentID,ResID,Method,CardNum,CVC,Expiry,PW,PaymentTime");
-                bw.newLine();
-            } else {
-                bw.newLine();
-            }
-            
-            bw.write(payment.toString());
+    public boolean add(Payment payment){
+        try {
+            store.append(List.of(payment.toString()));
             return true;
         }
         catch (IOException ex) {
-            ex.printStackTrace();
+            Log.error("결제 파일 쓰기 오류", ex);
             return false;
         }
     }
 
     // Find the latest payment record for given reservationId (returns null if not found)
-    public synchronized server.model.Payment findLatestByReservationId(String resId) {
-        File file = new File(PAY_FILE_PATH);
-        if (!file.exists()) return null;
-        server.model.Payment found = null;
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean firstLine = true;
-            while ((line = br.readLine()) != null) {
-                if (firstLine) { firstLine = false; continue; } // skip header
-                if (line.trim().isEmpty()) continue;
-                String[] cols = line.split(",");
-                if (cols.length >= 9) {
-                    String paymentId = cols[0];
-                    String reservationId = cols[1];
-                    if (reservationId.equals(resId)) {
-                        String method = cols[2];
-                        String cardNum = cols[3];
-                        String cvc = cols[4];
-                        String expiry = cols[5];
-                        String pw = cols[6];
-                        int amount = 0;
-                        try { amount = Integer.parseInt(cols[7]); } catch (NumberFormatException ex) { amount = 0; }
-                        String time = cols[8];
-                        found = new server.model.Payment(paymentId, reservationId, method, cardNum, cvc, expiry, pw, amount, time);
-                    }
-                }
-            }
+    // csv 백엔드는 ResID 열을 매핑된 바이트에서 먼저 비교하므로 다른 예약의 결제 줄은 디코딩하지 않음
+    public Payment findLatestByReservationId(String resId) {
+        try {
+            List<Payment> found = store.readMatching(1, resId, PaymentRepository::parse);
+            return found.isEmpty() ? null : found.get(found.size() - 1);
         } catch (IOException ex) {
-            ex.printStackTrace();
+            Log.error("결제 파일 읽기 오류", ex);
+            return null;
         }
-        return found;
+    }
+
+    private static Payment parse(String line) {
+        String[] cols = line.split(",");
+        if (cols.length < 9) return null;
+        String paymentId = cols[0];
+        String reservationId = cols[1];
+        String method = cols[2];
+        String cardNum = cols[3];
+        String cvc = cols[4];
+        String expiry = cols[5];
+        String pw = cols[6];
+        int amount = 0;
+        try { amount = Integer.parseInt(cols[7]); } catch (NumberFormatException ex) { amount = 0; }
+        String time = cols[8];
+        return new Payment(paymentId, reservationId, method, cardNum, cvc, expiry, pw, amount, time);
     }
 }
@@ -0,0 +1,70 @@
+package server.repository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 저장소가 쓰는 레코드 저장 방식(백엔드)의 공통 인터페이스
+ * - 레코드는 CSV 한 줄과 같은 형식의 문자열 (헤더 제외)이며 저장한 순서를 그대로 유지
+ * - 각 저장소(ReservationRepository 등)는 메모리 캐시/인덱스를 그대로 두고 파일 입출력만 이 인터페이스로 처리
+ * - 구현: CsvRecordStore(기본, data/*.csv), MemoryRecordStore(메모리 전용), BinaryLogRecordStore(길이 접두 바이너리 로그)
+ * - 어떤 구현을 쓸지는 StorageFactory가 설정(storage.backend, storage.&lt;이름&gt;.backend)에 따라 고름
+ * 구현은 모두 스레드 안전해야 한다.
+ * @author user
+ */
+public interface RecordStore {
+
+    /** 로그/설정에 쓰는 저장소 이름 (예: reservations) */
+    String name();
+
+    /** 저장된 적이 있는지 (CSV라면 파일이 있는지) */
+    boolean exists();
+
+    /**
+     * 모든 레코드를 저장 순서대로 mapper로 변환해 반환
+     * - 빈 레코드는 건너뛰고, mapper가 null을 돌려준 레코드는 결과에서 제외
+     */
+    <T> List<T> read(Function<String, T> mapper) throws IOException;
+
+    /**
+     * column번째 열(0부터, ',' 구분)의 값이 value와 정확히 같은 레코드만 변환해 반환
+     * - 기본 구현은 read 후 걸러냄. 더 빠르게 찾을 수 있는 백엔드는 재정의
+     */
+    default <T> List<T> readMatching(int column, String value, Function<String, T> mapper) throws IOException {
+        List<T> result = new ArrayList<>();
+        for (String record : read(Function.identity())) {
+            if (!value.equals(column(record, column))) continue;
+            T item = mapper.apply(record);
+            if (item != null) result.add(item);
+        }
+        return result;
+    }
+
+    /** 레코드를 끝에 덧붙임 */
+    void append(List<String> records) throws IOException;
+
+    /** 전체 레코드를 records로 교체 (중간에 멈춰도 이전 내용 또는 새 내용 중 하나가 남아야 함) */
+    void replaceAll(List<String> records) throws IOException;
+
+    /**
+     * 저장소 밖에서(운영자가 직접 편집 등) 저장 내용이 바뀌면 onChange를 호출하도록 등록
+     * - 이 저장소 자신의 기록으로 생긴 변경에는 호출하지 않음
+     * - 기본 구현은 아무것도 하지 않음 (밖에서 고칠 파일이 없는 백엔드)
+     */
+    default void watch(Runnable onChange) {
+    }
+
+    /** 레코드의 column번째 열 (없으면 null) */
+    static String column(String record, int column) {
+        int from = 0;
+        for (int c = 0; c < column; c++) {
+            from = record.indexOf(',', from);
+            if (from < 0) return null;
+            from++;
+        }
+        int to = record.indexOf(',', from);
+        return to < 0 ? record.substring(from) : record.substring(from, to);
+    }
+}
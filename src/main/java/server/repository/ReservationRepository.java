@@ -1,130 +1,672 @@
 package server.repository;
+import server.config.ServerConfig;
+import server.log.Log;
 import server.model.*;
 import java.io.*;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 /**
- *
+ * 예약 저장소
+ * - reservations.csv는 마지막 압축 시점의 전체 목록, reservations.log는 그 이후 변경을 순서대로 덧붙인 기록
+ * - 추가/상태 변경/요청사항 변경/삭제는 로그 한 줄 추가로 끝나며, 처음 읽을 때 csv 위에 로그를 재적용
+ * - 로그 항목이 일정 개수(reservation.log.compactThreshold)를 넘으면 CompactionService가 백그라운드에서
+ *   메모리의 목록으로 csv를 다시 쓰고 로그를 비움 (reservation.log.maxEntries를 넘으면 쓰는 요청에서 바로 압축)
+ * - 메모리에는 예약번호(기본), 투숙객 이름, 방 번호별 해시 인덱스를 두고 변경 시 함께 갱신
+ * - 방별 투숙 인덱스(RoomStayIndex)의 숙박일 비트맵으로 기간 겹침을, Confirmed 일자 비트맵으로 점유율을 계산
+ * - 목록과 변경 로그는 각각 RecordStore에 저장 (기본 csv, storage.reservations.backend로 memory/binlog 선택)
+ * - 조회(findAll/findById/findByGuestName/findByRoom/findConfirmed*, hasActiveOverlap, getConfirmedOccupancy)는 쓰기마다 새로 공개하는
+ *   불변 View에서 잠금 없이 처리하므로 보고서의 전체 조회, 예약 가능 확인과 체크인 같은 쓰기가 서로 기다리지 않음
+ *   (View에는 방별 숙박일/Confirmed 일자 비트맵 복사본도 함께 두며, roomSnapshot으로 한 View에서 여러 방을 확인)
+ *   (View의 맵은 SharedMap이라 바뀐 예약과 그 묶음만 새로 만들고 나머지는 이전 View와 공유하므로 쓰기마다 전체를 복사하지 않음)
+ * - 예약마다 변경 번호(version)를 두고, 버전을 지정한 변경은 그 사이 다른 변경이 있었으면 바꾸지 않고 충돌로 돌려줌
+ *   · 상태/요청사항 변경은 저장소 잠금 없이 예약번호별 최신 예약(불변 객체)을 버전 비교 후 교체하고,
+ *     잠금은 바뀐 예약을 인덱스에 반영하고 로그에 기록할 때만 잡음
+ *   · 변경 번호는 csv의 마지막 열과 로그의 예약 한 줄(ADD/SET)에 함께 기록하므로 다시 시작해도 그대로 이어짐
  * @author user
  */
-public class ReservationRepository {
-    private static final String RES_FILE_PATH = "data/reservations.csv";
-    
-    public synchronized List<Reservation> findAll(){
-        List<Reservation> list = new ArrayList<>();
-        File file = new File(RES_FILE_PATH);
-        if(!file.exists()) return list;
-        try{
-            BufferedReader reader = new BufferedReader(new FileReader(file));
-            String line;    
-            reader.readLine();
-            
-            while((line = reader.readLine()) != null){
-                String[] parts = line.split(",");    
-                if (parts.length >= 10) {
-                    list.add(new Reservation(
-                        parts[0].trim(), parts[1].trim(), parts[2].trim(), parts[3].trim(),
-                            parts[4].trim(),Integer.parseInt(parts[5].trim()), parts[6].trim(),
-                            parts[7].trim(),parts[8].trim(),parts[9]));
-                }
-            }
+public class ReservationRepository implements BatchWritable, Compactable {
+    private static final String HEADER = "ResID,RoomNum,GuestName,CheckIn,CheckOut,Guests,Phone,ReservationStatus,CreatedAt,Request,Version";
+    private static final int COMPACT_THRESHOLD = Math.max(1, ServerConfig.getInt("reservation.log.compactThreshold", 1000));
+    // 백그라운드 압축이 밀렸을 때 로그가 끝없이 길어지지 않도록 하는 상한
+    private static final int MAX_LOG_ENTRIES = Math.max(COMPACT_THRESHOLD, ServerConfig.getInt("reservation.log.maxEntries", COMPACT_THRESHOLD * 10));
+
+    // 변경 로그 항목 종류 ("ADD,<csv 한 줄>", "SET,<바뀐 예약의 csv 한 줄>", "DELETE,<예약번호>")
+    // STATUS/REQUEST는 변경 번호를 기록하기 전의 로그 형식 ("STATUS,<예약번호>,<상태>", "REQUEST,<예약번호>,<요청사항>"), 재적용만 함
+    private static final String OP_ADD = "ADD";
+    private static final String OP_SET = "SET";
+    private static final String OP_STATUS = "STATUS";
+    private static final String OP_REQUEST = "REQUEST";
+    private static final String OP_DELETE = "DELETE";
+
+    /** 버전을 확인하지 않는 변경 */
+    private static final long ANY_VERSION = -1;
+
+    /**
+     * 버전을 지정한 변경의 결과
+     * @param outcome 결과 종류
+     * @param version UPDATED면 새 버전, CONFLICT면 현재 버전 (그 외 -1)
+     */
+    public record Update(Outcome outcome, long version) {
+        public enum Outcome { UPDATED, CONFLICT, NOT_FOUND, FAILED }
+
+        private static final Update NOT_FOUND = new Update(Outcome.NOT_FOUND, -1);
+        private static final Update FAILED = new Update(Outcome.FAILED, -1);
+
+        public boolean isUpdated() {
+            return outcome == Outcome.UPDATED;
+        }
+    }
+
+    // 압축 시점의 전체 목록(reservations.csv)과 그 이후의 변경 로그(reservations.log)
+    private final RecordStore snapshot;
+    private final RecordStore changeLog;
+
+    // 파일 내용을 메모리에 한 번만 읽어 두고 조회는 메모리에서 처리 (쓰기는 메모리 반영 후 바로 로그에 기록)
+    // 처음 사용할 때 읽으며, 로그 기록에 실패하면 null로 되돌려 다음 조회 때 파일에서 다시 읽음
+    // cache: 예약번호 → 예약 (기본 인덱스, 파일 순서 유지)
+    private Map<String, Reservation> cache = null;
+    // 보조 인덱스: 투숙객 이름 / 방 번호 → (예약번호 → 예약)
+    private Map<String, Map<String, Reservation>> byGuest = null;
+    private Map<String, Map<String, Reservation>> byRoom = null;
+    // 방별 투숙 인덱스: 구간 트리 + 숙박일/Confirmed 일자 비트맵 (CheckedOut 제외)
+    private RoomStayIndex stays = null;
+    // 예약번호 → 최신 예약. 상태/요청사항 변경은 여기서 예약 하나씩 버전을 비교해 새 객체로 교체 (잠금 없음)
+    // 안의 예약은 넣은 뒤 바꾸지 않으며, 파일을 다 읽은 뒤 공개하고 로그 기록에 실패하면 null로 되돌림
+    private volatile ConcurrentHashMap<String, Reservation> latest = null;
+    // 읽기용으로 공개한 불변 상태 (쓰기는 위 구조를 잠금 안에서 바꾼 뒤 새 View를 공개). null이면 아직 읽지 않음
+    private volatile View view = null;
+    // 마지막 압축 이후 로그에 쌓인 항목 수
+    private int logEntries = 0;
+    // 압축 중이면 그동안 로그에 기록한 항목 (압축이 끝나면 새 로그의 내용이 됨), 아니면 null
+    private List<String> compactTail = null;
+
+    // BATCH를 실행하는 스레드의 로그 줄은 pendingLog에 모아 두었다가 그 배치의 endBatch에서 한 번에 기록
+    // (배치가 아닌 기록이나 압축이 먼저 오면 순서를 지키도록 함께 기록). pendingOwners: pendingLog에 줄이 있는 배치
+    private final CallerBatch.Local batches = new CallerBatch.Local();
+    private final List<String> pendingLog = new ArrayList<>();
+    private final Set<CallerBatch> pendingOwners = new HashSet<>();
+
+    /**
+     * 조회용 불변 상태: 예약번호/투숙객 이름/방 번호별 예약 (순서는 메모리 인덱스와 같음)과 방별 Confirmed 일자/숙박일 비트맵
+     * - 안의 Reservation/DayBitmap은 공개한 뒤 바꾸지 않는 복사본이며, 예약은 호출자에게 다시 복사해서 줌
+     */
+    private record View(SharedMap<String, Reservation> byId, SharedMap<String, List<Reservation>> byGuest,
+                        SharedMap<String, List<Reservation>> byRoom, SharedMap<String, DayBitmap> confirmed,
+                        SharedMap<String, RoomStayIndex.Nights> nights) {
+    }
+
+    public ReservationRepository() {
+        this.snapshot = StorageFactory.open("reservations", "reservations.csv", HEADER, Charset.defaultCharset());
+        this.changeLog = StorageFactory.open("reservations-log", "reservations.log", null, Charset.defaultCharset());
+    }
+
+    @Override
+    public void beginBatch() {
+        batches.begin();
+    }
+
+    @Override
+    public synchronized boolean endBatch() {
+        CallerBatch batch = batches.end();
+        if (batch == null) return true;
+        if (view == null && cache != null) publishAll();
+        if (pendingOwners.contains(batch)) writePending();
+        return batch.succeeded();
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (!pendingLog.isEmpty()) writePending();
+    }
+
+    /** 미뤄 둔 로그 줄을 한 번에 기록 (실패하면 그 줄을 남긴 배치를 모두 실패로 표시) */
+    private boolean writePending() {
+        List<String> entries = new ArrayList<>(pendingLog);
+        List<CallerBatch> owners = new ArrayList<>(pendingOwners);
+        pendingLog.clear();
+        pendingOwners.clear();
+        if (writeLog(entries)) return true;
+        for (CallerBatch owner : owners) owner.fail();
+        return false;
+    }
+
+    /** 메모리에 올려 둔 예약 (처음 호출 시 csv를 읽고 변경 로그를 재적용) */
+    private Map<String, Reservation> store() {
+        if (cache == null) {
+            cache = new LinkedHashMap<>();
+            byGuest = new HashMap<>();
+            byRoom = new HashMap<>();
+            stays = new RoomStayIndex();
+            for (Reservation r : load()) put(r);
+            logEntries = replay();
+            publishAll();
+            latest = new ConcurrentHashMap<>(cache);
+        }
+        return cache;
+    }
+
+    /** 예약번호별 최신 예약 (처음이거나 기록 실패로 비운 뒤면 잠금 안에서 파일을 읽음) */
+    private ConcurrentHashMap<String, Reservation> latest() {
+        ConcurrentHashMap<String, Reservation> records = latest;
+        if (records != null) return records;
+        synchronized (this) {
+            store();
+            return latest;
+        }
+    }
+
+    /** 현재 View (처음이거나 기록 실패로 캐시를 비운 뒤면 잠금 안에서 파일을 읽음) */
+    private View view() {
+        View v = view;
+        if (v != null) return v;
+        synchronized (this) {
+            store();
+            if (view == null) publishAll();
+            return view;
+        }
+    }
+
+    /** 메모리 인덱스 전체로 View를 새로 만들어 공개 (처음 읽을 때) */
+    private void publishAll() {
+        SharedMap<String, Reservation> byId = SharedMap.empty();
+        for (Reservation r : cache.values()) byId = byId.with(r.getReservationId(), new Reservation(r));
+        view = new View(byId, frozen(byGuest, byId), frozen(byRoom, byId), SharedMap.of(stays.confirmedDays()),
+                SharedMap.of(stays.nights()));
+    }
+
+    /**
+     * resId 예약 하나가 추가/변경/삭제된 뒤 그 예약과 그 예약이 속한 묶음만 바꾼 새 View를 공개
+     * - 맵은 SharedMap이라 바뀐 항목의 경로만 새로 만들고 나머지는 이전 View와 공유 (잠금 안의 비용은 묶음 크기 + O(log n))
+     * - 배치를 실행하는 스레드에서는 View를 비워 두기만 하고 endBatch(또는 그 전의 첫 조회)에서 한 번에 다시 만듦
+     */
+    private void publish(String resId) {
+        View old = view;
+        if (old == null || cache == null) return;
+        if (batches.current() != null) {
+            view = null;
+            return;
+        }
+        Reservation current = cache.get(resId);
+        Reservation previous = old.byId().get(resId);
+        Reservation any = current != null ? current : previous;
+        if (any == null) return; // 바뀐 것 없음
+        SharedMap<String, Reservation> byId = current == null
+                ? old.byId().without(resId)
+                : old.byId().with(resId, new Reservation(current));
+        // 예약의 투숙객 이름과 방 번호는 바뀌지 않으므로 그 두 묶음만 다시 만듦
+        String room = any.getRoomNumber();
+        DayBitmap days = stays.confirmedDays(room);
+        RoomStayIndex.Nights nights = stays.nights(room);
+        view = new View(byId,
+                refreshed(old.byGuest(), byGuest, any.getGuestName(), byId),
+                refreshed(old.byRoom(), byRoom, room, byId),
+                days == null ? old.confirmed().without(room) : old.confirmed().with(room, days),
+                nights == null ? old.nights().without(room) : old.nights().with(room, nights));
+    }
+
+    private static SharedMap<String, List<Reservation>> frozen(Map<String, Map<String, Reservation>> index, Map<String, Reservation> byId) {
+        SharedMap<String, List<Reservation>> result = SharedMap.empty();
+        for (Map.Entry<String, Map<String, Reservation>> e : index.entrySet()) result = result.with(e.getKey(), bucket(e.getValue(), byId));
+        return result;
+    }
+
+    private static SharedMap<String, List<Reservation>> refreshed(SharedMap<String, List<Reservation>> old,
+            Map<String, Map<String, Reservation>> index, String key, Map<String, Reservation> byId) {
+        Map<String, Reservation> src = index.get(key);
+        return src == null ? old.without(key) : old.with(key, bucket(src, byId));
+    }
+
+    private static List<Reservation> bucket(Map<String, Reservation> src, Map<String, Reservation> byId) {
+        List<Reservation> list = new ArrayList<>(src.size());
+        for (String id : src.keySet()) list.add(byId.get(id));
+        return Collections.unmodifiableList(list);
+    }
+
+    /** 예약을 최신 예약 맵과 기본/보조 인덱스에 넣음 (같은 예약번호가 있으면 교체) */
+    private void put(Reservation r) {
+        index(r);
+        ConcurrentHashMap<String, Reservation> records = latest;
+        if (records != null) records.put(r.getReservationId(), r);
+    }
+
+    /** 예약을 기본 인덱스와 보조 인덱스에 넣음 (같은 예약번호가 있으면 교체) */
+    private void index(Reservation r) {
+        Reservation old = cache.put(r.getReservationId(), r);
+        if (old != null) unindex(old);
+        byGuest.computeIfAbsent(r.getGuestName(), k -> new LinkedHashMap<>()).put(r.getReservationId(), r);
+        byRoom.computeIfAbsent(r.getRoomNumber(), k -> new LinkedHashMap<>()).put(r.getReservationId(), r);
+        stays.add(r);
+    }
+
+    private Reservation remove(String resId) {
+        Reservation old = cache.remove(resId);
+        if (old != null) unindex(old);
+        ConcurrentHashMap<String, Reservation> records = latest;
+        if (records != null) records.remove(resId);
+        return old;
+    }
+
+    private void unindex(Reservation r) {
+        removeFrom(byGuest, r.getGuestName(), r.getReservationId());
+        removeFrom(byRoom, r.getRoomNumber(), r.getReservationId());
+        stays.remove(r);
+    }
+
+    /** 상태 변경 (CheckedOut 여부가 바뀌면 투숙 기간 인덱스도 갱신, 이전 형식의 로그를 재적용할 때만 사용) */
+    private void setStatus(Reservation r, String status) {
+        stays.remove(r);
+        r.setReservationStatus(status);
+        stays.add(r);
+    }
+
+    private static void removeFrom(Map<String, Map<String, Reservation>> index, String key, String resId) {
+        Map<String, Reservation> bucket = index.get(key);
+        if (bucket == null) return;
+        bucket.remove(resId);
+        if (bucket.isEmpty()) index.remove(key);
+    }
+
+    private List<Reservation> load() {
+        try {
+            return snapshot.read(ReservationRepository::parseRow);
         }
         catch(IOException ex){
-            ex.printStackTrace();
-        }   
-        return list;
+            Log.error("예약 파일 읽기 오류", ex);
+            return new ArrayList<>();
+        }
     }
-    
-    public synchronized String add(String roomNum, String name, String inDate, String outDate, int guestNum, String phone, String createdAt, String request){
-        String resId = "R-" + (System.currentTimeMillis() % 10000); // 간단한 ID 생성
-        String ReservationStatus= "Unpaid";
-        boolean isNewFile = !new File(RES_FILE_PATH).exists();
-        
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(RES_FILE_PATH, true))) {
-            if (isNewFile) {
-                bw.write("ResID,RoomNum,GuestName,CheckIn,CheckOut,Guests,Phone,ReservationStatus,CreatedAt, Request");
-                bw.newLine();
+
+    /**
+     * csv 한 줄을 예약으로 변환
+     * - 지금 형식: 요청사항 열은 큰따옴표로 감싸고(안의 큰따옴표는 두 번) 그 뒤에 변경 번호 열이 오므로 열 수가 항상 11개
+     * - 요청사항 열이 그 형식이 아닌 예전 줄은 요청사항을 10번째 열까지만 읽고 변경 번호는 1
+     */
+    private static Reservation parseRow(String line) {
+        String[] parts = line.split(",", 10);
+        if (parts.length < 10) return null;
+        String request;
+        long version;
+        String[] quoted = quotedTail(parts[9]);
+        if (quoted != null) {
+            request = quoted[0];
+            version = Long.parseLong(quoted[1]);
+        } else {
+            String tail = parts[9];
+            int comma = tail.indexOf(',');
+            request = (comma < 0 ? tail : tail.substring(0, comma)).trim();
+            version = 1;
+        }
+        Reservation r = new Reservation(
+            parts[0].trim(), parts[1].trim(), parts[2].trim(), parts[3].trim(),
+                parts[4].trim(),Integer.parseInt(parts[5].trim()), parts[6].trim(),
+                parts[7].trim(),parts[8].trim(),request);
+        r.setVersion(version);
+        return r;
+    }
+
+    /** " \"요청사항\",변경번호" 형식이면 {요청사항, 변경번호}, 아니면 null */
+    private static String[] quotedTail(String tail) {
+        String t = tail.trim();
+        if (!t.startsWith("\"")) return null;
+        StringBuilder request = new StringBuilder();
+        int i = 1;
+        while (i < t.length()) {
+            char c = t.charAt(i++);
+            if (c != '"') {
+                request.append(c);
+            } else if (i < t.length() && t.charAt(i) == '"') {
+                request.append('"'); // 두 번 쓴 큰따옴표
+                i++;
             } else {
-                bw.newLine();
+                String rest = t.substring(i).trim();
+                if (!rest.startsWith(",")) return null;
+                String version = rest.substring(1).trim();
+                return !version.isEmpty() && version.chars().allMatch(Character::isDigit)
+                        ? new String[] { request.toString(), version } : null;
             }
-            // 9개 필드 저장
-            String line = String.format("%s,%s,%s,%s,%s,%d,%s,%s,%s,*s", 
-                    resId, roomNum, name, inDate, outDate, guestNum, phone, ReservationStatus, createdAt, request);
-            bw.write(line);
-            return resId;
         }
-        catch (IOException ex){ 
-            return null; 
+        return null; // 닫는 큰따옴표 없음
+    }
+
+    /** 예약을 csv 한 줄로 (Reservation.toString과 같은 열 순서, 요청사항은 큰따옴표로 감싸고 뒤에 변경 번호 열) */
+    private static String row(Reservation r) {
+        String request = r.getCustomerRequest() == null ? "" : r.getCustomerRequest();
+        return String.format("%s,%s,%s,%s,%s,%d,%s, %s, %s, \"%s\",%d", r.getReservationId(), r.getRoomNumber(),
+                r.getGuestName(), r.getCheckInDate(), r.getCheckOutDate(), r.getGuestNum(), r.getPhoneNumber(),
+                r.getReservationStatus(), r.getCreatedAt(), request.replace("\"", "\"\""), r.getVersion());
+    }
+
+    /**
+     * 변경 로그를 순서대로 메모리에 재적용하고 적용한 항목 수를 반환
+     * - 각 항목은 결과 값(변경 번호 포함)을 그대로 덮어쓰므로 같은 항목을 두 번 적용해도 결과가 같음
+     *   (압축 중 csv 교체 후 로그를 비우기 전에 멈췄더라도 안전)
+     * - 기록 도중 끊긴 마지막 줄처럼 해석할 수 없는 줄은 건너뜀
+     */
+    private int replay() {
+        List<String> entries;
+        try {
+            entries = changeLog.read(Function.identity());
+        }
+        catch (IOException ex) {
+            Log.error("예약 로그 읽기 오류", ex);
+            return 0;
+        }
+        int applied = 0;
+        for (String line : entries) {
+            try {
+                if (apply(line)) applied++;
+                else Log.warn("예약 로그 항목 무시: ", line);
+            } catch (RuntimeException ex) {
+                Log.warn("예약 로그 항목 무시: ", line);
+            }
         }
+        if (applied > 0) Log.info("예약 변경 로그 재적용: " + applied + "건");
+        return applied;
     }
-    
-    private boolean rewriteFile(List<Reservation> all) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(RES_FILE_PATH))) {
-            bw.write("ResID,RoomNum,GuestName,CheckIn,CheckOut,Guests,Phone,ReservationStatus,CreatedAt,Request");
-            for (Reservation r : all) {
-                bw.newLine();
-                bw.write(r.toString());
+
+    private boolean apply(String entry) {
+        String[] e = entry.split(",", 3);
+        switch (e[0]) {
+            case OP_ADD, OP_SET -> {
+                Reservation r = parseRow(entry.substring(e[0].length() + 1));
+                if (r == null) return false;
+                put(r);
+                return true;
             }
+            case OP_STATUS, OP_REQUEST -> {
+                // 변경 번호가 없는 예전 형식: 적용할 때마다 1 증가
+                if (e.length < 3) return false;
+                Reservation r = cache.get(e[1]);
+                if (r == null) return true; // 이후에 삭제된 예약
+                if (OP_STATUS.equals(e[0])) setStatus(r, e[2]);
+                else r.setCustomerRequest(e[2]);
+                r.setVersion(r.getVersion() + 1);
+                return true;
+            }
+            case OP_DELETE -> {
+                if (e.length < 2) return false;
+                remove(e[1]);
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /** 전체 예약 목록의 복사본 (호출자가 바꿔도 저장소 상태에는 영향 없음) */
+    public List<Reservation> findAll(){
+        return copies(view().byId().values());
+    }
+
+    /** 예약번호로 조회 (없으면 null) */
+    public Reservation findById(String resId) {
+        Reservation r = view().byId().get(resId);
+        return r == null ? null : new Reservation(r);
+    }
+
+    /** 투숙객 이름이 정확히 같은 예약 목록 */
+    public List<Reservation> findByGuestName(String guestName) {
+        return copies(view().byGuest().getOrDefault(guestName, List.of()));
+    }
+
+    /** 방 번호가 같은 예약 목록 */
+    public List<Reservation> findByRoom(String roomNum) {
+        return roomSnapshot().findByRoom(roomNum);
+    }
+
+    /**
+     * roomNum 방에 [inDate, outDate) 기간과 겹치는 투숙(CheckedOut 제외)이 있는지
+     * - View에서 확인하므로 쓰기(로그 기록, 압축)를 기다리지 않음
+     */
+    public boolean hasActiveOverlap(String roomNum, String inDate, String outDate) {
+        return roomSnapshot().hasActiveOverlap(roomNum, inDate, outDate);
+    }
+
+    /** 지금 공개된 View로 방별 예약을 확인하는 조회 (여러 방을 같은 시점으로 볼 때) */
+    public RoomSnapshot roomSnapshot() {
+        return new RoomSnapshot(view());
+    }
+
+    /**
+     * 한 시점의 View에서 방별 예약을 확인하는 조회 (객실 현황/대시보드처럼 모든 방을 같은 시점으로 볼 때)
+     * - 만든 뒤의 쓰기는 보이지 않으며, 잠그지 않으므로 쓰기를 기다리지 않음
+     */
+    public static final class RoomSnapshot {
+        private final View view;
+
+        private RoomSnapshot(View view) {
+            this.view = view;
+        }
+
+        /** 방 번호가 같은 예약 목록 */
+        public List<Reservation> findByRoom(String roomNum) {
+            return copies(view.byRoom().getOrDefault(roomNum, List.of()));
+        }
+
+        /**
+         * roomNum 방에 [inDate, outDate) 기간과 겹치는 투숙(CheckedOut 제외)이 있는지
+         * - yyyy-MM-dd 형식이고 입실일 < 퇴실일이면 숙박일 비트맵으로, 아니면 방의 예약을 문자열 비교로 확인
+         */
+        public boolean hasActiveOverlap(String roomNum, String inDate, String outDate) {
+            if (RoomStayIndex.isNightRange(inDate, outDate)) {
+                RoomStayIndex.Nights nights = view.nights().get(roomNum);
+                return nights != null && nights.overlaps(inDate, outDate);
+            }
+            for (Reservation r : view.byRoom().getOrDefault(roomNum, List.of())) {
+                if (RoomStayIndex.isActive(r) && RoomStayIndex.overlaps(inDate, outDate, r.getCheckInDate(), r.getCheckOutDate())) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Confirmed 예약의 일자별 투숙 비트맵 (입실일~퇴실일 포함, 점유율 보고서용)
+     * @return 방 번호 → 비트 배열 (i번 비트 = start + i 일), 기간 내 투숙이 없는 방은 제외
+     */
+    public Map<String, long[]> getConfirmedOccupancy(LocalDate start, LocalDate end) {
+        return RoomStayIndex.slice(view().confirmed(), start.toEpochDay(), end.toEpochDay() + 1);
+    }
+
+    private static List<Reservation> copies(Collection<Reservation> src) {
+        List<Reservation> list = new ArrayList<>(src.size());
+        for (Reservation r : src) list.add(new Reservation(r));
+        return list;
+    }
+
+    public synchronized String add(String roomNum, String name, String inDate, String outDate, int guestNum, String phone, String createdAt, String request){
+        String resId = newReservationId();
+        String ReservationStatus= "Unpaid";
+        Reservation reservation = new Reservation(resId, roomNum, name, inDate, outDate, guestNum, phone, ReservationStatus, createdAt, request);
+        put(reservation);
+        publish(resId);
+        return append(OP_ADD + "," + row(reservation)) ? resId : null;
+    }
+
+    /** 간단한 ID 생성 (R-시각 끝 4자리, 이미 있는 번호면 다음 번호) */
+    private String newReservationId() {
+        long n = System.currentTimeMillis() % 10000;
+        while (store().containsKey("R-" + n)) n++;
+        return "R-" + n;
+    }
+
+    /**
+     * 변경 로그 한 줄 기록 (호출한 스레드가 배치 중이면 그 배치의 endBatch까지 미룸)
+     * - 다른 배치가 미뤄 둔 줄이 있으면 로그 순서가 메모리 반영 순서와 같도록 그 줄 뒤에 함께 기록
+     */
+    private boolean append(String entry) {
+        CallerBatch batch = batches.current();
+        if (batch != null) {
+            pendingLog.add(entry);
+            pendingOwners.add(batch);
             return true;
         }
+        if (pendingLog.isEmpty()) return writeLog(List.of(entry));
+        pendingLog.add(entry);
+        return writePending();
+    }
+
+    private boolean writeLog(List<String> entries) {
+        try {
+            changeLog.append(entries);
+        }
         catch (IOException ex) {
+            Log.error("예약 로그 기록 오류", ex);
+            // 메모리와 파일이 어긋났으므로 다음 조회 때 파일에서 다시 읽음
+            cache = null;
+            view = null;
+            latest = null;
             return false;
         }
+        logEntries += entries.size();
+        if (compactTail != null) compactTail.addAll(entries);
+        else if (logEntries >= MAX_LOG_ENTRIES) compact();
+        return true;
     }
-    
-    public synchronized boolean updateStatus(String resId, String reservationStatus) {
-        List<Reservation> all = findAll();
-        boolean found = false;
-        for (Reservation r : all) {
-            if (r.getReservationId().equals(resId)) {
-                r.setReservationStatus(reservationStatus);
-                found = true;
-                break;
+
+    @Override
+    public String compactionName() {
+        return "reservations";
+    }
+
+    @Override
+    public synchronized int pendingEntries() {
+        return logEntries;
+    }
+
+    @Override
+    public synchronized boolean needsCompaction() {
+        return cache != null && compactTail == null && logEntries >= COMPACT_THRESHOLD;
+    }
+
+    /**
+     * 메모리의 목록으로 reservations.csv를 다시 쓰고 변경 로그를 비움
+     * - 목록은 잠금 안에서 문자열로만 떠 두고, 파일 쓰기는 잠금 밖에서 하므로 그동안에도 요청을 처리
+     *   (그 사이의 변경은 기존 로그에 계속 기록하면서 compactTail에도 모아 두었다가 새 로그로 남김)
+     * - 저장소가 통째로 교체하므로 중간에 멈춰도 csv는 이전 내용 또는 새 내용 중 하나이고,
+     *   로그 재적용은 여러 번 해도 결과가 같으므로 어느 시점에 멈춰도 안전
+     * - 실패하면 로그를 그대로 두어 다음 압축 때 다시 시도
+     */
+    @Override
+    public boolean compact() {
+        List<String> rows;
+        synchronized (this) {
+            // 배치가 미뤄 둔 변경은 먼저 로그에 기록한 뒤 압축, 이미 압축 중이면 건너뜀
+            if (!pendingLog.isEmpty()) writePending();
+            if (cache == null || compactTail != null) return false;
+            rows = new ArrayList<>(cache.size());
+            for (Reservation r : cache.values()) rows.add(row(r));
+            compactTail = new ArrayList<>();
+        }
+        boolean written = false;
+        try {
+            snapshot.replaceAll(rows);
+            written = true;
+        }
+        catch (IOException ex) {
+            Log.error("예약 로그 압축 오류", ex);
+        }
+        synchronized (this) {
+            List<String> tail = compactTail;
+            compactTail = null;
+            if (!written) return false;
+            try {
+                changeLog.replaceAll(tail); // 압축 시작 이후의 변경만 남기고 로그 비우기
+                logEntries = tail.size();
+                return true;
+            }
+            catch (IOException ex) {
+                Log.error("예약 로그 압축 오류", ex);
+                return false;
             }
         }
-        if(!found)
-            return false;
-        return rewriteFile(all);
     }
-    
-    public synchronized boolean updateRequest(String resId, String newRequest) {
-        List<Reservation> all = findAll();
-        boolean found = false;
-        
-        for (Reservation r : all) {
-            if (r.getReservationId().equals(resId)) {
-                String safeRequest = newRequest.replace("\n", " ");
-                r.setCustomerRequest(safeRequest);
-                
-                found = true;
-                break;
+
+    public boolean updateStatus(String resId, String reservationStatus) {
+        return updateStatus(resId, reservationStatus, ANY_VERSION).isUpdated();
+    }
+
+    public boolean updateRequest(String resId, String newRequest) {
+        return updateRequest(resId, newRequest, ANY_VERSION).isUpdated();
+    }
+
+    /** 예약의 현재 버전이 expectedVersion일 때만 상태를 바꿈 (다르면 바꾸지 않고 CONFLICT와 현재 버전) */
+    public Update updateStatus(String resId, String reservationStatus, long expectedVersion) {
+        return change(resId, expectedVersion, r -> r.setReservationStatus(reservationStatus));
+    }
+
+    /** 예약의 현재 버전이 expectedVersion일 때만 요청사항을 바꿈 (다르면 바꾸지 않고 CONFLICT와 현재 버전) */
+    public Update updateRequest(String resId, String newRequest, long expectedVersion) {
+        String safeRequest = newRequest.replace("\n", " ").replace("\r", " ");
+        return change(resId, expectedVersion, r -> r.setCustomerRequest(safeRequest));
+    }
+
+    /**
+     * 예약 하나를 버전 확인 후 교체 (저장소 잠금 없이 최신 예약 맵에서 예약번호 단위로 원자적으로)
+     * - 현재 예약의 복사본에 edit를 적용하고 버전을 1 올린 새 객체로, 그 사이 다른 교체가 없었을 때만 바꿈
+     * - 교체한 뒤 잠금 안에서 인덱스/View에 반영하고 로그에 기록 (commit)
+     */
+    private Update change(String resId, long expectedVersion, Consumer<Reservation> edit) {
+        ConcurrentHashMap<String, Reservation> records = latest();
+        Reservation next;
+        while (true) {
+            Reservation current = records.get(resId);
+            if (current == null) return Update.NOT_FOUND;
+            if (expectedVersion != ANY_VERSION && current.getVersion() != expectedVersion) {
+                return new Update(Update.Outcome.CONFLICT, current.getVersion());
             }
+            next = new Reservation(current);
+            edit.accept(next);
+            next.setVersion(current.getVersion() + 1);
+            if (records.replace(resId, current, next)) break;
         }
-        
-        if (!found) return false;
-        return rewriteFile(all); // 파일 덮어쓰기
+        return commit(records, resId) ? new Update(Update.Outcome.UPDATED, next.getVersion()) : Update.FAILED;
     }
-    
+
+    /**
+     * 최신 예약 맵에서 교체한 예약을 인덱스/View와 로그에 반영
+     * - 같은 예약의 교체가 잠금에 들어오는 순서는 교체 순서와 다를 수 있으므로, 항상 그 시점의 최신 예약을 통째로(SET) 기록
+     *   (뒤의 교체가 먼저 들어와 앞의 변경까지 기록했으면 할 일 없음 → 로그에는 변경 번호가 늘어나는 순서로만 남음)
+     * @return 변경이 로그에 기록되었으면(배치 중이면 배치에 들어갔으면) true, 기록 실패로 변경이 사라졌으면 false
+     */
+    private synchronized boolean commit(ConcurrentHashMap<String, Reservation> records, String resId) {
+        if (latest != records) return false; // 그 사이 기록 실패로 파일에서 다시 읽음
+        Reservation newest = records.get(resId);
+        Reservation indexed = cache.get(resId);
+        if (newest == null || indexed == null || newest.getVersion() <= indexed.getVersion()) {
+            // 이미 반영됨 (또는 그 뒤 삭제됨): 다른 배치가 미뤄 둔 줄에 들어 있으면 지금 기록
+            return batches.current() != null || pendingLog.isEmpty() || writePending();
+        }
+        index(newest);
+        publish(resId);
+        return append(OP_SET + "," + row(newest));
+    }
+
     public synchronized boolean delete(String resId) {
-        List<Reservation> all = findAll();
-        if (all.removeIf(r -> r.getReservationId().equals(resId))) {
-            return rewriteFile(all);
+        store();
+        if (remove(resId) != null) {
+            publish(resId);
+            return append(OP_DELETE + "," + resId);
         }
         return false;
     }
-    
+
     /**
          * reservation.csv 파일의 지정한 기간 내 Confirmed 상태의 예약만 반환
          * 예약의 체크인~체크아웃 날짜와 보고서의 시작~끝 날짜의 기간이 겹치는지 확인
          * 겹치면 집계, 아니면 무시
          */
-        public synchronized List<Reservation> findConfirmedInPeriod(String startDate, String endDate) {
-            List<Reservation> all = findAll();
+        public List<Reservation> findConfirmedInPeriod(String startDate, String endDate) {
             List<Reservation> result = new ArrayList<>();
-            for (Reservation r : all) {
+            for (Reservation r : view().byId().values()) {
                 if (!"Confirmed".equalsIgnoreCase(r.getReservationStatus().trim())) continue;
                 // 예약이 기간과 겹치는지 확인
                 if (isOverlap(r.getCheckInDate(), r.getCheckOutDate(), startDate, endDate)) {
-                    result.add(r);
+                    result.add(new Reservation(r));
                 }
             }
             return result;
@@ -133,13 +675,12 @@ public class ReservationRepository {
         /**
          * 오늘날짜 기준 Confirmed 상태의 투숙 중 예약 반환
          */
-        public synchronized List<Reservation> findConfirmedToday(String today) {
-            List<Reservation> all = findAll();
+        public List<Reservation> findConfirmedToday(String today) {
             List<Reservation> result = new ArrayList<>();
-            for (Reservation r : all) {
+            for (Reservation r : view().byId().values()) {
                 if (!"Confirmed".equalsIgnoreCase(r.getReservationStatus().trim())) continue;
                 if (isDateInRange(today, r.getCheckInDate(), r.getCheckOutDate())) {
-                    result.add(r);
+                    result.add(new Reservation(r));
                 }
             }
             return result;
@@ -148,7 +689,7 @@ public class ReservationRepository {
         /**
          * 지정한 날짜에 투숙 중인 Confirmed 예약 반환
          */
-        public synchronized List<Reservation> findConfirmedOnDate(String date) {
+        public List<Reservation> findConfirmedOnDate(String date) {
             return findConfirmedToday(date);
         }
 
@@ -1,52 +1,112 @@
 package server.repository;
+import server.log.Log;
 import server.model.*;
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.*;
 /**
- *
+ * 객실 저장소 (rooms.csv, storage.rooms.backend로 저장 방식 선택)
+ * - 목록은 처음 읽을 때 메모리에 두고, 쓰기는 파일 기록 후 메모리에도 반영
+ * - 운영자가 rooms.csv를 직접 고치면 파일 감시(DataFileWatcher)가 알려 주어 캐시를 비우고 다음 조회 때 다시 읽음
+ * - 조회는 쓰기마다 새로 공개하는 불변 스냅샷(목록 + 방 번호 인덱스)에서 잠금 없이 처리, 쓰기끼리만 잠금으로 순서를 맞춤
  * @author user
  */
 public class RoomRepository {
-    private static final String ROOM_FILE_PATH = "data/rooms.csv";
+    private static final String HEADER = "RoomNum,Type,Price,Capacity,Description";
+
+    private final RecordStore store;
+    // 파일에서 읽은 객실 목록의 불변 스냅샷 (null이면 다음 조회 때 다시 읽음). Room은 바뀌지 않는 객체라 그대로 공유
+    private volatile Snapshot cache = null;
+
+    /** 객실 목록(파일 순서)과 방 번호 → 객실 (같은 번호가 여러 줄이면 첫 줄) */
+    private record Snapshot(List<Room> rooms, Map<String, Room> byNumber) {
+        static Snapshot of(List<Room> rooms) {
+            Map<String, Room> byNumber = new HashMap<>();
+            for (Room r : rooms) byNumber.putIfAbsent(r.getRoomNumber(), r);
+            return new Snapshot(List.copyOf(rooms), Collections.unmodifiableMap(byNumber));
+        }
+    }
+
+    public RoomRepository() {
+        this.store = StorageFactory.open("rooms", "rooms.csv", HEADER, Charset.defaultCharset());
+        store.watch(this::invalidate);
+    }
     
         /** 모든 사용자 목록 조회 */
-    public synchronized List<Room> findAll(){
-        List<Room> RoomList = new ArrayList<>();
-        File file = new File(ROOM_FILE_PATH);
-        if(!file.exists()) 
-            return RoomList; // 빈 리스트 반환
-        
-        try(BufferedReader reader = new BufferedReader(new FileReader(file))){
-            String line;
-            reader.readLine();
-            
-            while((line = reader.readLine()) != null){
-                String[] parts = line.split(",");
-                if(parts.length >= 5){
-                    RoomList.add(new Room(parts[0].trim(), parts[1].trim(), Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()), parts[4].trim()));
-                }
+    public List<Room> findAll(){
+        Snapshot snap = snapshot();
+        return snap == null ? new ArrayList<>() : new ArrayList<>(snap.rooms());
+    }
+
+    /** 현재 스냅샷 (처음이거나 캐시를 비운 뒤면 잠금 안에서 파일을 읽음, 읽기 실패 시 null) */
+    private Snapshot snapshot() {
+        Snapshot snap = cache;
+        return snap != null ? snap : load();
+    }
+
+    private synchronized Snapshot load() {
+        if (cache == null) {
+            try {
+                cache = Snapshot.of(store.read(RoomRepository::parse));
+            }
+            catch(IOException ex){
+                Log.error("객실 파일 읽기 오류", ex);
+                return null;
             }
         }
-        catch(IOException ex){
-            ex.printStackTrace();
+        return cache;
+    }
+
+    /** 파일이 밖에서 바뀌었을 때 (다음 조회 때 다시 읽음) */
+    private synchronized void invalidate() {
+        cache = null;
+        Log.info("[RoomRepository] rooms.csv 변경 감지: 객실 캐시 비움");
+    }
+
+    /** 기록한 줄을 다시 읽었을 때와 같은 값으로 캐시 갱신 */
+    private void cached(List<String> lines) {
+        List<Room> rooms = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            Room r = parse(line);
+            if (r != null) rooms.add(r);
         }
-        return RoomList;
+        cache = Snapshot.of(rooms);
+    }
+
+    private static Room parse(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 5) return null;
+        return new Room(parts[0].trim(), parts[1].trim(), Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()), parts[4].trim());
+    }
+
+    private static String format(Room room) {
+        return String.format("%s,%s,%d,%d,%s",
+                room.getRoomNumber(), room.getType(), room.getPrice(), room.getCapacity(), room.getDescription());
     }
         public Room findByNumber(String roomNum){
-            return findAll().stream().filter(r -> r.getRoomNumber().equals(roomNum)).findFirst().orElse(null);
+            Snapshot snap = snapshot();
+            return snap == null ? null : snap.byNumber().get(roomNum);
         }
         
         public synchronized boolean add(Room room) {
         // 이미 존재하는 방 번호인지 확인
         if (findByNumber(room.getRoomNumber()) != null) return false;
 
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(ROOM_FILE_PATH, true))) {
-            bw.newLine();
-            String line = String.format("%s,%s,%d,%d,%s", 
-                    room.getRoomNumber(), room.getType(), room.getPrice(), room.getCapacity(), room.getDescription());
-            bw.write(line);
+        String line = format(room);
+        try {
+            store.append(List.of(line));
+            Room stored = parse(line);
+            Snapshot snap = cache;
+            if (snap != null && stored != null) {
+                List<Room> rooms = new ArrayList<>(snap.rooms());
+                rooms.add(stored);
+                cache = Snapshot.of(rooms);
+            }
             return true;
-        } catch (IOException e) { return false; }
+        } catch (IOException e) {
+            cache = null;
+            return false;
+        }
     }
 
     public synchronized boolean update(Room newRoom) {
@@ -74,16 +134,16 @@ public class RoomRepository {
     }
 
     private boolean rewriteFile(List<Room> rooms) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(ROOM_FILE_PATH))) {
-            bw.write("RoomNum,Type,Price,Capacity,Description"); // 헤더
-            for (Room r : rooms) {
-                bw.newLine();
-                String line = String.format("%s,%s,%d,%d,%s", 
-                        r.getRoomNumber(), r.getType(), r.getPrice(), r.getCapacity(), r.getDescription());
-                bw.write(line);
-            }
+        List<String> lines = new ArrayList<>(rooms.size());
+        for (Room r : rooms) lines.add(format(r));
+        try {
+            store.replaceAll(lines);
+            cached(lines);
             return true;
-        } catch (IOException e) { return false; }
+        } catch (IOException e) {
+            cache = null;
+            return false;
+        }
     }
     }
     
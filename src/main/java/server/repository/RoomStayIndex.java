@@ -0,0 +1,175 @@
+package server.repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import server.model.Reservation;
+
+/**
+ * 방별 투숙 인덱스 (CheckedOut이 아닌 예약만 포함)
+ * - nights: 숙박일 비트맵. 입실일~퇴실 전날에 비트를 켜 두어 기간 겹침을 64일당 워드 한 번 비교로 확인
+ * - confirmedDays: Confirmed 예약의 입실일~퇴실일(포함) 비트맵. 점유율 보고서에서 사용
+ * - tree: 숙박 구간 [입실, 퇴실)의 IntervalTree. 예약이 빠질 때 같은 날짜를 쓰는 다른 예약의 비트를 되살리는 데 사용
+ * - yyyy-MM-dd 형식이 아니거나 입실일 >= 퇴실일인 예약은 irregular에 따로 두고 문자열 비교로 확인
+ *   (기존 isDateOverlapping의 문자열 비교 결과와 항상 같도록)
+ * ReservationRepository의 잠금 안에서만 사용한다. 잠금 없이 읽을 때는 nights()/confirmedDays()로 뜬 복사본(View)을 쓴다.
+ * @author user
+ */
+final class RoomStayIndex {
+    private static final long NO_DAY = Long.MIN_VALUE;
+
+    private static final class RoomStays {
+        /** 이 방의 활성 예약 (예약번호 → 예약) */
+        final Map<String, Reservation> active = new HashMap<>();
+        /** 그중 트리/숙박 비트맵에 넣지 못한 예약 */
+        final Map<String, Reservation> irregular = new HashMap<>();
+        final IntervalTree tree = new IntervalTree();
+        final DayBitmap nights = new DayBitmap();
+        final DayBitmap confirmedDays = new DayBitmap();
+    }
+
+    private final Map<String, RoomStays> rooms = new HashMap<>();
+
+    /** 방 하나의 숙박일 비트맵과 비트맵에 넣지 못한 예약의 복사본 (공개한 뒤 바꾸지 않으므로 잠금 없이 확인) */
+    record Nights(DayBitmap days, List<Reservation> irregular) {
+        /** [reqIn, reqOut)과 겹치는 투숙이 있는지 (isNightRange인 기간이어야 함) */
+        boolean overlaps(String reqIn, String reqOut) {
+            for (Reservation r : irregular) {
+                if (RoomStayIndex.overlaps(reqIn, reqOut, r.getCheckInDate(), r.getCheckOutDate())) return true;
+            }
+            return days.any(epochDay(reqIn), epochDay(reqOut)); // 숙박일 비트 AND
+        }
+    }
+
+    static boolean isActive(Reservation r) {
+        return !"CheckedOut".equals(r.getReservationStatus());
+    }
+
+    static boolean isConfirmed(Reservation r) {
+        return "Confirmed".equalsIgnoreCase(r.getReservationStatus().trim());
+    }
+
+    /** (요청 시작 < 기존 종료) AND (요청 종료 > 기존 시작) */
+    static boolean overlaps(String reqIn, String reqOut, String existIn, String existOut) {
+        return (reqIn.compareTo(existOut) < 0) && (reqOut.compareTo(existIn) > 0);
+    }
+
+    /** yyyy-MM-dd 날짜의 epoch-day (문자열 순서와 날짜 순서가 같은 형식만 인정, 아니면 NO_DAY) */
+    static long epochDay(String date) {
+        if (date == null || date.length() != 10) return NO_DAY;
+        try {
+            return LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeParseException ex) {
+            return NO_DAY;
+        }
+    }
+
+    static boolean isIndexable(String in, String out) {
+        return epochDay(in) != NO_DAY && epochDay(out) != NO_DAY;
+    }
+
+    /** 숙박일 비트맵으로 겹침을 확인할 수 있는 기간인지 (yyyy-MM-dd 형식이고 입실일 < 퇴실일) */
+    static boolean isNightRange(String in, String out) {
+        long lo = epochDay(in);
+        long hi = epochDay(out);
+        return lo != NO_DAY && hi != NO_DAY && lo < hi;
+    }
+
+    void add(Reservation r) {
+        if (!isActive(r)) return;
+        RoomStays rs = rooms.computeIfAbsent(r.getRoomNumber(), k -> new RoomStays());
+        rs.active.put(r.getReservationId(), r);
+        long lo = epochDay(r.getCheckInDate());
+        long hi = epochDay(r.getCheckOutDate());
+        if (lo != NO_DAY && hi != NO_DAY && lo < hi) {
+            rs.tree.insert(lo, hi, r.getReservationId());
+            rs.nights.set(lo, hi);
+        } else {
+            rs.irregular.put(r.getReservationId(), r);
+        }
+        if (isConfirmed(r) && lo != NO_DAY && hi != NO_DAY) rs.confirmedDays.set(lo, hi + 1);
+    }
+
+    void remove(Reservation r) {
+        if (!isActive(r)) return;
+        RoomStays rs = rooms.get(r.getRoomNumber());
+        if (rs == null || rs.active.remove(r.getReservationId()) == null) return;
+        long lo = epochDay(r.getCheckInDate());
+        long hi = epochDay(r.getCheckOutDate());
+        if (rs.irregular.remove(r.getReservationId()) == null) {
+            rs.tree.remove(lo, hi, r.getReservationId());
+            rs.nights.clear(lo, hi);
+            // 같은 날짜에 걸친 다른 예약의 숙박일은 다시 켬
+            rs.tree.forEachOverlap(lo, hi, (slo, shi, id) -> rs.nights.set(Math.max(lo, slo), Math.min(hi, shi)));
+        }
+        if (isConfirmed(r) && lo != NO_DAY && hi != NO_DAY) {
+            rs.confirmedDays.clear(lo, hi + 1);
+            restoreConfirmed(rs, lo, hi + 1);
+        }
+        if (rs.active.isEmpty()) rooms.remove(r.getRoomNumber());
+    }
+
+    /** [from, to) 일자에 걸친 Confirmed 예약의 비트를 다시 켬 */
+    private static void restoreConfirmed(RoomStays rs, long from, long to) {
+        // 입실~퇴실(포함) 일자 [slo, shi + 1)이 [from, to)와 겹치려면 slo < to && shi > from - 1
+        rs.tree.forEachOverlap(from - 1, to, (slo, shi, id) -> {
+            if (isConfirmed(rs.active.get(id))) rs.confirmedDays.set(Math.max(from, slo), Math.min(to, shi + 1));
+        });
+        for (Reservation s : rs.irregular.values()) {
+            long slo = epochDay(s.getCheckInDate());
+            long shi = epochDay(s.getCheckOutDate());
+            if (isConfirmed(s) && slo != NO_DAY && shi != NO_DAY) {
+                rs.confirmedDays.set(Math.max(from, slo), Math.min(to, shi + 1));
+            }
+        }
+    }
+
+    /** roomNum 방의 숙박일 복사본 (활성 예약이 없는 방은 null) */
+    Nights nights(String roomNum) {
+        RoomStays rs = rooms.get(roomNum);
+        return rs == null ? null : nights(rs);
+    }
+
+    /** 방 번호 → 숙박일 복사본 (활성 예약이 있는 방만) */
+    Map<String, Nights> nights() {
+        Map<String, Nights> result = new HashMap<>();
+        for (Map.Entry<String, RoomStays> e : rooms.entrySet()) result.put(e.getKey(), nights(e.getValue()));
+        return result;
+    }
+
+    private static Nights nights(RoomStays rs) {
+        List<Reservation> irregular = new ArrayList<>(rs.irregular.size());
+        for (Reservation r : rs.irregular.values()) irregular.add(new Reservation(r));
+        return new Nights(rs.nights.copy(), List.copyOf(irregular));
+    }
+
+    /** roomNum 방의 Confirmed 일자 비트맵 복사본 (활성 예약이 없는 방은 null) */
+    DayBitmap confirmedDays(String roomNum) {
+        RoomStays rs = rooms.get(roomNum);
+        return rs == null ? null : rs.confirmedDays.copy();
+    }
+
+    /** 방 번호 → Confirmed 일자 비트맵 복사본 (활성 예약이 있는 방만) */
+    Map<String, DayBitmap> confirmedDays() {
+        Map<String, DayBitmap> result = new HashMap<>();
+        for (Map.Entry<String, RoomStays> e : rooms.entrySet()) result.put(e.getKey(), e.getValue().confirmedDays.copy());
+        return result;
+    }
+
+    /**
+     * 방 번호 → [from, to) 일자의 Confirmed 투숙 비트 (i번 비트 = from + i 일, 투숙이 없는 방은 제외)
+     * - confirmedDays()로 떠 둔 복사본에서 계산하므로 잠금이 필요 없음
+     */
+    static Map<String, long[]> slice(Map<String, DayBitmap> days, long from, long to) {
+        Map<String, long[]> result = new HashMap<>();
+        for (Map.Entry<String, DayBitmap> e : days.entrySet()) {
+            if (!e.getValue().any(from, to)) continue;
+            result.put(e.getKey(), e.getValue().slice(from, to));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,259 @@
+package server.repository;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 바꿀 때마다 새 맵을 돌려주는 불변 맵 (넣은 순서대로 순회)
+ * - with/without은 바뀐 경로의 노드(32칸 배열 몇 개)만 새로 만들고 나머지는 이전 맵과 공유하므로 O(log n)
+ *   (쓰기마다 View를 새로 공개해도 전체를 복사하지 않음)
+ * - 키 → 순번은 해시 트라이(HAMT), 순번 → 항목은 32갈래 벡터에 둠. 이미 있는 키를 바꾸면 순서 유지, 지운 자리는 비워 둠
+ * - 비운 자리가 남은 항목보다 많아지면 한 번 새로 만들어 순회 비용이 늘지 않게 함
+ * 공개한 뒤에는 바뀌지 않으므로 잠금 없이 여러 스레드가 읽어도 된다.
+ * @author user
+ */
+final class SharedMap<K, V> extends AbstractMap<K, V> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final SharedMap<?, ?> EMPTY = new SharedMap<>(null, new Object[WIDTH], 0, 0, 0);
+
+    /** 키 트라이의 잎: 키와 벡터 순번 */
+    private record Leaf(Object key, int hash, int seq) {
+    }
+
+    /** 32비트 해시가 같은 키들 */
+    private record Collision(int hash, Leaf[] leaves) {
+    }
+
+    /** 해시 5비트씩으로 나눈 트라이 노드 (bitmap에 켜진 칸만 slots에 순서대로) */
+    private record Node(int bitmap, Object[] slots) {
+    }
+
+    private final Node keys;       // null이면 빈 맵
+    private final Object[] root;   // 순번 → Map.Entry (지운 자리는 null)
+    private final int shift;       // 벡터 루트의 높이 (0이면 잎 하나)
+    private final int count;       // 벡터에 쓴 칸 수 (지운 자리 포함)
+    private final int size;        // 남은 항목 수
+
+    private SharedMap(Node keys, Object[] root, int shift, int count, int size) {
+        this.keys = keys;
+        this.root = root;
+        this.shift = shift;
+        this.count = count;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> SharedMap<K, V> empty() {
+        return (SharedMap<K, V>) EMPTY;
+    }
+
+    /** map의 순회 순서대로 담은 새 맵 */
+    static <K, V> SharedMap<K, V> of(Map<K, V> map) {
+        SharedMap<K, V> result = empty();
+        for (Map.Entry<K, V> e : map.entrySet()) result = result.with(e.getKey(), e.getValue());
+        return result;
+    }
+
+    /** key → value를 넣은 새 맵 (이미 있는 키면 같은 자리에서 값만 바뀜) */
+    SharedMap<K, V> with(K key, V value) {
+        Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>(key, value);
+        int hash = hash(key);
+        Leaf found = find(key, hash);
+        if (found != null) {
+            return new SharedMap<>(keys, assoc(root, shift, found.seq(), entry), shift, count, size);
+        }
+        Object[] newRoot = root;
+        int newShift = shift;
+        if (count == 1 << (shift + BITS)) { // 벡터가 가득 참: 한 층 높임
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newShift += BITS;
+        }
+        Leaf leaf = new Leaf(key, hash, count);
+        Node newKeys = put(keys == null ? new Node(0, new Object[0]) : keys, leaf, 0);
+        return new SharedMap<>(newKeys, assoc(newRoot, newShift, count, entry), newShift, count + 1, size + 1);
+    }
+
+    /** key를 뺀 새 맵 (없으면 이 맵 그대로) */
+    SharedMap<K, V> without(K key) {
+        int hash = hash(key);
+        Leaf found = find(key, hash);
+        if (found == null) return this;
+        if (size == 1) return empty();
+        Node newKeys = remove(keys, key, hash, 0);
+        SharedMap<K, V> result = new SharedMap<>(newKeys, assoc(root, shift, found.seq(), null), shift, count, size - 1);
+        // 비운 자리가 남은 항목보다 많으면 새로 만들어 순회할 칸 수를 항목 수의 두 배 이하로 유지
+        return count > WIDTH && count - result.size > result.size ? of(result) : result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Leaf leaf = find(key, hash(key));
+        return leaf == null ? null : ((Map.Entry<K, V>) entryAt(leaf.seq())).getValue();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key, hash(key)) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    private int advance(int i) {
+                        while (i < count && entryAt(i) == null) i++;
+                        return i;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < count;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Map.Entry<K, V> next() {
+                        if (next >= count) throw new NoSuchElementException();
+                        Map.Entry<K, V> e = (Map.Entry<K, V>) entryAt(next);
+                        next = advance(next + 1);
+                        return e;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static int hash(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // ---- 순번 → 항목 벡터 ----
+
+    private Object entryAt(int i) {
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) node = (Object[]) node[(i >>> level) & MASK];
+        return node[i & MASK];
+    }
+
+    /** i번 칸을 value로 바꾼 새 경로 (없는 중간 노드는 만듦) */
+    private static Object[] assoc(Object[] node, int level, int i, Object value) {
+        Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+        if (level == 0) {
+            copy[i & MASK] = value;
+        } else {
+            int idx = (i >>> level) & MASK;
+            copy[idx] = assoc((Object[]) copy[idx], level - BITS, i, value);
+        }
+        return copy;
+    }
+
+    // ---- 키 → 순번 트라이 ----
+
+    private Leaf find(Object key, int hash) {
+        Object slot = keys;
+        for (int shift = 0; slot instanceof Node node; shift += BITS) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((node.bitmap() & bit) == 0) return null;
+            slot = node.slots()[Integer.bitCount(node.bitmap() & (bit - 1))];
+        }
+        if (slot instanceof Leaf leaf) return leaf.hash() == hash && leaf.key().equals(key) ? leaf : null;
+        if (slot instanceof Collision c && c.hash() == hash) {
+            for (Leaf leaf : c.leaves()) if (leaf.key().equals(key)) return leaf;
+        }
+        return null;
+    }
+
+    /** leaf를 넣은 새 노드 (같은 키는 없다고 가정: with에서 먼저 확인) */
+    private static Node put(Node node, Leaf leaf, int shift) {
+        int bit = 1 << ((leaf.hash() >>> shift) & MASK);
+        int idx = Integer.bitCount(node.bitmap() & (bit - 1));
+        Object[] slots = node.slots();
+        if ((node.bitmap() & bit) == 0) {
+            Object[] grown = new Object[slots.length + 1];
+            System.arraycopy(slots, 0, grown, 0, idx);
+            grown[idx] = leaf;
+            System.arraycopy(slots, idx, grown, idx + 1, slots.length - idx);
+            return new Node(node.bitmap() | bit, grown);
+        }
+        Object existing = slots[idx];
+        Object replaced;
+        if (existing instanceof Node child) {
+            replaced = put(child, leaf, shift + BITS);
+        } else if (existing instanceof Leaf other && other.hash() != leaf.hash()) {
+            replaced = split(other, other.hash(), leaf, shift + BITS);
+        } else if (existing instanceof Collision c && c.hash() != leaf.hash()) {
+            replaced = split(c, c.hash(), leaf, shift + BITS);
+        } else {
+            // 해시가 같은 키: 충돌 목록에 추가
+            Leaf[] leaves = existing instanceof Collision c ? c.leaves() : new Leaf[] { (Leaf) existing };
+            Leaf[] grown = new Leaf[leaves.length + 1];
+            System.arraycopy(leaves, 0, grown, 0, leaves.length);
+            grown[leaves.length] = leaf;
+            replaced = new Collision(leaf.hash(), grown);
+        }
+        Object[] copy = slots.clone();
+        copy[idx] = replaced;
+        return new Node(node.bitmap(), copy);
+    }
+
+    /** 해시가 다른 기존 칸(existing)과 leaf를 함께 담은 노드 */
+    private static Node split(Object existing, int existingHash, Leaf leaf, int shift) {
+        int a = (existingHash >>> shift) & MASK;
+        int b = (leaf.hash() >>> shift) & MASK;
+        if (a == b) return new Node(1 << a, new Object[] { split(existing, existingHash, leaf, shift + BITS) });
+        return new Node((1 << a) | (1 << b), a < b ? new Object[] { existing, leaf } : new Object[] { leaf, existing });
+    }
+
+    /** key를 뺀 새 노드 (비면 null) */
+    private static Node remove(Node node, Object key, int hash, int shift) {
+        int bit = 1 << ((hash >>> shift) & MASK);
+        if ((node.bitmap() & bit) == 0) return node;
+        int idx = Integer.bitCount(node.bitmap() & (bit - 1));
+        Object existing = node.slots()[idx];
+        Object replaced;
+        if (existing instanceof Node child) {
+            replaced = remove(child, key, hash, shift + BITS);
+        } else if (existing instanceof Collision c) {
+            Leaf[] left = new Leaf[c.leaves().length - 1];
+            int n = 0;
+            for (Leaf leaf : c.leaves()) if (!leaf.key().equals(key)) left[n++] = leaf;
+            replaced = n == 1 ? left[0] : new Collision(c.hash(), left);
+        } else {
+            replaced = null; // find로 확인한 키의 잎
+        }
+        if (replaced != null) {
+            Object[] copy = node.slots().clone();
+            copy[idx] = replaced;
+            return new Node(node.bitmap(), copy);
+        }
+        if (node.slots().length == 1) return null;
+        Object[] shrunk = new Object[node.slots().length - 1];
+        System.arraycopy(node.slots(), 0, shrunk, 0, idx);
+        System.arraycopy(node.slots(), idx + 1, shrunk, idx, shrunk.length - idx);
+        return new Node(node.bitmap() & ~bit, shrunk);
+    }
+}
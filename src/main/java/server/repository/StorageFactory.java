@@ -0,0 +1,65 @@
+package server.repository;
+
+import java.nio.charset.Charset;
+
+import server.config.ServerConfig;
+import server.log.Log;
+
+/**
+ * 저장소별 RecordStore(저장 백엔드)를 설정에 따라 만들어 주는 선택기
+ * - storage.backend: 전체 기본값 (csv | memory | binlog, 기본 csv)
+ * - storage.&lt;이름&gt;.backend: 저장소별 지정 (예: storage.reservations.backend=binlog)
+ * - csv: data/&lt;파일&gt; 텍스트 파일 (기존 방식, 덧붙이기만 하는 파일은 openAppendOnly로 열어 메모리 매핑으로 읽음)
+ * - memory: 기존 CSV를 초기 데이터로 읽고 이후 변경은 메모리에만 둠
+ * - binlog: data/&lt;이름&gt;.bin 바이너리 로그 (처음 사용할 때 기존 CSV 내용을 옮겨 담음)
+ * @author user
+ */
+public final class StorageFactory {
+    private static final String DATA_DIR = "data/";
+    private static final String DEFAULT_BACKEND = ServerConfig.getString("storage.backend", "csv");
+
+    private StorageFactory() {
+    }
+
+    /**
+     * @param name    저장소 이름 (설정 키와 바이너리 로그 파일 이름에 사용, 예: reservations, reservations-log)
+     * @param file    CSV 파일 이름 (data/ 아래, 예: reservations.csv)
+     * @param header  CSV 헤더 줄 (헤더 없는 파일이면 null)
+     * @param charset CSV 파일 문자셋
+     */
+    public static RecordStore open(String name, String file, String header, Charset charset) {
+        return open(name, file, header, charset, false);
+    }
+
+    /** open과 같지만 덧붙이기만 하고 다시 쓰지 않는 파일 (csv 백엔드가 메모리 매핑으로 읽음) */
+    public static RecordStore openAppendOnly(String name, String file, String header, Charset charset) {
+        return open(name, file, header, charset, true);
+    }
+
+    private static RecordStore open(String name, String file, String header, Charset charset, boolean appendOnly) {
+        CsvRecordStore csv = new CsvRecordStore(name, DATA_DIR + file, header, charset, appendOnly);
+        String backend = backendOf(name);
+        switch (backend) {
+            case "csv":
+                return csv;
+            case "memory":
+                Log.info("[" + name + "] 저장 방식: memory (변경은 파일에 기록하지 않음)");
+                return new MemoryRecordStore(name, csv);
+            case "binlog":
+                Log.info("[" + name + "] 저장 방식: binlog (" + DATA_DIR + name + ".bin)");
+                return new BinaryLogRecordStore(name, DATA_DIR + name + ".bin", csv);
+            default:
+                Log.warn("알 수 없는 저장 방식, csv 사용: ", backend);
+                return csv;
+        }
+    }
+
+    /** 저장소 이름의 백엔드 설정 ("reservations-log"처럼 '-' 뒤가 붙은 이름은 앞부분 설정도 따름) */
+    private static String backendOf(String name) {
+        String own = ServerConfig.getString("storage." + name + ".backend", null);
+        if (own == null && name.indexOf('-') > 0) {
+            own = ServerConfig.getString("storage." + name.substring(0, name.indexOf('-')) + ".backend", null);
+        }
+        return (own == null ? DEFAULT_BACKEND : own).toLowerCase();
+    }
+}
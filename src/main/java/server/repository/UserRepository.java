@@ -1,19 +1,71 @@
 package server.repository;
+import server.log.Log;
 import server.model.User;
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 /**
- *
+ * 사용자 저장소 (users.csv, storage.users.backend로 저장 방식 선택)
+ * - 목록은 처음 읽을 때 메모리에 두고 아이디 인덱스로 로그인 조회를 처리, 쓰기는 파일 기록 후 메모리에도 반영
+ * - 운영자가 users.csv를 직접 고치면 파일 감시(DataFileWatcher)가 알려 주어 캐시를 비우고 다음 조회 때 다시 읽음
+ * - 조회는 쓰기마다 새로 공개하는 불변 스냅샷에서 잠금 없이 처리, 쓰기끼리만 잠금으로 순서를 맞춤
  * @author user
  */
 public class UserRepository {
-    private static final String USER_FILE_PATH = "data/users.csv"; // CSV 파일 경로 (단일 경로)
+    private static final String HEADER = "ID,Password,Role,Phone,Name";
     private static final int ID_INDEX = 0;
     private static final int PW_INDEX = 1;
     private static final int ROLE_INDEX = 2;
     private static final int PHONE_INDEX = 3;
     private static final int NAME_INDEX = 4;
+
+    private final RecordStore store;
+    // 파일에서 읽은 사용자 목록의 불변 스냅샷. null이면 다음 조회 때 다시 읽음
+    // 스냅샷 안의 User는 공개한 뒤 바꾸지 않으며, 호출자에게는 복사본을 줌
+    private volatile Snapshot cache = null;
+
+    /** 사용자 목록(파일 순서)과 아이디 → 사용자 (같은 아이디가 여러 줄이면 첫 줄) */
+    private record Snapshot(List<User> users, Map<String, User> byId) {
+        static Snapshot of(List<User> users) {
+            Map<String, User> byId = new HashMap<>();
+            for (User u : users) byId.putIfAbsent(u.getId(), u);
+            return new Snapshot(List.copyOf(users), Collections.unmodifiableMap(byId));
+        }
+    }
+
+    public UserRepository() {
+        this.store = StorageFactory.open("users", "users.csv", HEADER, Charset.defaultCharset());
+        store.watch(this::invalidate);
+    }
+
+    /** 파일이 밖에서 바뀌었을 때 (다음 조회 때 다시 읽음) */
+    private synchronized void invalidate() {
+        cache = null;
+        Log.info("[UserRepository] users.csv 변경 감지: 사용자 캐시 비움");
+    }
+
+    /** 현재 스냅샷 (처음이거나 캐시를 비운 뒤면 잠금 안에서 파일을 읽음, 읽기 실패 시 null) */
+    private Snapshot snapshot() {
+        Snapshot snap = cache;
+        return snap != null ? snap : load();
+    }
+
+    private synchronized Snapshot load() {
+        if (cache == null) {
+            try {
+                cache = Snapshot.of(store.read(UserRepository::parse));
+            }
+            catch(IOException ex){
+                Log.error("[UserRepository] users.csv 읽기 오류", ex);
+                return null;
+            }
+        }
+        return cache;
+    }
     
     /**
      * 아이디로 사용자 한 명을 조회.
@@ -21,93 +73,69 @@ public class UserRepository {
      * @param id 조회할 사용자 ID
      * @return User 또는 null
      */
-    public synchronized User findByUsername(String id) {
-        File f = new File(USER_FILE_PATH);
-        try (BufferedReader reader = new BufferedReader(new FileReader(f))) {
-            String line = reader.readLine(); // 헤더 스킵
-            while((line = reader.readLine()) != null){
-                String[] parts = line.split(",");
-                if(parts.length == 5 && parts[ID_INDEX].trim().equals(id)){
-                    String phone = parts[PHONE_INDEX].trim();
-                    String name = parts[NAME_INDEX].trim();
-                    return new User(parts[ID_INDEX].trim(), name, parts[PW_INDEX].trim(), parts[ROLE_INDEX].trim(), phone);
-                }
-            }
-        }
-        catch(IOException ex){
-            System.out.println("CVS 파일찾기 오류");
-            ex.printStackTrace();
-        }
-        return null; //사용자를 찾기 못함
+    public User findByUsername(String id) {
+        Snapshot snap = snapshot();
+        if (snap == null) return null;
+        User user = snap.byId().get(id);
+        return user == null ? null : new User(user); //사용자를 찾기 못하면 null
     } 
 
     /** 아이디 존재 여부 */
-    public synchronized boolean existsByUsername(String id){
+    public boolean existsByUsername(String id){
         return findByUsername(id) != null;
     }
     
     /** 모든 사용자 목록 조회 */
-    public synchronized List<User> findAll(){
-        List<User> userList = new ArrayList<>();
-        File file = new File(USER_FILE_PATH);
-        
-        if(!file.exists()) return userList; // 빈 리스트 반환
-        
-        try(BufferedReader reader = new BufferedReader(new FileReader(file))){
-            String line;
-            reader.readLine();
-            
-            while((line = reader.readLine()) != null){
-                String[] parts = line.split(",");
-                if(parts.length == 5){
-                    String phone = parts[PHONE_INDEX].trim();
-                    String name = parts[NAME_INDEX].trim();
-                    userList.add(new User(parts[ID_INDEX].trim(), name, parts[PW_INDEX].trim(), parts[ROLE_INDEX].trim(), phone));
-                }
-            }
+    public List<User> findAll(){
+        Snapshot snap = snapshot();
+        List<User> list = new ArrayList<>(snap == null ? 0 : snap.users().size());
+        if (snap != null) {
+            for (User u : snap.users()) list.add(new User(u));
         }
-        catch(IOException ex){
-            ex.printStackTrace();
-        }
-        return userList;
+        return list;
+    }
+
+    /** CSV 한 줄을 User로 변환 (열 개수가 맞지 않으면 null → 무시) */
+    private static User parse(String line) {
+        String[] parts = line.split(",");
+        if (parts.length != 5) return null;
+        String phone = parts[PHONE_INDEX].trim();
+        String name = parts[NAME_INDEX].trim();
+        return new User(parts[ID_INDEX].trim(), name, parts[PW_INDEX].trim(), parts[ROLE_INDEX].trim(), phone);
+    }
+
+    private static String format(User u) {
+        return String.format("%s,%s,%s,%s,%s", u.getId(), u.getPassword(), u.getRole(), u.getPhone(), u.getName());
+    }
+
+    private static List<String> format(List<User> users) {
+        List<String> lines = new ArrayList<>(users.size());
+        for (User u : users) lines.add(format(u));
+        return lines;
     }
     
     /**
      * 사용자 추가 (중복 검사하지 않음 - 상위 서비스에서 수행)
      * 파일이 없거나 비어있으면 헤더 추가 후 행 append.
+     * (마지막 줄이 개행으로 끝나지 않은 파일이어도 항상 새 줄에 기록 - CsvRecordStore)
      */
     public synchronized boolean add(User user){
-        File file = new File(USER_FILE_PATH);
-        boolean needHeader = !file.exists() || file.length() == 0;
-        try(BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))){
-            if(needHeader){
-                writer.write("ID,Password,Role,Phone,Name");
-                writer.newLine();
-                writer.flush(); // 헤더와 데이터 사이 줄바꿈 보장
-            }
-            // 파일이 비어있지 않더라도 마지막 줄이 개행으로 끝나지 않은 경우를 방지
-            // (윈도우 메모장 등에서 파일이 잘못 저장된 경우)
-            // 항상 줄의 시작에 데이터가 오도록 강제
-            else {
-                RandomAccessFile raf = new RandomAccessFile(file, "rw");
-                if (raf.length() > 0) {
-                    raf.seek(raf.length() - 1);
-                    int last = raf.read();
-                    if (last != '\n' && last != '\r') {
-                        writer.newLine();
-                    }
-                }
-                raf.close();
+        try {
+            String line = format(user);
+            store.append(List.of(line));
+            User stored = parse(line);
+            Snapshot snap = cache;
+            if (snap != null && stored != null) {
+                List<User> users = new ArrayList<>(snap.users());
+                users.add(stored);
+                cache = Snapshot.of(users);
             }
-            String line = String.format("%s,%s,%s,%s,%s", user.getId(), user.getPassword(), user.getRole(), user.getPhone(), user.getName());
-            writer.write(line);
-            writer.newLine();
-            System.out.println("[UserRepository] users.csv에 사용자 추가됨: " + line);
+            Log.info("[UserRepository] users.csv에 사용자 추가됨: ", line);
             return true;
         }
         catch(IOException ex){
-            System.out.println("[UserRepository] users.csv 저장 오류: " + ex.getMessage());
-            ex.printStackTrace();
+            cache = null;
+            Log.error("[UserRepository] users.csv 저장 오류: " + ex.getMessage(), ex);
             return false;
         }
     }
@@ -117,19 +145,13 @@ public class UserRepository {
         List<User> allUsers = findAll();
         boolean removed = allUsers.removeIf(u -> u.getId().equals(id));
         if(!removed) return false;
-        try(BufferedWriter writer = new BufferedWriter(new FileWriter(USER_FILE_PATH))){
-            writer.write("ID,Password,Role,Phone,Name");
-            for(User u : allUsers){
-                writer.newLine();
-                String line = String.format("%s,%s,%s,%s,%s", u.getId(), u.getPassword(), u.getRole(), u.getPhone(), u.getName());
-                writer.write(line);
-            }
-            System.out.println("[UserRepository] users.csv에서 사용자 삭제됨: " + id);
+        try {
+            rewrite(allUsers);
+            Log.info("[UserRepository] users.csv에서 사용자 삭제됨: ", id);
             return true;
         }
         catch(IOException ex){
-            System.out.println("[UserRepository] users.csv 삭제 오류: " + ex.getMessage());
-            ex.printStackTrace();
+            Log.error("[UserRepository] users.csv 삭제 오류: " + ex.getMessage(), ex);
             return false;
         }
     }
@@ -149,22 +171,33 @@ public class UserRepository {
             }
         }
         if(!found) return false;
-        try(BufferedWriter writer = new BufferedWriter(new FileWriter(USER_FILE_PATH))) {
-            writer.write("ID,Password,Role,Phone,Name");
-            for(User u : all) {
-                writer.newLine();
-                String line = String.format("%s,%s,%s,%s,%s", u.getId(), u.getPassword(), u.getRole(), u.getPhone(), u.getName());
-                writer.write(line);
-            }
-            System.out.println("[UserRepository] users.csv에서 사용자 수정됨: " + updated.getId());
+        try {
+            rewrite(all);
+            Log.info("[UserRepository] users.csv에서 사용자 수정됨: ", updated.getId());
             return true;
         } catch(IOException ex) {
-            System.out.println("[UserRepository] users.csv 수정 오류: " + ex.getMessage());
-            ex.printStackTrace();
+            Log.error("[UserRepository] users.csv 수정 오류: " + ex.getMessage(), ex);
             return false;
         }
     }
 
+    /** 전체 목록으로 파일을 다시 쓰고, 기록한 줄을 다시 읽었을 때와 같은 값으로 캐시 갱신 */
+    private void rewrite(List<User> users) throws IOException {
+        List<String> lines = format(users);
+        try {
+            store.replaceAll(lines);
+        } catch (IOException ex) {
+            cache = null;
+            throw ex;
+        }
+        List<User> stored = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            User u = parse(line);
+            if (u != null) stored.add(u);
+        }
+        cache = Snapshot.of(stored);
+    }
+
     // saveUser 메서드 기능을 add에 통합 (중복 제거)
 
 }
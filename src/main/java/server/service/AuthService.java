@@ -1,4 +1,5 @@
 package server.service;
+import server.log.Log;
 import server.model.User;
 import server.repository.UserRepository;
 import java.util.List;
@@ -20,20 +21,20 @@ public class AuthService {
     */
    public synchronized User registerUser(String id, String name, String pw, String phone){
        if(id == null || id.isEmpty() || pw == null || pw.isEmpty()){
-           System.out.println("아이디/비밀번호 누락");
+           Log.info("아이디/비밀번호 누락");
            return null;
        }
        // 중복 아이디 직접 검사 (리포지토리 add는 중복 검사하지 않음)
        if(userRepository.existsByUsername(id)){
-           System.out.println("이미 존재하는 아이디");
+           Log.info("이미 존재하는 아이디");
            return null;
        }
        User user = new User(id, name, pw, "Customer", phone);
        if(userRepository.add(user)){
-           System.out.println("회원가입 성공");
+           Log.info("회원가입 성공");
            return user;
        }
-       System.out.println("파일 저장 중 오류");
+       Log.error("파일 저장 중 오류");
        return null;
    }
 
@@ -43,16 +44,16 @@ public class AuthService {
        
        // 사용자가 존재하지 않음
        if(user == null){
-           System.out.println("사용자를 찾을 수 없음");
+           Log.info("사용자를 찾을 수 없음");
            return null;
        }
        // 비밀번호 일치
        if(user.getPassword().equals(pw)){
-           System.out.println("로그인 성공");
+           Log.info("로그인 성공");
            return user;
        }
        else{
-           System.out.println("비밀번호 불일치");
+           Log.info("비밀번호 불일치");
            return null;
        }
    }
@@ -0,0 +1,148 @@
+package server.service;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import server.config.ServerConfig;
+import server.log.Log;
+import server.repository.Compactable;
+
+/**
+ * 변경 로그 압축 서비스 (백그라운드 스레드 한 개)
+ * - compaction.checkSeconds마다 저장소를 확인해 로그가 충분히 쌓인 곳만 압축
+ * - 요청 처리와 경쟁하지 않도록 다음 경우에는 압축을 미룸
+ *   · 같은 저장소를 compaction.minIntervalSeconds 안에 이미 압축함 (빈도 제한)
+ *   · 처리 중인 요청 수가 compaction.maxInFlight 이상 (부하 중)
+ *   · compaction.peakHours 시간대 (예: 14-18, 체크인이 몰리는 시간. 비우면 제한 없음)
+ *   미룬 동안 로그가 reservation.log.maxEntries를 넘으면 저장소가 쓰기 요청에서 직접 압축한다.
+ * - 실행/연기/실패 횟수와 소요 시간을 세어 두고 getStats로 제공
+ * @author user
+ */
+public class CompactionService {
+    private final List<Compactable> targets;
+    private final IntSupplier inFlight;
+    private final long checkSeconds = Math.max(1, ServerConfig.getLong("compaction.checkSeconds", 5));
+    private final long minIntervalMillis = Math.max(0, ServerConfig.getLong("compaction.minIntervalSeconds", 60)) * 1000L;
+    private final int maxInFlight = ServerConfig.getInt("compaction.maxInFlight", 8);
+    private final int[] peakHours = parseHours(ServerConfig.getString("compaction.peakHours", ""));
+    /** 저장소별 마지막 압축 시각 (targets와 같은 순서) */
+    private final long[] lastCompacted;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("compactor").daemon(true).priority(Thread.MIN_PRIORITY).factory());
+
+    // 통계
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private volatile long lastMillis = 0;
+
+    /**
+     * @param targets  압축할 저장소들
+     * @param inFlight 현재 처리 중인 요청 수 (부하 판단용)
+     */
+    public CompactionService(List<Compactable> targets, IntSupplier inFlight) {
+        this.targets = List.copyOf(targets);
+        this.inFlight = inFlight;
+        this.lastCompacted = new long[targets.size()];
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::check, checkSeconds, checkSeconds, TimeUnit.SECONDS);
+        Log.info("[Compaction] 시작: " + checkSeconds + "초마다 확인, 저장소별 최소 간격 " + (minIntervalMillis / 1000)
+                + "초, 요청 " + maxInFlight + "개 이상이면 연기"
+                + (peakHours == null ? "" : ", " + peakHours[0] + "~" + peakHours[1] + "시 연기"));
+    }
+
+    /** 예약된 확인을 멈추고, 진행 중인 압축은 timeoutMillis까지 끝나기를 기다림 (서버 종료 시) */
+    public void shutdown(long timeoutMillis) {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        Log.info("[Compaction] 종료 (", getStats() + ")");
+    }
+
+    public String getStats() {
+        return "runs=" + runs.get() + ",deferred=" + deferred.get() + ",failures=" + failures.get()
+                + ",entries=" + entries.get() + ",totalMs=" + totalMillis.get() + ",lastMs=" + lastMillis;
+    }
+
+    private void check() {
+        try {
+            for (int i = 0; i < targets.size(); i++) {
+                Compactable target = targets.get(i);
+                if (!target.needsCompaction()) continue;
+                String reason = deferReason(i);
+                if (reason != null) {
+                    deferred.incrementAndGet();
+                    Log.debug("[Compaction] " + target.compactionName() + " 연기: ", reason);
+                    continue;
+                }
+                run(i, target);
+            }
+        } catch (RuntimeException ex) {
+            // 예외로 예약 작업이 취소되지 않도록 여기서 끝냄
+            failures.incrementAndGet();
+            Log.error("[Compaction] 확인 중 오류", ex);
+        }
+    }
+
+    private void run(int i, Compactable target) {
+        int pending = target.pendingEntries();
+        long start = System.nanoTime();
+        boolean done = target.compact();
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastCompacted[i] = System.currentTimeMillis();
+        if (!done) {
+            failures.incrementAndGet();
+            return;
+        }
+        runs.incrementAndGet();
+        entries.addAndGet(pending);
+        totalMillis.addAndGet(millis);
+        lastMillis = millis;
+        Log.info("[Compaction] " + target.compactionName() + " 로그 " + pending + "건 압축 (", millis + "ms)");
+    }
+
+    /** 지금 압축하면 안 되는 이유 (괜찮으면 null) */
+    private String deferReason(int i) {
+        if (System.currentTimeMillis() - lastCompacted[i] < minIntervalMillis) return "최소 간격";
+        int busy = inFlight.getAsInt();
+        if (maxInFlight > 0 && busy >= maxInFlight) return "처리 중인 요청 " + busy + "개";
+        if (peakHours != null) {
+            int hour = LocalTime.now().getHour();
+            boolean peak = peakHours[0] <= peakHours[1]
+                    ? hour >= peakHours[0] && hour < peakHours[1]
+                    : hour >= peakHours[0] || hour < peakHours[1]; // 자정을 넘는 구간 (예: 22-2)
+            if (peak) return "혼잡 시간대";
+        }
+        return null;
+    }
+
+    /** "14-18" → {14, 18} (비었거나 형식이 틀리면 null = 제한 없음) */
+    private static int[] parseHours(String value) {
+        if (value == null || value.isBlank()) return null;
+        String[] parts = value.split("-");
+        try {
+            int from = Integer.parseInt(parts[0].trim());
+            int to = Integer.parseInt(parts[1].trim());
+            if (parts.length == 2 && from >= 0 && from < 24 && to >= 0 && to <= 24 && from != to) return new int[]{from, to};
+        } catch (RuntimeException ignore) {
+        }
+        Log.warn("[Compaction] compaction.peakHours 형식 오류 (무시): ", value);
+        return null;
+    }
+}
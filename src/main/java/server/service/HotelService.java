@@ -15,8 +15,10 @@ import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
+import server.config.ServerConfig;
+import server.log.Log;
 import server.model.Payment;
 import server.model.Reservation;
 import server.model.Room;
@@ -30,7 +32,8 @@ public class HotelService {
     private final ReservationRepository resRepo;
     private final PaymentRepository payRepo;    
     private final Set<String> cleaningRooms = Collections.synchronizedSet(new HashSet<>());
-    private static final Object LOCK = new Object();
+    /** 방 번호별 잠금: 가용성 확인 → 예약 저장처럼 확인과 변경이 이어지는 작업을 방 단위로 묶음 */
+    private final RoomLocks roomLocks = new RoomLocks(ServerConfig.getInt("hotel.lockStripes", 64));
     private static final int EXTRA_PERSON_FEE = 20000;
 
     private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
@@ -58,9 +61,7 @@ public class HotelService {
     }
 
     public List<Reservation> getReservationsByName(String name) {
-        return resRepo.findAll().stream()
-                .filter(r -> r.getGuestName().equals(name))
-                .collect(Collectors.toList());
+        return resRepo.findByGuestName(name);
     }
 
     /**
@@ -115,39 +116,35 @@ public class HotelService {
 
     // 예약 가능한 방 타입 목록 반환
     public String getAvailableRoomTypes(String reqIn, String reqOut) {
-        synchronized (LOCK) {
+        // 대표 방 세 개를 함께 잠가 같은 시점의 결과를 돌려줌
+        return roomLocks.withRooms(List.of("101", "201", "301"), () -> {
             List<String> availableTypes = new ArrayList<>();
-            List<Reservation> allRes = resRepo.findAll();
 
             // 각 타입의 대표 방번호로 가능여부 체크 
-            if (isRoomAvailable("101", reqIn, reqOut, allRes)) availableTypes.add("STD");
-            if (isRoomAvailable("201", reqIn, reqOut, allRes)) availableTypes.add("DLX");
-            if (isRoomAvailable("301", reqIn, reqOut, allRes)) availableTypes.add("STE");
+            if (isRoomAvailable("101", reqIn, reqOut)) availableTypes.add("STD");
+            if (isRoomAvailable("201", reqIn, reqOut)) availableTypes.add("DLX");
+            if (isRoomAvailable("301", reqIn, reqOut)) availableTypes.add("STE");
 
             return String.join(",", availableTypes);
-        }
+        });
     }
     
-    public String getRoomStatusList(String reqIn, String reqOut) {
-        StringBuilder sb = new StringBuilder("ROOM_STATUS_LIST:");
+    /**
+     * 기간 내 객실별 상태 목록 (ROOM_STATUS_LIST 응답의 행)
+     * 행: 방번호, 타입, 가격(Integer), 정원(Integer), 설명, 상태(AVAILABLE/BOOKED/Cleaning)
+     * 모든 방을 예약 저장소가 공개한 한 시점의 View로 확인 (잠그지 않으므로 예약 쓰기를 기다리지 않음)
+     */
+    public List<Object[]> getRoomStatusRows(String reqIn, String reqOut) {
         List<Room> rooms = roomRepo.findAll();
-        List<Reservation> allRes = resRepo.findAll();
+        ReservationRepository.RoomSnapshot reservations = resRepo.roomSnapshot();
+        List<Object[]> rows = new ArrayList<>(rooms.size());
 
         for (Room r : rooms) {
-            boolean isBooked = false;
             String status = "AVAILABLE";
 
-            // 예약 확인
-            for (Reservation res : allRes) {
-                if (res.getRoomNumber().equals(r.getRoomNumber())) {
-                    if ("CheckedOut".equals(res.getReservationStatus())) continue;
-                    if (isDateOverlapping(reqIn, reqOut, res.getCheckInDate(), res.getCheckOutDate())) {
-                        isBooked = true;
-                        status = "BOOKED";
-                        break;
-                    }
-                }
-            }
+            // 예약 확인 (방 번호 인덱스로 해당 방의 예약만 확인)
+            boolean isBooked = reservations.hasActiveOverlap(r.getRoomNumber(), reqIn, reqOut);
+            if (isBooked) status = "BOOKED";
 
             // 예약이 안 잡혀있다면 청소 상태 확인
             if (!isBooked) {
@@ -158,14 +155,23 @@ public class HotelService {
                 }
             }
 
-            sb.append(String.format("%s,%s,%d,%d,%s,%s|", 
-                    r.getRoomNumber(), r.getType(), r.getPrice(), r.getCapacity(), r.getDescription(), status));
+            rows.add(new Object[] {
+                    r.getRoomNumber(), r.getType(), r.getPrice(), r.getCapacity(), r.getDescription(), status });
         }
-        return sb.toString();
+        return rows;
     }
 
     // [수정] 예약 + 결제 통합 메서드
-    public synchronized String createReservationWithPayment(
+    public String createReservationWithPayment(
+            String roomNum, String name, String reqIn, String reqOut, 
+            int guestNum, String phone, String request,
+            String cardNum, String cvc, String expiry, String cardPw) {
+        return roomLocks.withRoom(roomNum, () -> reserveAndPay(
+                roomNum, name, reqIn, reqOut, guestNum, phone, request, cardNum, cvc, expiry, cardPw));
+    }
+
+    // 해당 방 잠금 안에서 호출
+    private String reserveAndPay(
             String roomNum, String name, String reqIn, String reqOut, 
             int guestNum, String phone, String request,
             String cardNum, String cvc, String expiry, String cardPw) {
@@ -173,7 +179,7 @@ public class HotelService {
         // 1. 방 확인 & 가용성 확인 (기존 동일)
         Room room = roomRepo.findByNumber(roomNum);
         if (room == null) return "FAIL:InvalidRoom";
-        if (!isRoomAvailable(roomNum, reqIn, reqOut, resRepo.findAll())) {
+        if (!isRoomAvailable(roomNum, reqIn, reqOut)) {
             return "FAIL:RoomNotAvailable";
         }
 
@@ -214,10 +220,15 @@ public class HotelService {
     }
     
     public boolean cancelReservation(String resId) {
-        synchronized (LOCK) { return resRepo.delete(resId); }
+        return withReservationRoom(resId, () -> resRepo.delete(resId));
+    }
+
+    public boolean processPayment(String resId, String method, String cardNum, String cvc, String expiry, String pw, int amount) {
+        return withReservationRoom(resId, () -> pay(resId, method, cardNum, cvc, expiry, pw, amount));
     }
 
-    public synchronized boolean processPayment(String resId, String method, String cardNum, String cvc, String expiry, String pw, int amount) {
+    // 예약한 방의 잠금 안에서 호출
+    private boolean pay(String resId, String method, String cardNum, String cvc, String expiry, String pw, int amount) {
         String payId = "P-" + System.currentTimeMillis();
         String paymentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
 
@@ -250,21 +261,26 @@ public class HotelService {
     }
     
     public boolean checkIn(String resId){
-        synchronized (LOCK){
-            return resRepo.updateStatus(resId, "CheckedIn");
-        }
+        return withReservationRoom(resId, () -> resRepo.updateStatus(resId, "CheckedIn"));
     }
     
     public boolean checkOut(String resId){
-        synchronized(LOCK){
-            return resRepo.updateStatus(resId, "CheckedOut");
-        }
+        return withReservationRoom(resId, () -> resRepo.updateStatus(resId, "CheckedOut"));
+    }
+
+    /**
+     * 예약 번호로 방을 찾아 그 방을 잠근 채 action 실행
+     * - 예약의 방 번호는 바뀌지 않으므로 잠그기 전에 찾아도 됨
+     * - 없는 예약이면 잠그지 않고 실행 (저장소가 실패를 돌려줌)
+     */
+    private boolean withReservationRoom(String resId, Supplier<Boolean> action) {
+        Reservation res = resRepo.findById(resId);
+        if (res == null) return action.get();
+        return roomLocks.withRoom(res.getRoomNumber(), action);
     }
     
 public List<String> getReservationsWithRoomInfo(String guestName){
-        List<Reservation> myReservations = resRepo.findAll().stream()
-                .filter(r -> r.getGuestName().equals(guestName))
-                .collect(Collectors.toList());
+        List<Reservation> myReservations = resRepo.findByGuestName(guestName);
 
         List<Room> allRooms = roomRepo.findAll();
         List<String> resultList = new ArrayList<>();
@@ -291,24 +307,9 @@ public List<String> getReservationsWithRoomInfo(String guestName){
         return resultList;
     }
     
-    private boolean isRoomAvailable(String roomNum, String reqIn, String reqOut, List<Reservation> allRes) {
-        // 예약 겹침 확인
-        for (Reservation res : allRes) {
-            if (res.getRoomNumber().equals(roomNum)) {
-                // 체크아웃 된 건은 무시 (예약 가능)
-                if ("CheckedOut".equals(res.getReservationStatus())) continue;
-
-                if (isDateOverlapping(reqIn, reqOut, res.getCheckInDate(), res.getCheckOutDate())) {
-                    return false; // 겹침
-                }
-            }
-        }
-        return true;
-    }
-
-    private boolean isDateOverlapping(String reqIn, String reqOut, String existIn, String existOut) {
-        // (요청 시작 < 기존 종료) AND (요청 종료 > 기존 시작)
-        return (reqIn.compareTo(existOut) < 0) && (reqOut.compareTo(existIn) > 0);
+    private boolean isRoomAvailable(String roomNum, String reqIn, String reqOut) {
+        // 예약 겹침 확인 (체크아웃 된 건은 제외, 방별 숙박일 비트맵으로 확인)
+        return !resRepo.hasActiveOverlap(roomNum, reqIn, reqOut);
     }
 
     private String convertCodeToType(String code) {
@@ -331,20 +332,36 @@ public List<String> getReservationsWithRoomInfo(String guestName){
         
         // 중복 실행 방지를 위해 Runnable 작업 정의
         scheduler.scheduleAtFixedRate(() -> {
-            synchronized (LOCK) { 
-                System.out.println("[System] 18:00 미보장 예약 자동취소 점검 시작");
-                checkAndCancelUnpaidReservations();
-            }
+            Log.info("[System] 18:00 미보장 예약 자동취소 점검 시작");
+            checkAndCancelUnpaidReservations();
         }, initialDelay, oneDayInSeconds, TimeUnit.SECONDS);
     }
     
-    public synchronized String toggleCleaningStatus(String roomNum) {
-        if (cleaningRooms.contains(roomNum)) {
-            cleaningRooms.remove(roomNum); // 있으면 끄고
-        } else {
-            cleaningRooms.add(roomNum);    // 없으면 킴
+    /**
+     * 자동취소 스케줄러 종료 (서버 종료 시)
+     * - 다음 점검은 예약하지 않고, 실행 중인 점검은 timeoutMillis까지 끝나기를 기다림
+     */
+    public void shutdown(long timeoutMillis) {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
         }
-        return "SUCCESS";
+    }
+
+    public String toggleCleaningStatus(String roomNum) {
+        return roomLocks.withRoom(roomNum, () -> {
+            if (cleaningRooms.contains(roomNum)) {
+                cleaningRooms.remove(roomNum); // 있으면 끄고
+            } else {
+                cleaningRooms.add(roomNum);    // 없으면 킴
+            }
+            return "SUCCESS";
+        });
     }
     
     private void checkAndCancelUnpaidReservations() {
@@ -369,39 +386,48 @@ public List<String> getReservationsWithRoomInfo(String guestName){
 
                 // 현재 시간이 마감 시간을 지났으면 삭제
                 if (now.isAfter(deadline)) {
-                    System.out.println("[자동취소] 기한 만료! ID: " + r.getReservationId() + 
+                    Log.info("[자동취소] 기한 만료! ID: " + r.getReservationId() + 
                             " (생성: " + r.getCreatedAt() + " / 마감: " + deadline + ")");
-                    resRepo.delete(r.getReservationId());
+                    // 목록을 읽은 뒤 결제됐을 수 있으므로 방을 잠근 뒤 다시 확인
+                    roomLocks.withRoom(r.getRoomNumber(), () -> {
+                        Reservation current = resRepo.findById(r.getReservationId());
+                        return current != null && "Unpaid".equals(current.getReservationStatus())
+                                && resRepo.delete(r.getReservationId());
+                    });
                 }
 
             } catch (Exception e) {
-                System.out.println("날짜 파싱 오류 (ID: " + r.getReservationId() + "): " + e.getMessage());
+                Log.warn("날짜 파싱 오류 (ID: " + r.getReservationId() + "): " + e.getMessage());
             }
         }
     }   
     
     // 예약 생성
     public String createReservationByRoomNum(String roomNum, String name, String reqIn, String reqOut, int guestNum, String phone, String request) {
-        synchronized (LOCK) {
+        return roomLocks.withRoom(roomNum, () -> {
             // 1. 해당 방 번호가 실존하는지 확인
             Room room = roomRepo.findByNumber(roomNum);
             if (room == null) return null; // 없는 방
-            List<Reservation> allRes = resRepo.findAll();
             
-            if (isRoomAvailable(roomNum, reqIn, reqOut, allRes)) {
+            if (isRoomAvailable(roomNum, reqIn, reqOut)) {
                 // 3. 예약 저장
                 String nowStr = LocalDateTime.now().format(formatter);
                 String resId = resRepo.add(roomNum, name, reqIn, reqOut, guestNum, phone, nowStr, request);
                 return (resId != null) ? roomNum : null;
             }
             return null; // 이미 예약됨
-        }
+        });
     }
     
-    public String getRoomDashboard(String targetDate) {
-        StringBuilder sb = new StringBuilder("DASHBOARD_LIST:");
+    /**
+     * 조회일 기준 객실 현황 (DASHBOARD_LIST 응답의 행)
+     * 행: 방번호, 타입, 가격(Integer), 상태, 투숙객, 예약번호, 인원(Integer), 전화, 입실일, 퇴실일, 설명, 요청사항
+     * 모든 방을 예약 저장소가 공개한 한 시점의 View로 확인 (잠그지 않으므로 예약 쓰기를 기다리지 않음)
+     */
+    public List<Object[]> getRoomDashboardRows(String targetDate) {
         List<Room> rooms = roomRepo.findAll();
-        List<Reservation> reservations = resRepo.findAll();
+        ReservationRepository.RoomSnapshot reservations = resRepo.roomSnapshot();
+        List<Object[]> rows = new ArrayList<>(rooms.size());
         String today = LocalDate.now().toString();
         for (Room r : rooms) {
             String status = "Empty";
@@ -414,24 +440,22 @@ public List<String> getReservationsWithRoomInfo(String guestName){
             String note = r.getDescription();
             String detail = "-";
 
-            // 예약 확인
-            for (Reservation res : reservations) {
-                if (res.getRoomNumber().equals(r.getRoomNumber())) {
-                    // 날짜 범위 확인: 입실일 <= 조회일 < 퇴실일
-                    // (퇴실일 당일은 아직 체크아웃 전이라도, 숙박의 관점에서는 오후에 빈 방이 됨)
-                    if (isDateIncluded(targetDate, res.getCheckInDate(), res.getCheckOutDate())
-                            && targetDate.compareTo(res.getCheckOutDate()) < 0) {
-
-                        status = res.getReservationStatus();
-                        guestName = res.getGuestName();
-                        resId = res.getReservationId();
-                        guestNum = res.getGuestNum();
-                        phone = res.getPhoneNumber();
-                        inDate = res.getCheckInDate();
-                        outDate = res.getCheckOutDate();
-                        detail = res.getCustomerRequest(); // 요청사항
-                        break;
-                    }
+            // 예약 확인 (방 번호 인덱스로 해당 방의 예약만 확인)
+            for (Reservation res : reservations.findByRoom(r.getRoomNumber())) {
+                // 날짜 범위 확인: 입실일 <= 조회일 < 퇴실일
+                // (퇴실일 당일은 아직 체크아웃 전이라도, 숙박의 관점에서는 오후에 빈 방이 됨)
+                if (isDateIncluded(targetDate, res.getCheckInDate(), res.getCheckOutDate())
+                        && targetDate.compareTo(res.getCheckOutDate()) < 0) {
+
+                    status = res.getReservationStatus();
+                    guestName = res.getGuestName();
+                    resId = res.getReservationId();
+                    guestNum = res.getGuestNum();
+                    phone = res.getPhoneNumber();
+                    inDate = res.getCheckInDate();
+                    outDate = res.getCheckOutDate();
+                    detail = res.getCustomerRequest(); // 요청사항
+                    break;
                 }
             }
             
@@ -439,11 +463,11 @@ public List<String> getReservationsWithRoomInfo(String guestName){
                 status = "Cleaning"; 
             }
             
-            sb.append(String.format("%s,%s,%d,%s,%s,%s,%d,%s,%s,%s,%s,%s|", 
-                    r.getRoomNumber(), r.getType(), r.getPrice(), status, guestName, 
-                    resId, guestNum, phone, inDate, outDate, note, detail));
+            rows.add(new Object[] {
+                    r.getRoomNumber(), r.getType(), r.getPrice(), status, guestName,
+                    resId, guestNum, phone, inDate, outDate, note, detail });
         }
-        return sb.toString();
+        return rows;
     }
     
     public boolean addRoom(String num, String type, int price, int cap, String desc) {
@@ -459,15 +483,30 @@ public List<String> getReservationsWithRoomInfo(String guestName){
     }
     
     public boolean updateReservationRequest(String resId, String newRequest) {
-        synchronized (LOCK) {
-            return resRepo.updateRequest(resId, newRequest);
-        }
+        return withReservationRoom(resId, () -> resRepo.updateRequest(resId, newRequest));
     }
     
     public boolean updateReservationStatus(String resId, String newStatus) {
-        synchronized (LOCK) {
-            return resRepo.updateStatus(resId, newStatus);
-        }
+        return withReservationRoom(resId, () -> resRepo.updateStatus(resId, newStatus));
+    }
+
+    /** 예약의 현재 버전 (없는 예약이면 -1) */
+    public long getReservationVersion(String resId) {
+        Reservation res = resRepo.findById(resId);
+        return res == null ? -1 : res.getVersion();
+    }
+
+    /**
+     * 버전을 확인하는 요청사항 변경: 그 사이 다른 변경이 있었으면 바꾸지 않고 CONFLICT와 현재 버전을 돌려줌
+     * (호출자는 다시 조회해 새 버전으로 재시도)
+     */
+    public ReservationRepository.Update updateReservationRequest(String resId, String newRequest, long expectedVersion) {
+        return resRepo.updateRequest(resId, newRequest, expectedVersion);
+    }
+
+    /** 버전을 확인하는 상태 변경 (updateReservationRequest(resId, newRequest, expectedVersion)과 같은 방식) */
+    public ReservationRepository.Update updateReservationStatus(String resId, String newStatus, long expectedVersion) {
+        return resRepo.updateStatus(resId, newStatus, expectedVersion);
     }
     
     public ReservationRepository getReservationRepository(){
@@ -0,0 +1,186 @@
+package server.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+import server.config.ServerConfig;
+import server.log.Log;
+import server.model.Menu;
+import server.repository.MenuRepository;
+
+/**
+ * 메뉴 재고 (ORDER_MENU의 재고 차감을 메모리 카운터로 처리)
+ * - 메뉴 이름마다 재고 카운터를 두고, 주문은 "0보다 크면 1 감소"를 CAS로 처리하므로 동시 주문에도 초과 판매가 없음
+ * - 차감한 메뉴는 표시만 해 두었다가 menu.inventory.flushMillis 뒤 백그라운드에서 menus.csv에 한 번에 기록
+ *   (그 사이의 여러 주문을 한 번의 파일 쓰기로 합침, 재고가 0이 되면 판매중지로 기록)
+ * - 기록에 실패한 차감은 다시 표시해 두고 잠시 뒤 다시 기록 (그 사이 카운터는 그대로 두므로 파는 수량이 늘지 않음)
+ * - 메뉴 추가/수정/삭제는 주문을 잠시 막고 밀린 차감을 먼저 기록한 뒤 반영하며, 카운터는 다음 주문 때 다시 만듦
+ *   (밀린 차감을 기록하지 못하면 파일에서 카운터를 다시 만들지 않도록 변경하지 않음)
+ * - menus.csv를 직접 고치면 파일 내용이 우선: 아직 기록하지 않은 차감은 버리고 카운터를 다시 만듦
+ * @author user
+ */
+final class MenuInventory {
+    private final MenuRepository menuRepository;
+    private final long flushMillis = Math.max(0, ServerConfig.getLong("menu.inventory.flushMillis", 200));
+    // 기록에 실패했을 때 다시 기록하기까지의 대기 (ms)
+    private static final long RETRY_MILLIS = 1000;
+
+    // 주문(차감, 기록)은 읽기 잠금으로 동시에, 메뉴 변경/카운터 재생성은 쓰기 잠금으로 혼자
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // 메뉴 이름 → 재고 (같은 이름이 여러 개면 목록의 첫 메뉴). null이면 다음 주문 때 저장소에서 만듦
+    private volatile Map<String, Stock> byName = null;
+    // 차감한 뒤 아직 파일에 기록하지 않은 재고
+    private final Set<Stock> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("inventory-writer").daemon(true).factory());
+
+    /** 메뉴 하나의 재고 카운터 */
+    private static final class Stock {
+        final String menuId;
+        final AtomicInteger count;
+
+        Stock(String menuId, int count) {
+            this.menuId = menuId;
+            this.count = new AtomicInteger(count);
+        }
+
+        /** 재고가 남아 있으면 1 줄이고 true */
+        boolean take() {
+            while (true) {
+                int n = count.get();
+                if (n <= 0) return false;
+                if (count.compareAndSet(n, n - 1)) return true;
+            }
+        }
+    }
+
+    MenuInventory(MenuRepository menuRepository) {
+        this.menuRepository = menuRepository;
+        menuRepository.onExternalChange(this::reload);
+    }
+
+    /** 이름이 name인 메뉴의 재고를 1 줄임 (없는 메뉴이거나 재고가 없으면 false) */
+    boolean take(String name) {
+        lock.readLock().lock();
+        try {
+            Stock stock = stocks().get(name);
+            if (stock == null || !stock.take()) return false;
+            dirty.add(stock);
+        } finally {
+            lock.readLock().unlock();
+        }
+        scheduleFlush(flushMillis);
+        return true;
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (flushScheduled.compareAndSet(false, true)) {
+            writer.schedule(this::flushQuietly, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** 저장소에서 읽은 메뉴 목록에 아직 기록하지 않은 재고를 반영 (조회 결과가 주문 직후에도 맞도록) */
+    void overlay(List<Menu> menus) {
+        Map<String, Stock> current = byName;
+        if (current == null) return;
+        for (Menu m : menus) {
+            Stock stock = current.get(m.getName());
+            if (stock == null || !stock.menuId.equals(m.getMenuId())) continue;
+            int n = stock.count.get();
+            if (n == m.getStock()) continue;
+            m.setStock(n);
+            if (n == 0) m.setIsAvailable(false);
+        }
+    }
+
+    /** 밀린 차감을 기록한 뒤 change를 실행하고 카운터를 비움 (메뉴 추가/수정/삭제). 밀린 차감을 기록하지 못하면 false */
+    boolean exclusive(BooleanSupplier change) {
+        lock.writeLock().lock();
+        try {
+            if (!flush()) return false;
+            boolean result = change.getAsBoolean();
+            byName = null;
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 아직 기록하지 않은 차감을 지금 menus.csv에 기록 (서버 종료 시에도 호출)
+     * 기록하지 못하면 그 재고를 다시 표시하고 다음 기록을 예약한 뒤 false
+     */
+    boolean flush() {
+        lock.readLock().lock();
+        try {
+            synchronized (flushLock) {
+                flushScheduled.set(false); // 이후의 차감은 다시 기록을 예약
+                Map<String, Integer> changed = new LinkedHashMap<>();
+                List<Stock> taken = new ArrayList<>();
+                for (Iterator<Stock> it = dirty.iterator(); it.hasNext();) {
+                    Stock stock = it.next();
+                    it.remove(); // 값을 읽은 뒤의 차감은 다시 표시되어 다음 기록에 포함
+                    changed.put(stock.menuId, stock.count.get());
+                    taken.add(stock);
+                }
+                if (changed.isEmpty() || menuRepository.updateStock(changed)) return true;
+                dirty.addAll(taken);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Log.warn("[MenuInventory] 재고 기록 실패: 잠시 뒤 다시 기록 ", RETRY_MILLIS + "ms");
+        scheduleFlush(RETRY_MILLIS);
+        return false;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            Log.error("[MenuInventory] 재고 기록 오류", ex);
+        }
+    }
+
+    private Map<String, Stock> stocks() {
+        Map<String, Stock> current = byName;
+        if (current != null) return current;
+        synchronized (this) {
+            if (byName == null) {
+                Map<String, Stock> built = new HashMap<>();
+                for (Menu m : menuRepository.findAll()) built.putIfAbsent(m.getName(), new Stock(m.getMenuId(), m.getStock()));
+                byName = built;
+            }
+            return byName;
+        }
+    }
+
+    /** menus.csv가 밖에서 바뀌었을 때 (파일 내용 우선) */
+    private void reload() {
+        lock.writeLock().lock();
+        try {
+            if (!dirty.isEmpty()) Log.warn("[MenuInventory] menus.csv 변경 감지: 기록하지 않은 재고 차감 버림 ", dirty.size() + "건");
+            dirty.clear();
+            byName = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
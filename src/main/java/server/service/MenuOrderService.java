@@ -1,9 +1,13 @@
 package server.service;
 
 import server.model.MenuOrder;
+import server.repository.MenuOrderColumns;
 import server.repository.MenuOrderRepository;
 import java.util.List;
 
+/**
+ * 식음료 주문 서비스 (상태가 없으므로 잠그지 않음, 동기화는 MenuOrderRepository에서)
+ */
 public class MenuOrderService {
     private final MenuOrderRepository orderRepository;
 
@@ -11,11 +15,21 @@ public class MenuOrderService {
         this.orderRepository = new MenuOrderRepository();
     }
 
-    public synchronized List<MenuOrder> getAllOrders() {
+    public List<MenuOrder> getAllOrders() {
         return orderRepository.findAll();
     }
 
-    public synchronized void saveOrder(MenuOrder order) {
+    /** 투숙객 이름으로 주문 내역 조회 (저장소의 투숙객 인덱스 사용) */
+    public List<MenuOrder> getOrdersByGuest(String guestName) {
+        return orderRepository.findByGuest(guestName);
+    }
+
+    /** 매출 집계용 열 단위 주문 스냅샷 (잠금 없이 읽을 수 있음) */
+    public MenuOrderColumns getOrderColumns() {
+        return orderRepository.findColumns();
+    }
+
+    public void saveOrder(MenuOrder order) {
         orderRepository.save(order);
     }
 }
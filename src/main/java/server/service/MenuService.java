@@ -9,9 +9,12 @@ import java.util.Optional; // NullPointerException 방지 (null값을 참조해
 public class MenuService {
     // MenuRepository를 주입받아 데이터에 접근
     private final MenuRepository menuRepository;
+    // 주문 시 재고 차감용 메모리 카운터 (파일 기록은 모아서 백그라운드에서)
+    private final MenuInventory inventory;
     
     public MenuService() {
         this.menuRepository = new MenuRepository(); // menuservice 생성과 동시에 리포지토리 객체 생성
+        this.inventory = new MenuInventory(menuRepository);
     }
     
     /**
@@ -27,7 +30,7 @@ public class MenuService {
         Menu newMenu = new Menu(menuId, name, price, category, isAvailable, stock);
         newMenu.setIsAvailable(isAvailable);
         newMenu.setStock(stock);
-        return menuRepository.save(newMenu);
+        return inventory.exclusive(() -> menuRepository.save(newMenu));
     }
     
     /**
@@ -41,6 +44,10 @@ public class MenuService {
      */
     
     public synchronized boolean updateMenu(String menuId, String name, int price, String category, boolean isAvailable, int stock) {
+        return inventory.exclusive(() -> update(menuId, name, price, category, isAvailable, stock));
+    }
+
+    private boolean update(String menuId, String name, int price, String category, boolean isAvailable, int stock) {
         Optional<Menu> menuOptional = menuRepository.findById(menuId);
         if (menuOptional.isPresent()) {
             Menu updatingMenu = menuOptional.get();
@@ -54,8 +61,7 @@ public class MenuService {
             } else {
                 updatingMenu.setStock(stock);
             }
-            menuRepository.update(updatingMenu);
-            return true;
+            return menuRepository.update(updatingMenu);
         }
         return false;
     }
@@ -71,7 +77,7 @@ public class MenuService {
         
         if (menuToDelete.isPresent()) {
             // 리포지토리에서 delete 메서드 반환(호출)
-            return menuRepository.delete(menuId);
+            return inventory.exclusive(() -> menuRepository.delete(menuId));
         }
         return false; // 메뉴를 찾지 못함
     }
@@ -82,7 +88,27 @@ public class MenuService {
      */
     
     public synchronized List<Menu> getAllMenus() {
-        return menuRepository.findAll();
+        List<Menu> menus = menuRepository.findAll();
+        inventory.overlay(menus); // 아직 파일에 기록하지 않은 주문 차감 반영
+        return menus;
+    }
+
+    /**
+     * 주문한 메뉴(이름)의 재고를 1 줄임 (재고가 0이 되면 판매중지)
+     * 메모리 카운터만 바꾸므로 동시 주문끼리 기다리지 않으며, 파일에는 잠시 뒤 모아서 기록
+     * @return 차감했는가? (없는 메뉴이거나 재고가 없으면 false)
+     */
+    public boolean takeStock(String name) {
+        return inventory.take(name);
+    }
+
+    /** 아직 기록하지 않은 재고 차감을 지금 기록 (서버 종료 시) */
+    public void flushStock() {
+        inventory.flush();
+    }
+
+    public MenuRepository getMenuRepository() {
+        return menuRepository;
     }
 }
 
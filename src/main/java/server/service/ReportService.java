@@ -2,6 +2,7 @@ package server.service;
 
 import server.model.Reservation;
 import server.model.Room;
+import server.repository.MenuOrderColumns;
 import server.repository.ReservationRepository;
 import server.repository.RoomRepository;
 import java.time.LocalDate;
@@ -11,6 +12,8 @@ import java.util.*;
  * 통계 및 보고서 서비스
  * - RoomRepository, ReservationRepository, MenuOrderService를 주입받아 사용
  * - ServerMain에서 1회 생성되어 공유됨
+ * - 상태가 없고 잠그지 않음: 각 보고서는 저장소가 공개한 불변 스냅샷(객실 목록, 예약 View의 Confirmed 일자 비트맵,
+ *   주문 열 스냅샷)을 받아 계산하므로 여러 보고서가 동시에 돌고, 그동안 예약/주문 쓰기도 기다리지 않음
  */
 public class ReportService {
 
@@ -35,17 +38,17 @@ public class ReportService {
      * 식음료 매출 통합 조회 메서드
      * - 지정 기간(start~end) 동안의 평균 매출과 날짜별 매출/최다판매메뉴 표를 한 번에 반환
      * - 클라이언트/핸들러에서 한 번에 사용하기 편하도록 통합 구조 제공
+     * - 주문 열 스냅샷을 한 번만 훑어 평균과 표를 함께 계산
      *
      * @param start 시작일 (yyyy-MM-dd)
      * @param end 종료일 (yyyy-MM-dd)
      * @return Map<String, Object>: { "averageSales": double, "salesTable": List<Map<String, Object>> }
      */
-    public synchronized Map<String, Object> getMenuSalesByDateRange(String start, String end) {
-        double averageSales = getAverageMenuSalesByDateRange(start, end);
-        List<Map<String, Object>> salesTable = getMenuSalesTableByDateRange(start, end);
+    public Map<String, Object> getMenuSalesByDateRange(String start, String end) {
+        DailySales sales = getDailySales(LocalDate.parse(start), LocalDate.parse(end));
         Map<String, Object> result = new LinkedHashMap<>();
-        result.put("averageSales", averageSales);
-        result.put("salesTable", salesTable);
+        result.put("averageSales", sales.average());
+        result.put("salesTable", sales.table());
         return result;
     }
 
@@ -58,7 +61,7 @@ public class ReportService {
      * <p>
      * @return Map<LocalDate, List<MenuOrder>> : 날짜별 주문 리스트
      */
-    public synchronized Map<LocalDate, List<server.model.MenuOrder>> getMenuOrdersByDate() {
+    public Map<LocalDate, List<server.model.MenuOrder>> getMenuOrdersByDate() {
         // [수정] 내부에서 new 하지 않고, 생성자에서 주입받은 객체 사용
         List<server.model.MenuOrder> allOrders = menuOrderService.getAllOrders();
         
@@ -74,25 +77,21 @@ public class ReportService {
     /**
      * menu_orders.csv 파일을 날짜별, 메뉴별로 분류하여 판매량을 집계합니다.
      * <p>
-     * - getMenuOrdersByDate()로 날짜별 주문 리스트를 가져옵니다.
+     * - 주문 열 스냅샷(MenuOrderColumns)의 날짜/음식 번호 배열을 주문 순서대로 훑습니다.
      * - 각 날짜별로, 주문에 포함된 모든 메뉴(foodNames)를 카운트합니다.
      * - 메뉴명별로 판매량을 누적하여 Map에 저장합니다.
      * <p>
      * @return Map<LocalDate, Map<메뉴명, 판매수>>
      */
-    public synchronized Map<LocalDate, Map<String, Integer>> getMenuSalesCountByDate() {
-        Map<LocalDate, List<server.model.MenuOrder>> ordersByDate = getMenuOrdersByDate();
+    public Map<LocalDate, Map<String, Integer>> getMenuSalesCountByDate() {
+        MenuOrderColumns orders = menuOrderService.getOrderColumns();
         Map<LocalDate, Map<String, Integer>> salesByDate = new LinkedHashMap<>();
-        for (Map.Entry<LocalDate, List<server.model.MenuOrder>> entry : ordersByDate.entrySet()) {
-            LocalDate date = entry.getKey();
-            Map<String, Integer> menuCount = new HashMap<>();
-            for (server.model.MenuOrder order : entry.getValue()) {
-                for (String menu : order.getFoodNames()) {
-                    // 메뉴별 판매량 누적
-                    menuCount.put(menu, menuCount.getOrDefault(menu, 0) + 1);
-                }
+        for (int i = 0; i < orders.size(); i++) {
+            Map<String, Integer> menuCount = salesByDate.computeIfAbsent(LocalDate.ofEpochDay(orders.epochDay(i)), k -> new HashMap<>());
+            for (int k = orders.foodStart(i); k < orders.foodStart(i + 1); k++) {
+                // 메뉴별 판매량 누적
+                menuCount.merge(orders.foodName(orders.foodId(k)), 1, Integer::sum);
             }
-            salesByDate.put(date, menuCount);
         }
         return salesByDate;
     }
@@ -100,21 +99,17 @@ public class ReportService {
     /**
      * menu_orders.csv 파일을 날짜별로 분류하여 매출 합계를 집계합니다.
      * <p>
-     * - getMenuOrdersByDate()로 날짜별 주문 리스트를 가져옵니다.
+     * - 주문 열 스냅샷(MenuOrderColumns)의 날짜/총액 배열을 주문 순서대로 훑습니다.
      * - 각 날짜별로, 주문의 totalPrice(매출)를 모두 더해 합계를 구합니다.
      * <p>
      * @return Map<LocalDate, Integer> : 날짜별 매출 합계
      */
-    public synchronized Map<LocalDate, Integer> getMenuTotalSalesByDate() {
-        Map<LocalDate, List<server.model.MenuOrder>> ordersByDate = getMenuOrdersByDate();
+    public Map<LocalDate, Integer> getMenuTotalSalesByDate() {
+        MenuOrderColumns orders = menuOrderService.getOrderColumns();
         Map<LocalDate, Integer> totalSalesByDate = new LinkedHashMap<>();
-        for (Map.Entry<LocalDate, List<server.model.MenuOrder>> entry : ordersByDate.entrySet()) {
-            int sum = 0;
-            for (server.model.MenuOrder order : entry.getValue()) {
-                // 주문별 매출 합산
-                sum += order.getTotalPrice();
-            }
-            totalSalesByDate.put(entry.getKey(), sum);
+        for (int i = 0; i < orders.size(); i++) {
+            // 주문별 매출 합산
+            totalSalesByDate.merge(LocalDate.ofEpochDay(orders.epochDay(i)), orders.price(i), Integer::sum);
         }
         return totalSalesByDate;
     }
@@ -122,7 +117,7 @@ public class ReportService {
     /**
      * 지정한 기간(시작~종료) 동안의 일별 매출 합계의 평균을 계산합니다.
      * <p>
-     * - getMenuTotalSalesByDate()로 날짜별 매출 합계를 가져옵니다.
+     * - 기간 안의 날짜별 매출 합계를 주문 열 스냅샷에서 집계합니다.
      * - 시작~종료 날짜 구간의 매출만 추출하여 합산 후, 영업일 수로 나눕니다.
      * - 매출 데이터가 없는 날은 0으로 간주하지 않고, 해당 날짜는 평균 계산에서 제외합니다.
      *
@@ -130,60 +125,131 @@ public class ReportService {
      * @param end 종료일 (yyyy-MM-dd)
      * @return double: 지정 기간 내 평균 매출 (소수점 2자리)
      */
-    public synchronized double getAverageMenuSalesByDateRange(String start, String end) {
-        LocalDate startDate = LocalDate.parse(start);
-        LocalDate endDate = LocalDate.parse(end);
-        Map<LocalDate, Integer> salesByDate = getMenuTotalSalesByDate();
-        int sum = 0;
-        int count = 0;
-        for (Map.Entry<LocalDate, Integer> entry : salesByDate.entrySet()) {
-            LocalDate date = entry.getKey();
-            if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
-                sum += entry.getValue();
-                count++;
-            }
-        }
-        if (count == 0) return 0.0;
-        return Math.round((sum * 100.0 / count)) / 100.0; // 소수점 2자리 반올림
+    public double getAverageMenuSalesByDateRange(String start, String end) {
+        return getDailySales(LocalDate.parse(start), LocalDate.parse(end)).average();
     }
 
     /**
      * 지정한 기간(시작~종료) 동안 날짜별로 (1) 매출 합계, (2) 최다판매메뉴를 표 형태로 반환합니다.
      * <p>
-     * - getMenuTotalSalesByDate(), getMenuSalesCountByDate() 활용
+     * - 기간 안의 날짜별 매출 합계와 메뉴별 판매량을 주문 열 스냅샷에서 집계합니다.
      * - 각 날짜별로 매출 합계와 최다판매메뉴(동률이면 아무거나)를 구해 리스트에 담아 반환
      *
      * @param start 시작일 (yyyy-MM-dd)
      * @param end 종료일 (yyyy-MM-dd)
      * @return List<Map<String, Object>>: 각 날짜별 {date, totalSales, topMenu}
      */
-    public synchronized List<Map<String, Object>> getMenuSalesTableByDateRange(String start, String end) {
-        LocalDate startDate = LocalDate.parse(start);
-        LocalDate endDate = LocalDate.parse(end);
-        Map<LocalDate, Integer> salesByDate = getMenuTotalSalesByDate();
-        Map<LocalDate, Map<String, Integer>> countByDate = getMenuSalesCountByDate();
-        List<Map<String, Object>> table = new ArrayList<>();
-        
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            int totalSales = salesByDate.getOrDefault(date, 0);
-            String topMenu = "-";
-            Map<String, Integer> menuCount = countByDate.get(date);
-            if (menuCount != null && !menuCount.isEmpty()) {
-                int max = java.util.Collections.max(menuCount.values());
-                for (Map.Entry<String, Integer> e : menuCount.entrySet()) {
-                    if (e.getValue() == max) {
-                        topMenu = e.getKey();
-                        break; // 동률이면 아무거나
-                    }
+    public List<Map<String, Object>> getMenuSalesTableByDateRange(String start, String end) {
+        return getDailySales(LocalDate.parse(start), LocalDate.parse(end)).table();
+    }
+
+    /**
+     * 기간 안의 날짜별 매출 집계 결과
+     * - totals[d]: start + d 일의 매출 합계, orderCounts[d]: 주문 수, topMenus[d]: 최다판매메뉴 (주문이 없으면 null)
+     */
+    private record DailySales(LocalDate start, int[] totals, int[] orderCounts, String[] topMenus) {
+        /** 주문이 있었던 날의 매출 평균 (소수점 2자리) */
+        double average() {
+            int sum = 0;
+            int count = 0;
+            for (int d = 0; d < totals.length; d++) {
+                if (orderCounts[d] == 0) continue;
+                sum += totals[d];
+                count++;
+            }
+            if (count == 0) return 0.0;
+            return Math.round((sum * 100.0 / count)) / 100.0; // 소수점 2자리 반올림
+        }
+
+        List<Map<String, Object>> table() {
+            List<Map<String, Object>> table = new ArrayList<>(totals.length);
+            for (int d = 0; d < totals.length; d++) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("date", start.plusDays(d).toString());
+                row.put("totalSales", totals[d]);
+                row.put("topMenu", topMenus[d] == null ? "-" : topMenus[d]);
+                table.add(row);
+            }
+            return table;
+        }
+    }
+
+    /**
+     * [startDate, endDate] 기간의 날짜별 매출 합계와 최다판매메뉴
+     * - 열 스냅샷의 날짜 배열을 한 번 훑어 기간 안의 주문만 날짜별로 모으고(계수 정렬, 주문 순서 유지)
+     * - 날짜마다 음식 번호별 판매량을 int 배열로 세어 최다판매메뉴를 구함
+     */
+    private DailySales getDailySales(LocalDate startDate, LocalDate endDate) {
+        MenuOrderColumns orders = menuOrderService.getOrderColumns();
+        long from = startDate.toEpochDay();
+        int days = (int) Math.max(0, endDate.toEpochDay() - from + 1);
+        int[] totals = new int[days];
+        int[] orderCounts = new int[days];
+        String[] topMenus = new String[days];
+        // byDay[dayStart[d] .. dayStart[d+1]) = d일의 주문 번호
+        int[] dayStart = new int[days + 1];
+        for (int i = 0; i < orders.size(); i++) {
+            long d = orders.epochDay(i) - from;
+            if (d < 0 || d >= days) continue;
+            totals[(int) d] += orders.price(i);
+            orderCounts[(int) d]++;
+        }
+        for (int d = 0; d < days; d++) dayStart[d + 1] = dayStart[d] + orderCounts[d];
+        int[] byDay = new int[dayStart[days]];
+        int[] fill = Arrays.copyOf(dayStart, days);
+        for (int i = 0; i < orders.size(); i++) {
+            long d = orders.epochDay(i) - from;
+            if (d < 0 || d >= days) continue;
+            byDay[fill[(int) d]++] = i;
+        }
+        int[] counts = new int[orders.foodCount()];
+        int[] seen = new int[orders.foodCount()];
+        for (int d = 0; d < days; d++) {
+            if (orderCounts[d] > 0) topMenus[d] = topMenu(orders, byDay, dayStart[d], dayStart[d + 1], counts, seen);
+        }
+        return new DailySales(startDate, totals, orderCounts, topMenus);
+    }
+
+    /**
+     * byDay[from, to) 주문들에서 가장 많이 팔린 메뉴
+     * - 동률이면 기존 구현과 같은 결과가 나오도록 처음 나온 순서대로 HashMap에 넣어 순회 순서로 고름
+     * - counts/seen은 음식 수만큼의 작업 배열 (끝나면 counts를 0으로 되돌림)
+     */
+    private static String topMenu(MenuOrderColumns orders, int[] byDay, int from, int to, int[] counts, int[] seen) {
+        int n = 0;
+        for (int j = from; j < to; j++) {
+            int i = byDay[j];
+            for (int k = orders.foodStart(i); k < orders.foodStart(i + 1); k++) {
+                int id = orders.foodId(k);
+                if (counts[id]++ == 0) seen[n++] = id;
+            }
+        }
+        int max = 0;
+        int ties = 0;
+        int best = -1;
+        for (int s = 0; s < n; s++) {
+            int c = counts[seen[s]];
+            if (c > max) {
+                max = c;
+                ties = 1;
+                best = seen[s];
+            } else if (c == max) {
+                ties++;
+            }
+        }
+        String top = best < 0 ? null : orders.foodName(best);
+        if (ties > 1) {
+            Map<String, Integer> menuCount = new HashMap<>();
+            for (int s = 0; s < n; s++) menuCount.put(orders.foodName(seen[s]), counts[seen[s]]);
+            for (Map.Entry<String, Integer> e : menuCount.entrySet()) {
+                if (e.getValue() == max) {
+                    top = e.getKey();
+                    break; // 동률이면 아무거나
                 }
             }
-            Map<String, Object> row = new LinkedHashMap<>();
-            row.put("date", date.toString());
-            row.put("totalSales", totalSales);
-            row.put("topMenu", topMenu);
-            table.add(row);
         }
-        return table;
+        for (int s = 0; s < n; s++) counts[seen[s]] = 0;
+        return top;
     }
 
     /**
@@ -191,15 +257,31 @@ public class ReportService {
      * - 지정 기간(start~end) 동안 날짜별, 객실타입별(스탠다드/디럭스/스위트) 점유율과 전체 평균을 계산
      * - ReservationStatus가 Confirmed인 예약만 집계
      * - 각 날짜별로 해당 타입 객실 중 예약된 객실 수/전체 객실 수로 점유율 산출
+     *   (예약마다 세므로 같은 날 퇴실/입실이 겹친 객실은 두 번 셈)
+     * - 예약마다 기간과 겹치는 구간의 시작/끝만 표시한 뒤 누적 합으로 날짜별 예약 수를 구함 (날짜 x 예약 반복 없음)
      * - 응답 포맷: PAST_OCCUPANCY:평균점유율|날짜,스탠다드,디럭스,스위트,평균;...
      */
-    public synchronized String handlePastOccupancyRequest(String start, String end) {
+    public String handlePastOccupancyRequest(String start, String end) {
         LocalDate startDate = LocalDate.parse(start);
         LocalDate endDate = LocalDate.parse(end);
         List<Room> rooms = roomRepository.findAll();
+        int days = dayCount(startDate, endDate);
         List<Reservation> reservations = reservationRepository.findConfirmedInPeriod(start, end);
+        Map<String, String> roomTypeMap = new HashMap<>();
+        for (Room r : rooms) roomTypeMap.putIfAbsent(r.getRoomNumber(), r.getType());
+        
+        // 날짜별, 타입별 예약 수 집계
+        int[] stdCount = new int[days + 1], dlxCount = new int[days + 1], steCount = new int[days + 1];
+        for (Reservation r : reservations) {
+            String type = roomTypeMap.getOrDefault(r.getRoomNumber(), "");
+            if (type.equals("Standard")) addStay(stdCount, r, startDate);
+            else if (type.equals("Deluxe")) addStay(dlxCount, r, startDate);
+            else if (type.equals("Suite")) addStay(steCount, r, startDate);
+        }
+        accumulate(stdCount);
+        accumulate(dlxCount);
+        accumulate(steCount);
         
-        // 날짜별, 타입별 점유율 집계
         List<String> dateRows = new ArrayList<>();
         double sumAll = 0;
         int dayCount = 0;
@@ -207,17 +289,9 @@ public class ReportService {
         int dlxTotal = (int) rooms.stream().filter(r -> r.getType().equals("Deluxe")).count();   // 디럭스 객실 수
         int steTotal = (int) rooms.stream().filter(r -> r.getType().equals("Suite")).count();    // 스위트 객실 수
         
-        for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusDays(1)) {
-            int std = 0, dlx = 0, ste = 0;
-            // 해당 날짜에 예약된 객실을 타입별로 카운트
-            for (Reservation r : reservations) {
-                if (!d.isBefore(LocalDate.parse(r.getCheckInDate())) && !d.isAfter(LocalDate.parse(r.getCheckOutDate()))) {
-                    String type = rooms.stream().filter(room -> room.getRoomNumber().equals(r.getRoomNumber())).map(Room::getType).findFirst().orElse("");
-                    if (type.equals("Standard")) std++;
-                    else if (type.equals("Deluxe")) dlx++;
-                    else if (type.equals("Suite")) ste++;
-                }
-            }
+        for (int i = 0; i < days; i++) {
+            LocalDate d = startDate.plusDays(i);
+            int std = stdCount[i], dlx = dlxCount[i], ste = steCount[i];
             // 타입별 점유율(%) 계산
             double stdRate = stdTotal > 0 ? std * 100.0 / stdTotal : 0.0;
             double dlxRate = dlxTotal > 0 ? dlx * 100.0 / dlxTotal : 0.0;
@@ -245,7 +319,7 @@ public class ReportService {
      * - 각 객실별로 객실번호, 예약ID, 체크인/체크아웃, 투숙인원 반환
      * - 응답 포맷: CURRENT_OCCUPANCY:roomNumber,guestId,checkIn,checkOut,guestNum;...
      */
-    public synchronized String handleCurrentOccupancyRequest() {
+    public String handleCurrentOccupancyRequest() {
         List<Map<String, Object>> rows = getCurrentOccupancyReport();
         List<String> out = new ArrayList<>();
         for (Map<String, Object> row : rows) {
@@ -261,14 +335,27 @@ public class ReportService {
      * - 예약이 없는 날짜는 방학 시즌(7~9월, 1~3월)엔 40~80%, 그 외엔 10~30% 랜덤 점유율 생성
      * - 응답 포맷: FUTURE_OCCUPANCY:평균점유율|날짜,스탠다드,디럭스,스위트,평균;...
      */
-    public synchronized String handleFutureOccupancyRequest(String start, String end) {
+    public String handleFutureOccupancyRequest(String start, String end) {
         LocalDate startDate = LocalDate.parse(start);
         LocalDate endDate = LocalDate.parse(end);
         List<Room> rooms = roomRepository.findAll();
-        Map<String, String> roomTypeMap = new HashMap<>();
-        for (Room r : rooms) roomTypeMap.put(r.getRoomNumber(), r.getType());
+        int days = dayCount(startDate, endDate);
+        // 객실별 Confirmed 투숙 비트맵 (i번 비트 = startDate + i 일)
+        Map<String, long[]> occupied = reservationRepository.getConfirmedOccupancy(startDate, endDate);
+        
+        // 날짜별, 타입별 점유 객실 수와 "예약이 하나라도 있는 날" 비트 (객실 비트맵의 OR)
+        int[] stdCount = new int[days], dlxCount = new int[days], steCount = new int[days];
+        long[] reservedDays = new long[(days + 63) >>> 6];
+        for (Room r : rooms) {
+            long[] bits = occupied.get(r.getRoomNumber());
+            if (bits == null) continue;
+            for (int w = 0; w < bits.length; w++) reservedDays[w] |= bits[w];
+            String type = r.getType();
+            if (type.equals("Standard")) addDays(stdCount, bits);
+            else if (type.equals("Deluxe")) addDays(dlxCount, bits);
+            else if (type.equals("Suite")) addDays(steCount, bits);
+        }
         
-        List<Reservation> allConfirmed = reservationRepository.findConfirmedInPeriod(start, end);
         int stdTotal = (int) rooms.stream().filter(r -> r.getType().equals("Standard")).count();
         int dlxTotal = (int) rooms.stream().filter(r -> r.getType().equals("Deluxe")).count();
         int steTotal = (int) rooms.stream().filter(r -> r.getType().equals("Suite")).count();
@@ -281,28 +368,11 @@ public class ReportService {
         java.util.Random rand = new java.util.Random();
         
         // 미래 점유율 예측: 실제 예약이 없는 날짜는 랜덤값, 방학 시즌은 높은 점유율로 생성
-        for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusDays(1)) {
-            int std = 0, dlx = 0, ste = 0;
-            boolean hasReservation = false;
-            
+        for (int i = 0; i < days; i++) {
+            LocalDate d = startDate.plusDays(i);
             // 1. 실제 예약(Confirmed)이 있는 객실은 실제 데이터로 집계
-            for (Room r : rooms) {
-                String type = r.getType();
-                String roomNum = r.getRoomNumber();
-                for (Reservation res : allConfirmed) {
-                    if (!roomNum.equals(res.getRoomNumber())) continue;
-                    LocalDate in = LocalDate.parse(res.getCheckInDate());
-                    LocalDate out = LocalDate.parse(res.getCheckOutDate());
-                    if (!d.isBefore(in) && !d.isAfter(out)) {
-                        hasReservation = true; // 이 날짜에 실제 예약 있음
-                        // 타입별 카운트
-                        if (type.equals("Standard")) std++;
-                        else if (type.equals("Deluxe")) dlx++;
-                        else if (type.equals("Suite")) ste++;
-                        break;
-                    }
-                }
-            }
+            int std = stdCount[i], dlx = dlxCount[i], ste = steCount[i];
+            boolean hasReservation = (reservedDays[i >>> 6] & (1L << i)) != 0; // 이 날짜에 실제 예약 있음
             
             // 2. 실제 예약이 없는 날은 랜덤 점유율 생성
             double stdRate, dlxRate, steRate, avg;
@@ -349,26 +419,27 @@ public class ReportService {
      * @param end 종료일 (포함)
      * @return List<Map<String, Object>>: roomNumber, totalDays, reservedDays, occupancyRate(%)
      */
-    public synchronized List<Map<String, Object>> getPastOccupancyReport(LocalDate start, LocalDate end) {
+    public List<Map<String, Object>> getPastOccupancyReport(LocalDate start, LocalDate end) {
         List<Room> rooms = roomRepository.findAll();
         List<Reservation> reservations = reservationRepository.findConfirmedInPeriod(start.toString(), end.toString());
         long totalDays = end.toEpochDay() - start.toEpochDay() + 1;
         List<Map<String, Object>> report = new ArrayList<>();
+        // 객실별로 예약마다 기간과 겹치는 일수 합산 (예약 목록을 한 번만 훑음)
+        Map<String, Long> daysByRoom = new HashMap<>();
+        for (Reservation r : reservations) {
+            LocalDate resStart = LocalDate.parse(r.getCheckInDate());
+            LocalDate resEnd = LocalDate.parse(r.getCheckOutDate());
+            LocalDate overlapStart = resStart.isAfter(start) ? resStart : start;
+            LocalDate overlapEnd = resEnd.isBefore(end) ? resEnd : end;
+            if (!overlapStart.isAfter(overlapEnd)) {
+                daysByRoom.merge(r.getRoomNumber(), overlapEnd.toEpochDay() - overlapStart.toEpochDay() + 1, Long::sum);
+            }
+        }
         
         for (Room room : rooms) {
             String roomNum = room.getRoomNumber();
-            // 해당 객실의 예약 중, 기간과 겹치는 일수 합산
-            long reservedDays = 0;
-            for (Reservation r : reservations) {
-                if (!roomNum.equals(r.getRoomNumber())) continue;
-                LocalDate resStart = LocalDate.parse(r.getCheckInDate());
-                LocalDate resEnd = LocalDate.parse(r.getCheckOutDate());
-                LocalDate overlapStart = resStart.isAfter(start) ? resStart : start;
-                LocalDate overlapEnd = resEnd.isBefore(end) ? resEnd : end;
-                if (!overlapStart.isAfter(overlapEnd)) {
-                    reservedDays += (overlapEnd.toEpochDay() - overlapStart.toEpochDay() + 1);
-                }
-            }
+            // 해당 객실의 예약 중, 기간과 겹치는 일수 합
+            long reservedDays = daysByRoom.getOrDefault(roomNum, 0L);
             double occupancyRate = totalDays > 0 ? (reservedDays * 100.0 / totalDays) : 0.0;
             Map<String, Object> row = new LinkedHashMap<>();
             row.put("roomNumber", roomNum);
@@ -384,7 +455,7 @@ public class ReportService {
      * 현재 점유율 보고서: 오늘 날짜 기준 투숙 중인 Confirmed 예약 정보 표 반환
      * @return List<Map<String, Object>>: roomNumber, guestId, checkIn, checkOut, guestNum
      */
-    public synchronized List<Map<String, Object>> getCurrentOccupancyReport() {
+    public List<Map<String, Object>> getCurrentOccupancyReport() {
         LocalDate today = LocalDate.now();
         List<Reservation> reservations = reservationRepository.findConfirmedToday(today.toString());
         List<Map<String, Object>> report = new ArrayList<>();
@@ -405,30 +476,25 @@ public class ReportService {
      * @param targetDate 예측할 날짜
      * @return List<Map<String, Object>>: roomNumber, predictedOccupancyRate(%)
      */
-    public synchronized List<Map<String, Object>> getFutureOccupancyPrediction(LocalDate targetDate) {
+    public List<Map<String, Object>> getFutureOccupancyPrediction(LocalDate targetDate) {
         List<Room> rooms = roomRepository.findAll();
         // 과거 4주간 동일 요일 데이터로 예측
         List<LocalDate> pastDates = new ArrayList<>();
         for (int i = 1; i <= 4; i++) {
             pastDates.add(targetDate.minusWeeks(i));
         }
-        List<Reservation> allConfirmed = reservationRepository.findAll();
+        // 4주 전 ~ 1주 전 구간의 객실별 Confirmed 투숙 비트맵
+        LocalDate from = targetDate.minusWeeks(4);
+        Map<String, long[]> occupied = reservationRepository.getConfirmedOccupancy(from, targetDate.minusWeeks(1));
         List<Map<String, Object>> report = new ArrayList<>();
         
         for (Room room : rooms) {
             String roomNum = room.getRoomNumber();
+            long[] bits = occupied.get(roomNum);
             int count = 0;
             for (LocalDate d : pastDates) {
-                for (Reservation r : allConfirmed) {
-                    if (!"Confirmed".equalsIgnoreCase(r.getReservationStatus())) continue;
-                    if (!roomNum.equals(r.getRoomNumber())) continue;
-                    LocalDate in = LocalDate.parse(r.getCheckInDate());
-                    LocalDate out = LocalDate.parse(r.getCheckOutDate());
-                    if (!d.isBefore(in) && !d.isAfter(out)) {
-                        count++;
-                        break;
-                    }
-                }
+                int i = (int) (d.toEpochDay() - from.toEpochDay());
+                if (bits != null && (bits[i >>> 6] & (1L << i)) != 0) count++;
             }
             double predicted = (count / 4.0) * 100.0;
             Map<String, Object> row = new LinkedHashMap<>();
@@ -438,4 +504,38 @@ public class ReportService {
         }
         return report;
     }
-}
\ No newline at end of file
+
+    /** start~end(포함)의 일수 (end가 앞서면 0) */
+    private static int dayCount(LocalDate start, LocalDate end) {
+        return (int) Math.max(0, end.toEpochDay() - start.toEpochDay() + 1);
+    }
+
+    /**
+     * 예약 r의 입실일~퇴실일(포함) 중 counts의 기간에 드는 날에 1을 더하도록 구간 양끝만 표시
+     * (counts[i] = start + i 일, 길이는 일수 + 1이며 accumulate 후 날짜별 예약 수가 됨)
+     */
+    private static void addStay(int[] counts, Reservation r, LocalDate start) {
+        long from = start.toEpochDay();
+        long lo = Math.max(0, LocalDate.parse(r.getCheckInDate()).toEpochDay() - from);
+        long hi = Math.min(counts.length - 2, LocalDate.parse(r.getCheckOutDate()).toEpochDay() - from);
+        if (lo > hi) return;
+        counts[(int) lo]++;
+        counts[(int) hi + 1]--;
+    }
+
+    /** addStay로 표시한 구간 양끝을 누적 합으로 날짜별 개수로 바꿈 */
+    private static void accumulate(int[] counts) {
+        for (int i = 1; i < counts.length; i++) counts[i] += counts[i - 1];
+    }
+
+    /** 비트가 켜진 날마다 counts[날짜 번호]를 1씩 증가 (켜진 비트만 훑음) */
+    private static void addDays(int[] counts, long[] bits) {
+        for (int w = 0; w < bits.length; w++) {
+            long b = bits[w];
+            while (b != 0) {
+                counts[(w << 6) + Long.numberOfTrailingZeros(b)]++;
+                b &= b - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package server.service;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 방 번호별 잠금 (고정 개수의 잠금을 방 번호 해시로 나눠 씀)
+ * - 같은 방(또는 같은 잠금에 걸린 방)의 예약/취소/상태 변경만 서로 기다리고, 다른 방끼리는 동시에 처리
+ * - 여러 방을 함께 잠글 때는 잠금 번호 순으로 잡아 교착을 막음
+ * @author user
+ */
+final class RoomLocks {
+    private final ReentrantLock[] stripes;
+
+    /** @param count 잠금 개수 (2의 거듭제곱으로 올림) */
+    RoomLocks(int count) {
+        int size = Integer.highestOneBit(Math.max(1, count - 1)) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) stripes[i] = new ReentrantLock();
+    }
+
+    private int index(String roomNum) {
+        int h = roomNum == null ? 0 : roomNum.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    /** roomNum 방을 잠근 채로 action 실행 */
+    <T> T withRoom(String roomNum, Supplier<T> action) {
+        ReentrantLock lock = stripes[index(roomNum)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** rooms의 방을 모두 잠근 채로 action 실행 (그동안 이 방들의 상태는 바뀌지 않음) */
+    <T> T withRooms(Collection<String> rooms, Supplier<T> action) {
+        TreeSet<Integer> order = new TreeSet<>();
+        for (String roomNum : rooms) order.add(index(roomNum));
+        ReentrantLock[] held = new ReentrantLock[order.size()];
+        int n = 0;
+        try {
+            for (int i : order) {
+                stripes[i].lock();
+                held[n++] = stripes[i];
+            }
+            return action.get();
+        } finally {
+            while (n > 0) held[--n].unlock();
+        }
+    }
+}